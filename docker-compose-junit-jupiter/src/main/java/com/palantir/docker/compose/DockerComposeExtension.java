@@ -16,11 +16,17 @@
 
 package com.palantir.docker.compose;
 
+import com.palantir.docker.compose.report.TestDescription;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Optional;
 import org.immutables.value.Value;
 import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
 
 /**
  * A JUnit 5 extension to bring up Docker containers defined in a docker-compose.yml before running tests.
@@ -29,7 +35,7 @@ import org.junit.jupiter.api.extension.ExtensionContext;
 @CustomImmutablesStyle
 @SuppressWarnings("DesignForExtension")
 public abstract class DockerComposeExtension extends DockerComposeManager
-        implements BeforeAllCallback, AfterAllCallback {
+        implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback, TestWatcher {
 
     @Override
     public void beforeAll(ExtensionContext _value) throws IOException, InterruptedException {
@@ -37,10 +43,36 @@ public abstract class DockerComposeExtension extends DockerComposeManager
     }
 
     @Override
-    public void afterAll(ExtensionContext _value) {
+    public void afterAll(ExtensionContext context) {
+        if (context.getExecutionException().isPresent()) {
+            recordTestFailure();
+        }
         after();
     }
 
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        recordTestStarted(describe(context));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        recordTestFinished(describe(context), context.getExecutionException().isPresent());
+    }
+
+    @Override
+    public void testFailed(ExtensionContext _context, Throwable _cause) {
+        recordTestFailure();
+    }
+
+    private static TestDescription describe(ExtensionContext context) {
+        return TestDescription.builder()
+                .testClass(context.getTestClass().map(Class::getName))
+                .displayName(Optional.of(context.getDisplayName()))
+                .method(context.getTestMethod().map(Method::getName))
+                .build();
+    }
+
     public static Builder builder() {
         return new Builder();
     }
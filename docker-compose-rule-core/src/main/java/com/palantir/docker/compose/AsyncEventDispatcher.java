@@ -0,0 +1,162 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.docker.compose.configuration.AsyncEventDispatch;
+import com.palantir.docker.compose.events.Event;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends events, in the order they were emitted, from a single dedicated thread with a bounded queue in front of it.
+ */
+final class AsyncEventDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+    private final AsyncEventDispatch config;
+    private final Consumer<Event> sink;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // guarded by this
+    private long pending = 0;
+
+    AsyncEventDispatcher(AsyncEventDispatch config, Consumer<Event> sink) {
+        this.config = config;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(config.capacity());
+        this.executor = new ThreadPoolExecutor(
+                1,
+                1,
+                30,
+                TimeUnit.SECONDS,
+                queue,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("dcr-event-dispatcher-%d")
+                        .setDaemon(true)
+                        .build(),
+                overflowHandler());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    void dispatch(Event event) {
+        synchronized (this) {
+            pending++;
+        }
+        executor.execute(new Dispatch(event));
+    }
+
+    /**
+     * Waits for every event dispatched so far to be sent, for at most the configured flush timeout. Returns whether
+     * they were all sent.
+     */
+    boolean flush() {
+        long deadlineNanos = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(config.flushTimeout().getMillis());
+        try {
+            synchronized (this) {
+                while (pending > 0) {
+                    long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                    if (remainingMillis <= 0) {
+                        log.warn("Timed out after {} waiting for {} events to be sent", config.flushTimeout(), pending);
+                        return false;
+                    }
+                    wait(remainingMillis);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            long droppedSinceLastFlush = dropped.getAndSet(0);
+            if (droppedSinceLastFlush > 0) {
+                log.warn(
+                        "Dropped {} events because the event consumers could not keep up, overflow policy is {}",
+                        droppedSinceLastFlush,
+                        config.overflowPolicy());
+            }
+        }
+    }
+
+    private synchronized void finished() {
+        pending--;
+        if (pending == 0) {
+            notifyAll();
+        }
+    }
+
+    private void drop() {
+        dropped.incrementAndGet();
+        finished();
+    }
+
+    private RejectedExecutionHandler overflowHandler() {
+        switch (config.overflowPolicy()) {
+            case BLOCK:
+                return (dispatch, _executor) -> {
+                    try {
+                        queue.put(dispatch);
+                        // the dispatcher thread may have timed out while the queue was full
+                        executor.prestartCoreThread();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        drop();
+                    }
+                };
+            case DROP_NEWEST:
+                return (_dispatch, _executor) -> drop();
+            case DROP_OLDEST:
+                return (dispatch, _executor) -> {
+                    if (queue.poll() != null) {
+                        drop();
+                    }
+                    executor.execute(dispatch);
+                };
+        }
+        throw new IllegalStateException("Unknown overflow policy " + config.overflowPolicy());
+    }
+
+    private final class Dispatch implements Runnable {
+        private final Event event;
+
+        Dispatch(Event event) {
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            try {
+                sink.accept(event);
+            } catch (RuntimeException e) {
+                // each consumer's error has already been logged
+                log.debug("Error sending event {}", event, e);
+            } finally {
+                finished();
+            }
+        }
+    }
+}
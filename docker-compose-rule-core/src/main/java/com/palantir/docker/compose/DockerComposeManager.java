@@ -15,17 +15,14 @@
  */
 package com.palantir.docker.compose;
 
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Futures;
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.EventEmitter.InterruptableClusterWait;
+import com.palantir.docker.compose.configuration.AsyncEventDispatch;
 import com.palantir.docker.compose.configuration.DockerComposeFiles;
 import com.palantir.docker.compose.configuration.ProjectName;
 import com.palantir.docker.compose.configuration.ShutdownStrategy;
 import com.palantir.docker.compose.connection.Cluster;
+import com.palantir.docker.compose.connection.ClusterStateTracker;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerCache;
 import com.palantir.docker.compose.connection.DockerMachine;
@@ -34,7 +31,10 @@ import com.palantir.docker.compose.connection.ImmutableCluster;
 import com.palantir.docker.compose.connection.waiting.ClusterHealthCheck;
 import com.palantir.docker.compose.connection.waiting.ClusterWait;
 import com.palantir.docker.compose.connection.waiting.HealthCheck;
+import com.palantir.docker.compose.connection.waiting.PollPolicy;
 import com.palantir.docker.compose.events.EventConsumer;
+import com.palantir.docker.compose.execution.CachingDockerCompose;
+import com.palantir.docker.compose.execution.ChangeNotifyingDockerCompose;
 import com.palantir.docker.compose.execution.ConflictingContainerRemovingDockerCompose;
 import com.palantir.docker.compose.execution.DefaultDockerCompose;
 import com.palantir.docker.compose.execution.Docker;
@@ -44,18 +44,27 @@ import com.palantir.docker.compose.execution.DockerComposeExecutable;
 import com.palantir.docker.compose.execution.DockerComposeRunArgument;
 import com.palantir.docker.compose.execution.DockerComposeRunOption;
 import com.palantir.docker.compose.execution.DockerExecutable;
+import com.palantir.docker.compose.execution.EngineApiDocker;
 import com.palantir.docker.compose.execution.RetryingDockerCompose;
 import com.palantir.docker.compose.logging.DoNothingLogCollector;
 import com.palantir.docker.compose.logging.FileLogCollector;
 import com.palantir.docker.compose.logging.LogCollector;
 import com.palantir.docker.compose.logging.LogDirectory;
+import com.palantir.docker.compose.logging.LogFileFormat;
+import com.palantir.docker.compose.logging.StreamingLogCollector;
+import com.palantir.docker.compose.logging.TestLogSlice;
 import com.palantir.docker.compose.report.TestDescription;
 import com.palantir.docker.compose.reporting.RunRecorder;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
@@ -73,7 +82,14 @@ public abstract class DockerComposeManager {
     public static final Duration DEFAULT_TIMEOUT = Duration.standardMinutes(2);
     public static final int DEFAULT_RETRY_ATTEMPTS = 2;
 
+    /** Set this system property to <code>true</code> to collect logs even when nothing failed. */
+    public static final String ALWAYS_COLLECT_LOGS_PROPERTY = "docker-compose-rule.alwaysCollectLogs";
+
     private final RunRecorder runRecorder = RunRecorder.defaults();
+    private final AtomicBoolean failureRecorded = new AtomicBoolean(false);
+    private final Map<TestDescription, Instant> testStartTimes = new ConcurrentHashMap<>();
+    private final Consumer<String> logCollectorStartListener =
+            service -> logCollector().serviceStarted(service);
 
     public DockerPort hostNetworkedPort(int port) {
         return new DockerPort(machine().getIp(), port, port);
@@ -115,8 +131,21 @@ public abstract class DockerComposeManager {
         return DockerExecutable.builder().dockerConfiguration(machine()).build();
     }
 
+    /**
+     * Talk to the docker daemon through its engine API over a persistent connection instead of forking a
+     * <code>docker</code> process for every container inspection or removal. Falls back to the docker CLI if the
+     * daemon socket cannot be reached.
+     */
+    @Value.Default
+    public boolean useDockerEngineApi() {
+        return false;
+    }
+
     @Value.Default
     public Docker docker() {
+        if (useDockerEngineApi()) {
+            return EngineApiDocker.connectingOnFirstUse(dockerExecutable());
+        }
         return new Docker(dockerExecutable());
     }
 
@@ -129,17 +158,56 @@ public abstract class DockerComposeManager {
     public com.palantir.docker.compose.execution.DockerCompose dockerCompose() {
         com.palantir.docker.compose.execution.DockerCompose dockerCompose =
                 new DefaultDockerCompose(dockerComposeExecutable(), machine());
-        return new RetryingDockerCompose(retryAttempts(), dockerCompose);
+        if (cacheDockerComposeQueriesFor().getMillis() > 0) {
+            dockerCompose = new CachingDockerCompose(cacheDockerComposeQueriesFor(), dockerCompose);
+        }
+        // forget the snapshot of the containers whenever they may have changed, however the command was run
+        return new ChangeNotifyingDockerCompose(
+                new RetryingDockerCompose(retryAttempts(), dockerCompose),
+                () -> containers().containerCache().invalidateSnapshot());
+    }
+
+    /**
+     * How long to reuse the results of read-only <code>docker-compose</code> queries such as <code>ps</code> and
+     * <code>config --services</code> for. Zero, the default, disables caching.
+     */
+    @Value.Default
+    public ReadableDuration cacheDockerComposeQueriesFor() {
+        return Duration.ZERO;
     }
 
     @Value.Default
     public Cluster containers() {
+        ContainerCache containerCache = clusterStateTracker()
+                .map(tracker -> new ContainerCache(docker(), dockerCompose(), tracker))
+                .orElseGet(() -> new ContainerCache(docker(), dockerCompose()));
         return ImmutableCluster.builder()
                 .ip(machine().getIp())
-                .containerCache(new ContainerCache(docker(), dockerCompose()))
+                .containerCache(containerCache)
                 .build();
     }
 
+    /**
+     * Follow <code>docker events</code> for the project while the cluster is up, so that native healthchecks and
+     * container states are read from memory rather than polled. Requires the project name to be set.
+     */
+    @Value.Default
+    protected boolean trackStateWithDockerEvents() {
+        return false;
+    }
+
+    @Value.Lazy
+    protected Optional<ClusterStateTracker> clusterStateTracker() {
+        if (!trackStateWithDockerEvents()) {
+            return Optional.empty();
+        }
+        if (projectName().isOmitted()) {
+            log.warn("Can not follow docker events without a project name, falling back to polling");
+            return Optional.empty();
+        }
+        return Optional.of(new ClusterStateTracker(docker(), projectName().asString()));
+    }
+
     @Value.Default
     protected int retryAttempts() {
         return DEFAULT_RETRY_ATTEMPTS;
@@ -155,22 +223,111 @@ public abstract class DockerComposeManager {
         return false;
     }
 
+    /**
+     * Check native healthchecks with one <code>docker inspect</code> for the whole cluster per poll, rather than
+     * inspecting every service individually.
+     */
+    @Value.Default
+    protected boolean batchNativeHealthChecks() {
+        return false;
+    }
+
     @Value.Default
     protected ReadableDuration nativeServiceHealthCheckTimeout() {
         return DEFAULT_TIMEOUT;
     }
 
+    /**
+     * How often to check cluster waits which do not set their own {@link ClusterWait#pollPolicy()}, including the
+     * wait for native healthchecks. Without one, waits check at a fixed interval.
+     */
+    protected abstract Optional<PollPolicy> pollPolicy();
+
+    // what it learns about how long the cluster takes to become ready is shared by every manager of the same files,
+    // as JUnit creates a new one for each test when used as a @Rule
+    @Value.Lazy
+    protected ClusterWait nativeClusterWait() {
+        return clusterStateTracker()
+                .map(tracker -> new ClusterWait(
+                        ClusterHealthCheck.batchedNativeHealthChecks(), nativeServiceHealthCheckTimeout(), tracker))
+                .orElseGet(() -> new ClusterWait(
+                        batchNativeHealthChecks()
+                                ? ClusterHealthCheck.batchedNativeHealthChecks()
+                                : ClusterHealthCheck.nativeHealthChecks(),
+                        nativeServiceHealthCheckTimeout()))
+                .withSharedReadinessHistory("native healthchecks of " + files().files());
+    }
+
+    private ClusterWait withDefaultPollPolicy(ClusterWait clusterWait) {
+        if (clusterWait.pollPolicy().isPresent() || !pollPolicy().isPresent()) {
+            return clusterWait;
+        }
+        return clusterWait.withPollPolicy(pollPolicy().get());
+    }
+
     @Value.Default
     protected LogCollector logCollector() {
         return new DoNothingLogCollector();
     }
 
+    /**
+     * Only collect logs at shutdown if the cluster failed to start or a test using it failed, as reported through
+     * {@link #recordTestFailure()}. Setting the {@value #ALWAYS_COLLECT_LOGS_PROPERTY} system property to
+     * <code>true</code> collects them regardless.
+     */
+    @Value.Default
+    protected boolean collectLogsOnlyOnFailure() {
+        return false;
+    }
+
+    /**
+     * Records that a test using the cluster failed, so that logs are collected at shutdown even when only collecting
+     * them on failure.
+     */
+    public void recordTestFailure() {
+        failureRecorded.set(true);
+    }
+
+    /**
+     * Records that a test using a cluster shared between several tests has started, so that if it fails the logs it
+     * produced can be saved on their own.
+     */
+    public void recordTestStarted(TestDescription test) {
+        testStartTimes.put(test, Instant.now());
+    }
+
+    /**
+     * Records that a test started with {@link #recordTestStarted(TestDescription)} has finished. If it failed, the log
+     * collector is asked to save the logs written while it ran.
+     */
+    public void recordTestFinished(TestDescription test, boolean failed) {
+        Instant startTime = testStartTimes.remove(test);
+        if (!failed || startTime == null) {
+            return;
+        }
+        try {
+            logCollector().collectTestLogs(dockerCompose(), TestLogSlice.of(test, startTime, Instant.now()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save the logs of {}", test, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean shouldCollectLogs() {
+        return !collectLogsOnlyOnFailure() || failureRecorded.get() || Boolean.getBoolean(ALWAYS_COLLECT_LOGS_PROPERTY);
+    }
+
+    /**
+     * Send events to the {@link #eventConsumers()} from a dedicated thread, so that slow consumers do not hold up
+     * starting or stopping the cluster. Without this, events are sent synchronously.
+     */
+    protected abstract Optional<AsyncEventDispatch> asyncEventDispatch();
+
     @Value.Derived
     protected EventEmitter emitEventsFor() {
-        List<EventConsumer> eventConsumers =
-                Stream.concat(Stream.of(runRecorder), eventConsumers().stream()).collect(Collectors.toList());
-
-        return new EventEmitter(eventConsumers);
+        // sent to the run recorder synchronously, so each run it records is complete by the end of after()
+        return new EventEmitter(ImmutableList.of(runRecorder), eventConsumers(), asyncEventDispatch());
     }
 
     protected void setDescription(TestDescription testDescription) {
@@ -178,12 +335,31 @@ public abstract class DockerComposeManager {
     }
 
     public void before() throws IOException, InterruptedException {
+        try {
+            startCluster();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            failureRecorded.set(true);
+            throw e;
+        }
+    }
+
+    private void startCluster() throws IOException, InterruptedException {
         log.debug("Starting docker-compose cluster");
 
-        runRecorder.before(() -> dockerCompose().config());
+        runRecorder.before(
+                files(), () -> machine().configuredDockerComposeProcess().environment(), () -> dockerCompose()
+                        .config());
+
+        if (clusterStateTracker().isPresent()) {
+            clusterStateTracker().get().start();
+        }
 
         pullBuildAndUp();
 
+        if (clusterStateTracker().isPresent()) {
+            clusterStateTracker().get().track(dockerCompose().ids());
+        }
+
         emitEventsFor().waitingForServices(this::waitForServices);
     }
 
@@ -200,17 +376,19 @@ public abstract class DockerComposeManager {
         }
 
         emitEventsFor().up(upDockerCompose::up);
+        containers().containerCache().invalidateSnapshot();
+        containers().containerCache().addStartListener(logCollectorStartListener);
+        logCollector().startCollecting(dockerCompose());
     }
 
     private void waitForServices() throws InterruptedException {
         log.debug("Waiting for services");
-        InterruptableClusterWait nativeHealthCheckClusterWait = emitEventsFor()
-                .nativeClusterWait(
-                        new ClusterWait(ClusterHealthCheck.nativeHealthChecks(), nativeServiceHealthCheckTimeout()));
+        InterruptableClusterWait nativeHealthCheckClusterWait =
+                emitEventsFor().nativeClusterWait(withDefaultPollPolicy(nativeClusterWait()));
 
         List<InterruptableClusterWait> allClusterWaits = Stream.concat(
                         Stream.of(nativeHealthCheckClusterWait),
-                        clusterWaits().stream().map(emitEventsFor()::userClusterWait))
+                        clusterWaits().stream().map(this::withDefaultPollPolicy).map(emitEventsFor()::userClusterWait))
                 .collect(Collectors.toList());
 
         waitForAllClusterWaits(allClusterWaits);
@@ -219,35 +397,27 @@ public abstract class DockerComposeManager {
     }
 
     private void waitForAllClusterWaits(List<InterruptableClusterWait> allClusterWaits) throws InterruptedException {
-        ListeningExecutorService executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(
-                allClusterWaits.size(),
-                new ThreadFactoryBuilder().setNameFormat("dcr-wait-%d").build()));
+        List<CompletableFuture<Void>> waits = allClusterWaits.stream()
+                .map(clusterWait -> clusterWait.startWaitingForCluster(containers()))
+                .collect(Collectors.toList());
+
+        // fail as soon as any wait fails, rather than waiting for the others to time out
+        CompletableFuture<Void> allWaits = CompletableFuture.allOf(waits.toArray(new CompletableFuture<?>[0]));
+        waits.forEach(wait -> wait.whenComplete((_ignored, error) -> {
+            if (error != null) {
+                allWaits.completeExceptionally(error);
+            }
+        }));
 
         try {
-            ListenableFuture<?> listListenableFuture = Futures.allAsList(allClusterWaits.stream()
-                    .map(clusterWait -> executorService.submit(() -> {
-                        try {
-                            clusterWait.waitForCluster(containers());
-                        } catch (InterruptedException e) {
-                            if (executorService.isShutdown()) {
-                                // ignore if this InterruptedException has occurred because we shut down and
-                                // terminated the executor
-                                return;
-                            }
-
-                            Throwables.propagate(e);
-                        }
-                    }))
-                    .collect(Collectors.toList()));
-
-            listListenableFuture.get();
+            allWaits.get();
         } catch (ExecutionException e) {
             if (e.getCause() instanceof RuntimeException) {
                 throw (RuntimeException) e.getCause();
             }
             throw new IllegalStateException("A cluster wait errored out: ", e);
         } finally {
-            MoreExecutors.shutdownAndAwaitTermination(executorService, 0, TimeUnit.SECONDS);
+            waits.forEach(wait -> wait.cancel(true));
         }
     }
 
@@ -255,13 +425,27 @@ public abstract class DockerComposeManager {
         try {
             emitEventsFor().shutdownStop(() -> shutdownStrategy().stop(this.dockerCompose()));
 
-            emitEventsFor().logCollection(() -> logCollector().collectLogs(this.dockerCompose()));
+            if (shouldCollectLogs()) {
+                emitEventsFor().logCollection(() -> logCollector().collectServiceLogs(this.dockerCompose()));
+            } else {
+                log.debug("Nothing failed, skipping log collection");
+                logCollector().stopCollecting();
+            }
 
             emitEventsFor().shutdown(() -> shutdownStrategy().shutdown(this.dockerCompose(), this.docker()));
         } catch (IOException | InterruptedException e) {
             throw new RuntimeException("Error cleaning up docker compose cluster", e);
         } finally {
+            containers().containerCache().stopFollowingLogs();
+            containers().containerCache().removeStartListener(logCollectorStartListener);
+            clusterStateTracker().ifPresent(ClusterStateTracker::close);
+            if (docker() instanceof EngineApiDocker) {
+                ((EngineApiDocker) docker()).close();
+            }
+            emitEventsFor().flush();
             runRecorder.after();
+            failureRecorded.set(false);
+            testStartTimes.clear();
         }
     }
 
@@ -302,6 +486,37 @@ public abstract class DockerComposeManager {
             return logCollector(FileLogCollector.fromPath(path));
         }
 
+        /**
+         * Saves the logs of up to {@code parallelism} services at once when the cluster is shut down.
+         *
+         * @param path directory into which log files should be saved
+         * @param parallelism the maximum number of services to collect logs for at the same time
+         */
+        default TSelf saveLogsTo(String path, int parallelism) {
+            return logCollector(FileLogCollector.fromPath(path, parallelism));
+        }
+
+        /**
+         * Saves the logs of each service when the cluster is shut down in the given format, for example gzipped or
+         * keeping only the start and end of the logs of chatty services.
+         *
+         * @param path directory into which log files should be saved
+         * @param format how to write the logs of each service
+         */
+        default TSelf saveLogsTo(String path, LogFileFormat format) {
+            return logCollector(FileLogCollector.fromPath(path, format));
+        }
+
+        /**
+         * Streams the output of docker logs to files in the <code>path</code> directory from the moment the cluster
+         * is up, rather than collecting it all at shutdown.
+         *
+         * @param path directory into which log files should be saved
+         */
+        default TSelf streamLogsTo(String path) {
+            return logCollector(StreamingLogCollector.fromPath(path));
+        }
+
         /**
          * Deprecated.
          * @deprecated Please use {@link DockerComposeManager#shutdownStrategy()} with
@@ -17,6 +17,8 @@
 package com.palantir.docker.compose;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.configuration.AsyncEventDispatch;
 import com.palantir.docker.compose.connection.Cluster;
 import com.palantir.docker.compose.connection.waiting.ClusterWait;
 import com.palantir.docker.compose.connection.waiting.Exceptions;
@@ -27,11 +29,13 @@ import com.palantir.docker.compose.events.Event;
 import com.palantir.docker.compose.events.EventConsumer;
 import com.palantir.docker.compose.events.LogCollectionEvent;
 import com.palantir.docker.compose.events.PullEvent;
+import com.palantir.docker.compose.events.ServiceLogCollection;
 import com.palantir.docker.compose.events.ShutdownEvent;
 import com.palantir.docker.compose.events.ShutdownStopEvent;
 import com.palantir.docker.compose.events.Task;
 import com.palantir.docker.compose.events.UpEvent;
 import com.palantir.docker.compose.events.WaitForServicesEvent;
+import com.palantir.docker.compose.logging.CollectedServiceLogs;
 import java.io.IOException;
 import java.time.Clock;
 import java.time.OffsetDateTime;
@@ -39,7 +43,11 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,21 +55,53 @@ class EventEmitter {
     private static final Logger log = LoggerFactory.getLogger(EventEmitter.class);
 
     private final Clock clock;
+    private final List<EventConsumer> synchronousConsumers;
     private final List<EventConsumer> eventConsumers;
+    private final Optional<AsyncEventDispatcher> dispatcher;
 
     EventEmitter(List<EventConsumer> eventConsumers) {
-        this(Clock.systemUTC(), eventConsumers);
+        this(Clock.systemUTC(), eventConsumers, Optional.empty());
+    }
+
+    /**
+     * Creates an emitter which always sends events to the {@code synchronousConsumers} straight away, on the thread
+     * which emits them, and sends them to the other {@code eventConsumers} from a dedicated thread if asked to.
+     */
+    EventEmitter(
+            List<EventConsumer> synchronousConsumers,
+            List<EventConsumer> eventConsumers,
+            Optional<AsyncEventDispatch> asyncEventDispatch) {
+        this(Clock.systemUTC(), synchronousConsumers, eventConsumers, asyncEventDispatch);
     }
 
     EventEmitter(Clock clock, List<EventConsumer> eventConsumers) {
+        this(clock, eventConsumers, Optional.empty());
+    }
+
+    EventEmitter(Clock clock, List<EventConsumer> eventConsumers, Optional<AsyncEventDispatch> asyncEventDispatch) {
+        this(clock, ImmutableList.of(), eventConsumers, asyncEventDispatch);
+    }
+
+    EventEmitter(
+            Clock clock,
+            List<EventConsumer> synchronousConsumers,
+            List<EventConsumer> eventConsumers,
+            Optional<AsyncEventDispatch> asyncEventDispatch) {
         this.clock = clock;
+        this.synchronousConsumers = synchronousConsumers;
         this.eventConsumers = eventConsumers;
+        this.dispatcher = asyncEventDispatch.map(
+                config -> new AsyncEventDispatcher(config, event -> sendEvent(event, this.eventConsumers)));
     }
 
     interface CheckedRunnable {
         void run() throws InterruptedException, IOException;
     }
 
+    interface LogCollection {
+        List<CollectedServiceLogs> collect() throws InterruptedException, IOException;
+    }
+
     public void pull(CheckedRunnable runnable) throws IOException, InterruptedException {
         emitTask(runnable, task -> Event.pull(PullEvent.builder().task(task).build()));
     }
@@ -88,11 +128,27 @@ class EventEmitter {
                         ShutdownStopEvent.builder().task(task).build()));
     }
 
-    public void logCollection(CheckedRunnable runnable) throws IOException, InterruptedException {
+    public void logCollection(LogCollection logCollection) throws IOException, InterruptedException {
+        List<CollectedServiceLogs> services = new ArrayList<>();
         emitTask(
-                runnable,
-                task -> Event.logCollection(
-                        LogCollectionEvent.builder().task(task).build()));
+                () -> services.addAll(logCollection.collect()),
+                task -> Event.logCollection(LogCollectionEvent.builder()
+                        .task(task)
+                        .services(services.stream()
+                                .map(EventEmitter::serviceLogCollection)
+                                .collect(Collectors.toList()))
+                        .build()));
+    }
+
+    private static ServiceLogCollection serviceLogCollection(CollectedServiceLogs serviceLogs) {
+        return ServiceLogCollection.builder()
+                .serviceName(serviceLogs.serviceName())
+                .task(Task.builder()
+                        .startTime(serviceLogs.startTime().atOffset(ZoneOffset.UTC))
+                        .endTime(serviceLogs.endTime().atOffset(ZoneOffset.UTC))
+                        .failure(serviceLogs.failure())
+                        .build())
+                .build();
     }
 
     public void shutdown(CheckedRunnable runnable) throws IOException, InterruptedException {
@@ -103,6 +159,12 @@ class EventEmitter {
 
     interface InterruptableClusterWait {
         void waitForCluster(Cluster cluster) throws InterruptedException;
+
+        /**
+         * Starts waiting without blocking the calling thread. The event is emitted once the returned future
+         * completes, and cancelling it stops the wait.
+         */
+        CompletableFuture<Void> startWaitingForCluster(Cluster cluster);
     }
 
     public InterruptableClusterWait userClusterWait(ClusterWait clusterWait) {
@@ -116,13 +178,52 @@ class EventEmitter {
     private InterruptableClusterWait clusterWait(ClusterWaitType clusterWaitType, ClusterWait clusterWait) {
         RecordingClusterWait recordingClusterWait = new RecordingClusterWait(clusterWait, clusterWaitType);
 
-        return cluster -> emitNotThrowing(
-                () -> recordingClusterWait.waitForCluster(cluster),
-                task -> Event.clusterWait(ClusterWaitEvent.builder()
-                        .task(task)
-                        .serviceNames(recordingClusterWait.recordedServiceNames())
-                        .type(clusterWaitType)
-                        .build()));
+        Function<Task, Event> eventFunction = task -> Event.clusterWait(ClusterWaitEvent.builder()
+                .task(task)
+                .serviceNames(recordingClusterWait.recordedServiceNames())
+                .type(clusterWaitType)
+                .build());
+
+        return new InterruptableClusterWait() {
+            @Override
+            public void waitForCluster(Cluster cluster) throws InterruptedException {
+                emitNotThrowing(() -> recordingClusterWait.waitForCluster(cluster), eventFunction);
+            }
+
+            @Override
+            public CompletableFuture<Void> startWaitingForCluster(Cluster cluster) {
+                return emitTaskAsync(() -> recordingClusterWait.startWaitingForCluster(cluster), eventFunction);
+            }
+        };
+    }
+
+    private CompletableFuture<Void> emitTaskAsync(
+            Supplier<CompletableFuture<Void>> asyncTask, Function<Task, Event> eventFunction) {
+        OffsetDateTime startTime = clock.instant().atOffset(ZoneOffset.UTC);
+        CompletableFuture<Void> source;
+        try {
+            source = asyncTask.get();
+        } catch (RuntimeException e) {
+            source = new CompletableFuture<>();
+            source.completeExceptionally(e);
+        }
+
+        CompletableFuture<Void> emitted = source.handle((_ignored, error) -> {
+            Optional<Throwable> failure = Optional.ofNullable(error).map(CompletableFutures::unwrap);
+            OffsetDateTime endTime = clock.instant().atOffset(ZoneOffset.UTC);
+            Task task = Task.builder()
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .failure(failure.map(Exceptions::condensedStacktraceFor))
+                    .build();
+
+            emitEvent(eventFunction.apply(task));
+            failure.ifPresent(throwable -> {
+                throw new CompletionException(throwable);
+            });
+            return null;
+        });
+        return CompletableFutures.cancellingSource(emitted, source);
     }
 
     private void emitNotThrowing(CheckedRunnable runnable, Function<Task, Event> eventFunction)
@@ -156,10 +257,32 @@ class EventEmitter {
         }
     }
 
+    /**
+     * Waits for events which are being sent asynchronously to be sent. Returns straight away when events are sent
+     * synchronously.
+     */
+    public void flush() {
+        dispatcher.ifPresent(AsyncEventDispatcher::flush);
+    }
+
     private void emitEvent(Event event) {
+        if (dispatcher.isPresent()) {
+            sendEvent(event, synchronousConsumers);
+            dispatcher.get().dispatch(event);
+        } else {
+            sendEvent(
+                    event,
+                    ImmutableList.<EventConsumer>builder()
+                            .addAll(synchronousConsumers)
+                            .addAll(eventConsumers)
+                            .build());
+        }
+    }
+
+    private static void sendEvent(Event event, List<EventConsumer> consumers) {
         List<Exception> exceptions = new ArrayList<>();
 
-        eventConsumers.forEach(eventConsumer -> {
+        consumers.forEach(eventConsumer -> {
             try {
                 eventConsumer.receiveEvent(event);
             } catch (Exception e) {
@@ -17,8 +17,10 @@
 package com.palantir.docker.compose;
 
 import com.palantir.docker.compose.connection.Cluster;
+import com.palantir.docker.compose.connection.ClusterSnapshot;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerCache;
+import com.palantir.docker.compose.connection.ContainerHealth;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
@@ -61,6 +63,20 @@ final class RecordingCluster extends Cluster {
         return containers;
     }
 
+    @Override
+    public List<ContainerHealth> nativeHealth() throws IOException, InterruptedException {
+        List<ContainerHealth> health = delegate.nativeHealth();
+        health.forEach(container -> recordedContainerNames.add(container.serviceName()));
+        return health;
+    }
+
+    @Override
+    public ClusterSnapshot snapshot() throws IOException, InterruptedException {
+        ClusterSnapshot snapshot = delegate.snapshot();
+        recordedContainerNames.addAll(snapshot.containers().keySet());
+        return snapshot;
+    }
+
     public Set<String> recordedContainerNames() {
         return recordedContainerNames;
     }
@@ -21,6 +21,7 @@ import com.palantir.docker.compose.connection.waiting.ClusterWait;
 import com.palantir.docker.compose.events.ClusterWaitType;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +35,7 @@ final class RecordingClusterWait {
     // actually runs. So we have to record the services it accesses then use this to generate the events. The
     // Optional exists solely as a check again logic errors - in the case when events are generated before the
     // cluster wait has begun.
-    private Optional<Set<String>> recordedServiceNames = Optional.empty();
+    private volatile Optional<Set<String>> recordedServiceNames = Optional.empty();
 
     RecordingClusterWait(ClusterWait clusterWait, ClusterWaitType clusterWaitType) {
         this.clusterWait = clusterWait;
@@ -45,25 +46,48 @@ final class RecordingClusterWait {
         RecordingCluster recordingCluster = new RecordingCluster(cluster);
         try {
             clusterWait.waitUntilReady(recordingCluster);
-            log.info(
-                    "Cluster wait for services {} (type: {}) successfully finished",
-                    recordingCluster.recordedContainerNames(),
-                    clusterWaitType.toString().toLowerCase());
+            logSuccess(recordingCluster);
         } catch (Exception e) {
-            // Message is sometimes null eg in the case where an InterruptedException is raised
-            if (e.getMessage() != null) {
-                log.error(
-                        "Cluster wait for services {} (type: {}) timed out with exception:\n\t{}",
-                        recordingCluster.recordedContainerNames(),
-                        clusterWaitType.toString().toLowerCase(),
-                        e.getMessage());
-            }
+            logFailure(recordingCluster, e);
             throw e;
         } finally {
             recordedServiceNames = Optional.of(recordingCluster.recordedContainerNames());
         }
     }
 
+    public CompletableFuture<Void> startWaitingForCluster(Cluster cluster) {
+        RecordingCluster recordingCluster = new RecordingCluster(cluster);
+        CompletableFuture<Void> wait = clusterWait.waitUntilReadyAsync(recordingCluster);
+        return CompletableFutures.cancellingSource(
+                wait.whenComplete((_ignored, error) -> {
+                    recordedServiceNames = Optional.of(recordingCluster.recordedContainerNames());
+                    if (error == null) {
+                        logSuccess(recordingCluster);
+                    } else {
+                        logFailure(recordingCluster, CompletableFutures.unwrap(error));
+                    }
+                }),
+                wait);
+    }
+
+    private void logSuccess(RecordingCluster recordingCluster) {
+        log.info(
+                "Cluster wait for services {} (type: {}) successfully finished",
+                recordingCluster.recordedContainerNames(),
+                clusterWaitType.toString().toLowerCase());
+    }
+
+    private void logFailure(RecordingCluster recordingCluster, Throwable error) {
+        // Message is sometimes null eg in the case where an InterruptedException is raised
+        if (error.getMessage() != null) {
+            log.error(
+                    "Cluster wait for services {} (type: {}) timed out with exception:\n\t{}",
+                    recordingCluster.recordedContainerNames(),
+                    clusterWaitType.toString().toLowerCase(),
+                    error.getMessage());
+        }
+    }
+
     public Set<String> recordedServiceNames() {
         return recordedServiceNames.orElseThrow(
                 () -> new IllegalStateException("Recorded service names have not yet been computed"));
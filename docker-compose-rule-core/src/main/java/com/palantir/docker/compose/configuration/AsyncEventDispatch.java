@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.configuration;
+
+import com.google.common.base.Preconditions;
+import org.immutables.value.Value;
+import org.joda.time.Duration;
+import org.joda.time.ReadableDuration;
+
+/**
+ * How to send events to {@link com.palantir.docker.compose.events.EventConsumer}s on a dedicated thread, rather than
+ * on the thread starting and stopping the cluster, so that slow consumers do not hold it up.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class AsyncEventDispatch {
+
+    /** What to do with an event when {@link #capacity()} events are already waiting to be sent. */
+    public enum OverflowPolicy {
+        /** Wait for there to be room, holding up the cluster until the consumers catch up. */
+        BLOCK,
+        /** Drop the event. */
+        DROP_NEWEST,
+        /** Drop the event which has been waiting longest to make room. */
+        DROP_OLDEST
+    }
+
+    /** The most events which can be waiting to be sent at once. */
+    @Value.Default
+    public int capacity() {
+        return 1024;
+    }
+
+    @Value.Default
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.BLOCK;
+    }
+
+    /** How long to wait for waiting events to be sent when the cluster is shut down. */
+    @Value.Default
+    public ReadableDuration flushTimeout() {
+        return Duration.standardSeconds(10);
+    }
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkArgument(capacity() > 0, "capacity must be positive");
+    }
+
+    public static AsyncEventDispatch defaults() {
+        return builder().build();
+    }
+
+    public static ImmutableAsyncEventDispatch.Builder builder() {
+        return ImmutableAsyncEventDispatch.builder();
+    }
+}
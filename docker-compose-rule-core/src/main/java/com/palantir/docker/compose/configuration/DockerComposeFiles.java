@@ -19,6 +19,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -39,6 +40,10 @@ public final class DockerComposeFiles {
         return new DockerComposeFiles(dockerComposeFiles);
     }
 
+    public List<File> files() {
+        return Collections.unmodifiableList(dockerComposeFiles);
+    }
+
     public List<String> constructComposeFileCommand() {
         return dockerComposeFiles.stream()
                 .map(File::getAbsolutePath)
@@ -36,6 +36,13 @@ public abstract class ProjectName {
                         "Cannot get the ProjectName as string if the ProjectName is omitted"));
     }
 
+    /**
+     * Whether docker-compose is left to choose the project name itself.
+     */
+    public boolean isOmitted() {
+        return !projectName().isPresent();
+    }
+
     public List<String> constructComposeFileCommand() {
         return projectName()
                 .map(projectName -> ImmutableList.of("--project-name", projectName))
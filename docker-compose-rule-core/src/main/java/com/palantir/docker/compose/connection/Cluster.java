@@ -19,6 +19,7 @@ package com.palantir.docker.compose.connection;
 import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import org.immutables.value.Value;
@@ -42,4 +43,23 @@ public abstract class Cluster {
     public Set<Container> allContainers() throws IOException, InterruptedException {
         return containerCache().containers();
     }
+
+    public List<ContainerHealth> nativeHealth() throws IOException, InterruptedException {
+        return containerCache().nativeHealth();
+    }
+
+    /**
+     * Returns the IDs, states and ports of every container in the cluster from a single
+     * <code>docker-compose ps</code>.
+     */
+    public ClusterSnapshot snapshot() throws IOException, InterruptedException {
+        return containerCache().snapshot();
+    }
+
+    /**
+     * Returns the containers of the given services which have crashed, see {@link ContainerCache#crashedContainers}.
+     */
+    public List<CrashedContainer> crashedContainers(Collection<String> services) throws InterruptedException {
+        return containerCache().crashedContainers(services);
+    }
 }
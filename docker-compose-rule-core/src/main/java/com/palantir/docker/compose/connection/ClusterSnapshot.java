@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.connection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * The IDs, states and published ports of every container in a cluster, taken from a single
+ * <code>docker-compose ps --format json</code>.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class ClusterSnapshot {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String NO_IP_ADDRESS = "0.0.0.0";
+
+    /** Containers keyed by their docker-compose service. */
+    public abstract Map<String, ContainerSnapshot> containers();
+
+    public Optional<ContainerSnapshot> container(String service) {
+        return Optional.ofNullable(containers().get(service));
+    }
+
+    public static ClusterSnapshot empty() {
+        return ImmutableClusterSnapshot.builder().build();
+    }
+
+    /**
+     * Parses the output of <code>docker-compose ps --format json</code>, which is a JSON array in older versions of
+     * docker compose v2 and one JSON object per line in newer ones. Where a service has been scaled, the first
+     * container listed is used.
+     */
+    public static ClusterSnapshot parseFromDockerComposePsJson(String psOutput, String dockerMachineIp) {
+        Map<String, ContainerSnapshot> containers = new LinkedHashMap<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(psOutput)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                ContainerSnapshot container = parseContainer(parser, dockerMachineIp);
+                containers.putIfAbsent(container.service(), container);
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not parse docker-compose ps output:\n" + psOutput, e);
+        }
+        return ImmutableClusterSnapshot.builder().containers(containers).build();
+    }
+
+    private static ContainerSnapshot parseContainer(JsonParser parser, String dockerMachineIp) throws IOException {
+        ImmutableContainerSnapshot.Builder container = ContainerSnapshot.builder();
+        String state = "";
+        String health = "";
+        List<DockerPort> ports = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "ID":
+                    container.id(parser.getText());
+                    break;
+                case "Name":
+                    container.name(parser.getText());
+                    break;
+                case "Service":
+                    container.service(parser.getText());
+                    break;
+                case "State":
+                    state = parser.getText();
+                    break;
+                case "Health":
+                    health = Strings.nullToEmpty(parser.getText());
+                    break;
+                case "ExitCode":
+                    container.exitCode(parser.getIntValue());
+                    break;
+                case "Publishers":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            parsePublisher(parser, dockerMachineIp).ifPresent(ports::add);
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return container
+                .state(toState(state, health))
+                .restarting(state.equals("restarting"))
+                .ports(new Ports(ports))
+                .build();
+    }
+
+    private static Optional<DockerPort> parsePublisher(JsonParser parser, String dockerMachineIp) throws IOException {
+        String url = "";
+        String protocol = "tcp";
+        int targetPort = 0;
+        int publishedPort = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "URL":
+                    url = Strings.nullToEmpty(parser.getText());
+                    break;
+                case "Protocol":
+                    protocol = parser.getText();
+                    break;
+                case "TargetPort":
+                    targetPort = parser.getIntValue();
+                    break;
+                case "PublishedPort":
+                    publishedPort = parser.getIntValue();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        // Unpublished ports have no published port, and IPv6 bindings duplicate the IPv4 ones
+        if (publishedPort == 0 || !"tcp".equals(protocol) || url.contains(":")) {
+            return Optional.empty();
+        }
+        String ip = url.isEmpty() || url.equals(NO_IP_ADDRESS) ? dockerMachineIp : url;
+        return Optional.of(new DockerPort(ip, publishedPort, targetPort));
+    }
+
+    private static State toState(String state, String health) {
+        switch (state) {
+            case "paused":
+                return State.PAUSED;
+            case "running":
+                return health.isEmpty() || health.equals("healthy") ? State.HEALTHY : State.UNHEALTHY;
+            default:
+                return State.DOWN;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.connection;
+
+import static java.util.stream.Collectors.toList;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.palantir.docker.compose.execution.Docker;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the state of every container in a docker-compose project up to date by following a single
+ * <code>docker events</code> stream, so that waiting for containers does not need to fork a process per poll.
+ *
+ * <p>Containers are inspected once when they are first seen, after which their state is only changed by events.
+ */
+public final class ClusterStateTracker implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ClusterStateTracker.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String HEALTH_STATUS_ACTION = "health_status: ";
+
+    private final Docker docker;
+    private final String projectName;
+
+    private final Object lock = new Object();
+    private final Map<String, TrackedContainer> containers = new HashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private boolean following = false;
+
+    private Process events;
+
+    public ClusterStateTracker(Docker docker, String projectName) {
+        this.docker = docker;
+        // docker compose normalises project names to lower case when labelling containers
+        this.projectName = projectName.toLowerCase(Locale.ROOT);
+    }
+
+    public void start() throws IOException {
+        synchronized (lock) {
+            if (following) {
+                return;
+            }
+            events = docker.followContainerEvents("label=com.docker.compose.project=" + projectName);
+            following = true;
+        }
+        Thread eventReader = new Thread(this::readEvents, "dcr-docker-events-" + projectName);
+        eventReader.setDaemon(true);
+        eventReader.start();
+    }
+
+    /**
+     * Starts tracking any of the given containers which have not yet produced an event, for example because they
+     * were already running before {@link #start()} was called.
+     */
+    public void track(Collection<String> containerIds) throws IOException, InterruptedException {
+        List<String> untracked;
+        synchronized (lock) {
+            untracked = containerIds.stream()
+                    .filter(id -> !containers.containsKey(id))
+                    .collect(toList());
+        }
+        if (untracked.isEmpty()) {
+            return;
+        }
+        List<ContainerHealth> health = docker.health(untracked);
+        synchronized (lock) {
+            health.forEach(
+                    container -> containers.putIfAbsent(container.containerId(), TrackedContainer.from(container)));
+            notifyListeners();
+        }
+    }
+
+    /** Whether the events stream is still being followed. If not, the tracked states may be out of date. */
+    public boolean isFollowing() {
+        synchronized (lock) {
+            return following;
+        }
+    }
+
+    public Optional<TrackedContainer> container(String containerId) {
+        synchronized (lock) {
+            return Optional.ofNullable(containers.get(containerId));
+        }
+    }
+
+    public List<TrackedContainer> containers() {
+        synchronized (lock) {
+            return new ArrayList<>(containers.values());
+        }
+    }
+
+    /**
+     * Registers a callback which is run whenever the state of any container changes, or the events stream stops. It
+     * is called while holding the tracker's lock, so it must not block.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void close() {
+        Process process;
+        synchronized (lock) {
+            process = events;
+            following = false;
+            notifyListeners();
+        }
+        if (process != null) {
+            process.destroy();
+        }
+    }
+
+    private void readEvents() {
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(events.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    handle(OBJECT_MAPPER.readTree(line));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Stopped following docker events", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (lock) {
+                if (following) {
+                    log.warn("docker events stream for project {} ended unexpectedly", projectName);
+                }
+                following = false;
+                notifyListeners();
+            }
+        }
+    }
+
+    void handle(JsonNode event) throws InterruptedException {
+        String action = event.path("Action").asText(event.path("status").asText());
+        JsonNode actor = event.path("Actor");
+        String containerId = actor.path("ID").asText(event.path("id").asText());
+        if (Strings.isNullOrEmpty(containerId)) {
+            return;
+        }
+
+        if (action.equals("destroy")) {
+            synchronized (lock) {
+                containers.remove(containerId);
+                notifyListeners();
+            }
+            return;
+        }
+
+        if (!container(containerId).isPresent()) {
+            // the inspection already reflects the container having started
+            if (!inspect(containerId) || action.equals("start")) {
+                return;
+            }
+        }
+
+        synchronized (lock) {
+            TrackedContainer container = containers.get(containerId);
+            if (container == null) {
+                return;
+            }
+            containers.put(containerId, apply(container, action, actor.path("Attributes")));
+            notifyListeners();
+        }
+    }
+
+    private boolean inspect(String containerId) throws InterruptedException {
+        try {
+            track(Collections.singletonList(containerId));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not inspect container {}, it may already have been removed", containerId, e);
+            return false;
+        }
+    }
+
+    private static TrackedContainer apply(TrackedContainer container, String action, JsonNode attributes) {
+        ImmutableTrackedContainer tracked = ImmutableTrackedContainer.copyOf(container);
+        if (action.startsWith(HEALTH_STATUS_ACTION)) {
+            return tracked.withHasHealthcheck(true)
+                    .withHealthStatus(
+                            action.substring(HEALTH_STATUS_ACTION.length()).trim());
+        }
+        switch (action) {
+            case "start":
+                return tracked.withRunning(true)
+                        .withPaused(false)
+                        .withStoppedAtNanos(Optional.empty())
+                        .withHealthStatus(container.hasHealthcheck() ? Optional.of("starting") : Optional.empty());
+            case "die":
+                JsonNode exitCode = attributes.path("exitCode");
+                return tracked.withRunning(false)
+                        .withStoppedAtNanos(System.nanoTime())
+                        .withExits(container.exits() + 1)
+                        .withLastExitCode(exitCode.isMissingNode() ? Optional.empty() : Optional.of(exitCode.asInt()));
+            case "stop":
+                // docker stop and docker restart stop a container deliberately, after the die they also cause
+                return tracked.withExits(Math.max(0, container.exits() - 1));
+            case "pause":
+                return tracked.withPaused(true);
+            case "unpause":
+                return tracked.withPaused(false);
+            default:
+                return container;
+        }
+    }
+
+    // must hold lock
+    private void notifyListeners() {
+        listeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterStateTracker{projectName='" + projectName + "'}";
+    }
+}
@@ -15,16 +15,22 @@
  */
 package com.palantir.docker.compose.connection;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.palantir.docker.compose.connection.waiting.SuccessOrFailure;
 import com.palantir.docker.compose.execution.Docker;
 import com.palantir.docker.compose.execution.DockerCompose;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public final class Container {
@@ -32,13 +38,24 @@ public final class Container {
     private final String containerName;
     private final Docker docker;
     private final DockerCompose dockerCompose;
+    private final Optional<ContainerCache> containerCache;
 
     private Supplier<Ports> portMappings = Suppliers.memoize(this::getDockerPorts);
 
     public Container(String containerName, Docker docker, DockerCompose dockerCompose) {
+        this(containerName, docker, dockerCompose, Optional.empty());
+    }
+
+    Container(String containerName, Docker docker, DockerCompose dockerCompose, ContainerCache containerCache) {
+        this(containerName, docker, dockerCompose, Optional.of(containerCache));
+    }
+
+    private Container(
+            String containerName, Docker docker, DockerCompose dockerCompose, Optional<ContainerCache> containerCache) {
         this.containerName = containerName;
         this.docker = docker;
         this.dockerCompose = dockerCompose;
+        this.containerCache = containerCache;
     }
 
     public String getContainerName() {
@@ -58,10 +75,6 @@ public final class Container {
             int internalPort, Function<DockerPort, String> urlFunction, boolean andCheckStatus) {
         try {
             DockerPort port = port(internalPort);
-            if (!port.isListeningNow()) {
-                return SuccessOrFailure.failure(
-                        "Internal port " + internalPort + " is not listening in container " + containerName);
-            }
             return port.isHttpRespondingSuccessfully(urlFunction, andCheckStatus)
                     .mapFailure(failureMessage -> internalPort + " does not have a http response from "
                             + urlFunction.apply(port) + ":\n" + failureMessage);
@@ -98,41 +111,74 @@ public final class Container {
 
     public void start() throws IOException, InterruptedException {
         dockerCompose.start(this);
+        invalidateSnapshot();
+        containerCache.ifPresent(cache -> cache.serviceStarted(containerName));
         portMappings = Suppliers.memoize(this::getDockerPorts);
     }
 
     public void stop() throws IOException, InterruptedException {
         dockerCompose.stop(this);
+        invalidateSnapshot();
     }
 
     public void kill() throws IOException, InterruptedException {
         dockerCompose.kill(this);
+        invalidateSnapshot();
     }
 
     public State state() throws IOException, InterruptedException {
-        String id = dockerCompose.id(this).orElse(null);
+        String id = id().orElse(null);
         if (id == null) {
             return State.DOWN;
         }
+        Optional<State> trackedState = containerCache.flatMap(cache -> cache.trackedState(id));
+        if (trackedState.isPresent()) {
+            return trackedState.get();
+        }
         return docker.state(id);
     }
 
     public void up() throws IOException, InterruptedException {
         dockerCompose.up(this);
+        invalidateSnapshot();
+        containerCache.ifPresent(cache -> cache.serviceStarted(containerName));
     }
 
     public Ports ports() {
         return portMappings.get();
     }
 
+    private Optional<String> id() throws IOException, InterruptedException {
+        Optional<ContainerSnapshot> snapshot = cachedSnapshot();
+        if (snapshot.isPresent()) {
+            return Optional.of(snapshot.get().id());
+        }
+        return dockerCompose.id(this);
+    }
+
     private Ports getDockerPorts() {
         try {
+            Optional<ContainerSnapshot> snapshot = cachedSnapshot();
+            if (snapshot.isPresent()) {
+                return snapshot.get().ports();
+            }
             return dockerCompose.ports(containerName);
         } catch (IOException | InterruptedException e) {
             throw Throwables.propagate(e);
         }
     }
 
+    private Optional<ContainerSnapshot> cachedSnapshot() throws InterruptedException {
+        if (!containerCache.isPresent()) {
+            return Optional.empty();
+        }
+        return containerCache.get().cachedSnapshot(containerName);
+    }
+
+    private void invalidateSnapshot() {
+        containerCache.ifPresent(ContainerCache::invalidateSnapshot);
+    }
+
     @Override
     public boolean equals(Object object) {
         if (this == object) {
@@ -155,10 +201,51 @@ public final class Container {
         return "Container{containerName='" + containerName + "'}";
     }
 
+    /**
+     * Whether the container has logged a line matching the pattern. Containers from a {@link Cluster} follow their
+     * logs with a single long-lived <code>docker-compose logs --follow</code>, so checking again is cheap; other
+     * containers fetch their logs on every check.
+     */
+    public SuccessOrFailure hasLoggedLineMatching(Pattern pattern) {
+        try {
+            boolean logged = containerCache.isPresent()
+                    ? containerCache.get().hasLogged(containerName, pattern)
+                    : fetchedLogsMatch(pattern);
+            return SuccessOrFailure.fromBoolean(
+                    logged, "Container '" + containerName + "' has not logged a line matching '" + pattern + "'");
+        } catch (IOException | InterruptedException e) {
+            return SuccessOrFailure.fromException(e);
+        }
+    }
+
+    /**
+     * The recent logs of the container, kept in memory by following them in the background, so that tests can make
+     * assertions about what a container has logged without fetching its logs each time. Only containers from a
+     * {@link Cluster} can have their logs followed.
+     */
+    public ContainerLogs logs() throws IOException, InterruptedException {
+        if (!containerCache.isPresent()) {
+            throw new IllegalStateException(
+                    "Only the logs of containers from a cluster can be followed, but '" + containerName + "' is not");
+        }
+        return containerCache.get().logs(containerName);
+    }
+
+    private boolean fetchedLogsMatch(Pattern pattern) throws IOException {
+        ByteArrayOutputStream logs = new ByteArrayOutputStream();
+        dockerCompose.writeLogs(containerName, logs);
+        return Splitter.onPattern("\\r?\\n")
+                .splitToList(new String(logs.toByteArray(), StandardCharsets.UTF_8))
+                .stream()
+                .anyMatch(line -> pattern.matcher(line).find());
+    }
+
     public SuccessOrFailure areAllPortsOpen() {
-        List<Integer> unavaliablePorts = portMappings.get().stream()
-                .filter(port -> !port.isListeningNow())
-                .map(DockerPort::getInternalPort)
+        Map<DockerPort, Boolean> listening =
+                PortProber.defaultProber().probe(portMappings.get().stream().collect(Collectors.toList()));
+        List<Integer> unavaliablePorts = listening.entrySet().stream()
+                .filter(port -> !port.getValue())
+                .map(port -> port.getKey().getInternalPort())
                 .collect(Collectors.toList());
 
         boolean allPortsOpen = unavaliablePorts.isEmpty();
@@ -15,32 +15,399 @@
  */
 package com.palantir.docker.compose.connection;
 
+import static com.palantir.docker.compose.execution.DockerComposeLogsOption.options;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.execution.Docker;
 import com.palantir.docker.compose.execution.DockerCompose;
+import com.palantir.docker.compose.execution.DockerExecutionException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class ContainerCache {
+    private static final Logger log = LoggerFactory.getLogger(ContainerCache.class);
+    private static final int CRASH_LOOP_EXITS = 3;
+    private static final long RESTART_GRACE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int CRASH_LOG_LINES = 50;
+    private static final long CRASH_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MAX_SNAPSHOT_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final List<String> UNSUPPORTED_SNAPSHOT_ERRORS =
+            ImmutableList.of("unknown flag", "unknown shorthand flag", "no such option", "unrecognized", "usage:");
 
     private final ConcurrentMap<String, Container> containers = new ConcurrentHashMap<>();
+    private final Set<String> containerIdsWithoutHealthchecks = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<TakenSnapshot> latestSnapshot = new AtomicReference<>();
+    private final ConcurrentMap<String, Long> stoppedAtNanosByContainerId = new ConcurrentHashMap<>();
+    private final AtomicLong lastCrashCheckSnapshotNanos =
+            new AtomicLong(System.nanoTime() - CRASH_CHECK_INTERVAL_NANOS);
+    private volatile boolean snapshotsUnsupported = false;
+    private final ConcurrentMap<String, LogFollower> logFollowers = new ConcurrentHashMap<>();
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> startListeners = new CopyOnWriteArrayList<>();
     private final Docker docker;
     private final DockerCompose dockerCompose;
+    private final Optional<ClusterStateTracker> stateTracker;
 
     public ContainerCache(Docker docker, DockerCompose dockerCompose) {
+        this(docker, dockerCompose, Optional.empty());
+    }
+
+    /**
+     * Creates a cache which reads container states from the given tracker while it is following docker events.
+     */
+    public ContainerCache(Docker docker, DockerCompose dockerCompose, ClusterStateTracker stateTracker) {
+        this(docker, dockerCompose, Optional.of(stateTracker));
+    }
+
+    private ContainerCache(Docker docker, DockerCompose dockerCompose, Optional<ClusterStateTracker> stateTracker) {
         this.docker = docker;
         this.dockerCompose = dockerCompose;
+        this.stateTracker = stateTracker;
     }
 
     public Container container(String containerName) {
         return containers.computeIfAbsent(
-                containerName, _ignored -> new Container(containerName, docker, dockerCompose));
+                containerName, _ignored -> new Container(containerName, docker, dockerCompose, this));
     }
 
     public Set<Container> containers() throws IOException, InterruptedException {
         return dockerCompose.services().stream().map(this::container).collect(toSet());
     }
+
+    /**
+     * Returns the native health of every running container that has a "healthcheck", using one
+     * <code>docker-compose ps</code> and at most one <code>docker inspect</code>, or no processes at all while a
+     * {@link ClusterStateTracker} is following docker events. A container's healthcheck can not change once it has
+     * been created, so containers without one are remembered and not inspected again.
+     */
+    public List<ContainerHealth> nativeHealth() throws IOException, InterruptedException {
+        Optional<ClusterStateTracker> followingTracker = followingStateTracker();
+        if (followingTracker.isPresent()) {
+            return followingTracker.get().containers().stream()
+                    .filter(TrackedContainer::hasHealthcheck)
+                    .map(container -> ContainerHealth.builder()
+                            .containerId(container.containerId())
+                            .serviceName(container.serviceName())
+                            .hasHealthcheck(true)
+                            .state(container.state())
+                            .build())
+                    .collect(toList());
+        }
+
+        List<String> containerIdsToInspect = dockerCompose.ids().stream()
+                .filter(id -> !containerIdsWithoutHealthchecks.contains(id))
+                .collect(toList());
+        if (containerIdsToInspect.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ContainerHealth> health = docker.health(containerIdsToInspect);
+        health.stream()
+                .filter(container -> !container.hasHealthcheck())
+                .forEach(container -> containerIdsWithoutHealthchecks.add(container.containerId()));
+        return health.stream().filter(ContainerHealth::hasHealthcheck).collect(toList());
+    }
+
+    /**
+     * The state tracker this cache reads from, if any, and if it is still following docker events.
+     */
+    public Optional<ClusterStateTracker> followingStateTracker() {
+        return stateTracker.filter(ClusterStateTracker::isFollowing);
+    }
+
+    Optional<State> trackedState(String containerId) {
+        return followingStateTracker()
+                .flatMap(tracker -> tracker.container(containerId))
+                .map(TrackedContainer::state);
+    }
+
+    /**
+     * Takes a fresh snapshot of every container in the cluster with a single <code>docker-compose ps</code>. Container
+     * IDs and ports are served from the latest snapshot until it is invalidated by a lifecycle operation, or is a
+     * second old.
+     */
+    public ClusterSnapshot snapshot() throws IOException, InterruptedException {
+        ClusterSnapshot snapshot = dockerCompose.snapshot();
+        latestSnapshot.set(new TakenSnapshot(snapshot));
+        return snapshot;
+    }
+
+    public void invalidateSnapshot() {
+        latestSnapshot.set(null);
+    }
+
+    /**
+     * Returns the containers of the given services which have exited with a non-zero exit code, or which have exited
+     * repeatedly, with the last lines of their logs. Read from the state tracker if it is following docker events,
+     * and otherwise from a snapshot, taking at most one every 500ms however many waits are checking, and inspecting
+     * any containers in it which have stopped. Always empty if neither is available. A container with a restart
+     * policy which exited with an error is only reported once it has exited three times, or has not been restarted
+     * within five seconds, as it may just have started before something it depends on.
+     */
+    public List<CrashedContainer> crashedContainers(Collection<String> services) throws InterruptedException {
+        Optional<ClusterStateTracker> followingTracker = followingStateTracker();
+        if (followingTracker.isPresent()) {
+            return followingTracker.get().containers().stream()
+                    .filter(container -> services.contains(container.serviceName()))
+                    .filter(ContainerCache::hasCrashed)
+                    .map(container -> crashedContainer(
+                            container.serviceName(),
+                            container.lastExitCode(),
+                            Math.max(0, container.running() ? container.exits() : container.exits() - 1)))
+                    .collect(toList());
+        }
+
+        if (snapshotsUnsupported) {
+            return Collections.emptyList();
+        }
+        Optional<ClusterSnapshot> snapshot;
+        try {
+            snapshot = crashCheckSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not take a snapshot of the cluster, so can not tell whether any containers crashed", e);
+            if (isUnsupported(e)) {
+                snapshotsUnsupported = true;
+            }
+            return Collections.emptyList();
+        }
+        if (!snapshot.isPresent()) {
+            return Collections.emptyList();
+        }
+        List<ContainerSnapshot> stopped = services.stream()
+                .map(snapshot.get()::container)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .filter(container -> {
+                    if (container.state() == State.DOWN && (container.exitCode() != 0 || container.restarting())) {
+                        return true;
+                    }
+                    stoppedAtNanosByContainerId.remove(container.id());
+                    return false;
+                })
+                .collect(toList());
+        if (stopped.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, ContainerHealth> restartPolicies = restartPolicies(stopped);
+        return stopped.stream()
+                .filter(container -> hasCrashed(container, Optional.ofNullable(restartPolicies.get(container.id()))))
+                .map(container -> crashedContainer(
+                        container.service(),
+                        Optional.of(container.exitCode()),
+                        Optional.ofNullable(restartPolicies.get(container.id()))
+                                .map(ContainerHealth::restartCount)
+                                .orElse(0)))
+                .collect(toList());
+    }
+
+    // Containers which can not be inspected are treated as having no restart policy
+    private Map<String, ContainerHealth> restartPolicies(List<ContainerSnapshot> containers)
+            throws InterruptedException {
+        try {
+            return docker.health(containers.stream().map(ContainerSnapshot::id).collect(toList())).stream()
+                    .collect(toMap(ContainerHealth::containerId, health -> health, (first, _second) -> first));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not inspect the restart policies of stopped containers", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private boolean hasCrashed(ContainerSnapshot container, Optional<ContainerHealth> health) {
+        int restarts = health.map(ContainerHealth::restartCount).orElse(0);
+        if (restarts + 1 >= CRASH_LOOP_EXITS) {
+            return true;
+        }
+        if (container.restarting() || container.exitCode() == 0) {
+            stoppedAtNanosByContainerId.remove(container.id());
+            return false;
+        }
+        if (!health.filter(ContainerHealth::hasRestartPolicy).isPresent()) {
+            return true;
+        }
+        long stoppedAtNanos = stoppedAtNanosByContainerId.computeIfAbsent(container.id(), _id -> System.nanoTime());
+        return System.nanoTime() - stoppedAtNanos >= RESTART_GRACE_NANOS;
+    }
+
+    // The latest snapshot if one was taken in the last interval, so failing polls of many waits share one ps
+    private Optional<ClusterSnapshot> crashCheckSnapshot() throws IOException, InterruptedException {
+        long now = System.nanoTime();
+        long last = lastCrashCheckSnapshotNanos.get();
+        if (now - last < CRASH_CHECK_INTERVAL_NANOS || !lastCrashCheckSnapshotNanos.compareAndSet(last, now)) {
+            return Optional.ofNullable(latestSnapshot.get()).map(taken -> taken.snapshot);
+        }
+        return Optional.of(snapshot());
+    }
+
+    private static boolean hasCrashed(TrackedContainer container) {
+        if (container.exits() >= CRASH_LOOP_EXITS) {
+            return true;
+        }
+        boolean exitedWithAnError = !container.running()
+                && container.lastExitCode().filter(exitCode -> exitCode != 0).isPresent();
+        if (!exitedWithAnError) {
+            return false;
+        }
+        return !container.hasRestartPolicy()
+                || container
+                        .stoppedAtNanos()
+                        .filter(stoppedAtNanos -> System.nanoTime() - stoppedAtNanos >= RESTART_GRACE_NANOS)
+                        .isPresent();
+    }
+
+    private CrashedContainer crashedContainer(String service, Optional<Integer> exitCode, int restarts) {
+        return CrashedContainer.builder()
+                .serviceName(service)
+                .exitCode(exitCode)
+                .restarts(restarts)
+                .lastLogLines(lastLogLines(service))
+                .build();
+    }
+
+    private List<String> lastLogLines(String service) {
+        ByteArrayOutputStream logs = new ByteArrayOutputStream();
+        try {
+            dockerCompose.writeLogs(options("--tail", String.valueOf(CRASH_LOG_LINES)), service, logs);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read the logs of crashed service '{}'", service, e);
+        }
+        List<String> lines = Splitter.onPattern("\\r?\\n")
+                .omitEmptyStrings()
+                .splitToList(new String(logs.toByteArray(), StandardCharsets.UTF_8));
+        return lines.subList(Math.max(0, lines.size() - CRASH_LOG_LINES), lines.size());
+    }
+
+    /**
+     * Whether the given service has logged a line matching the pattern, following its logs from now on if it was not
+     * already. Change listeners are told as soon as a line matching a pattern which has been asked about is logged.
+     */
+    boolean hasLogged(String service, Pattern pattern) throws IOException, InterruptedException {
+        return logFollower(service).hasLogged(pattern);
+    }
+
+    /** The recent logs of the service, which start being followed if they are not being followed already. */
+    ContainerLogs logs(String service) throws IOException, InterruptedException {
+        LogFollower follower = logFollower(service);
+        follower.ensureFollowing();
+        return new ContainerLogs(service, follower);
+    }
+
+    /** Follows the logs of the service again on the next read, and tells start listeners, as it has been started. */
+    void serviceStarted(String service) {
+        LogFollower follower = logFollowers.get(service);
+        if (follower != null) {
+            follower.restarted();
+        }
+        startListeners.forEach(listener -> listener.accept(service));
+    }
+
+    /** Adds a listener which is told the name of each service started again through a {@link Container}. */
+    public void addStartListener(Consumer<String> listener) {
+        startListeners.add(listener);
+    }
+
+    public void removeStartListener(Consumer<String> listener) {
+        startListeners.remove(listener);
+    }
+
+    private LogFollower logFollower(String service) {
+        return logFollowers.computeIfAbsent(
+                service, _service -> new LogFollower(service, dockerCompose, this::changed));
+    }
+
+    /** Stops every <code>docker-compose logs --follow</code> started by {@link #hasLogged} or {@link #logs}. */
+    public void stopFollowingLogs() {
+        logFollowers.values().forEach(LogFollower::close);
+        logFollowers.clear();
+    }
+
+    /** Adds a listener which is told when something a cluster wait may be waiting for has changed. */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void changed() {
+        changeListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Returns the given service from the latest snapshot, taking one if there is none or it is more than a second old.
+     * Empty if the service was not running when the snapshot was taken, or if this version of docker-compose can not
+     * produce snapshots. Snapshots are invalidated by lifecycle operations run through this library; the age limit
+     * bounds how long containers removed or recreated behind its back are served from a stale snapshot.
+     */
+    Optional<ContainerSnapshot> cachedSnapshot(String service) throws InterruptedException {
+        if (snapshotsUnsupported) {
+            return Optional.empty();
+        }
+
+        TakenSnapshot taken = latestSnapshot.get();
+        ClusterSnapshot snapshot;
+        if (taken != null && System.nanoTime() - taken.takenNanos < MAX_SNAPSHOT_AGE_NANOS) {
+            snapshot = taken.snapshot;
+        } else {
+            try {
+                snapshot = snapshot();
+            } catch (IOException | RuntimeException e) {
+                if (isUnsupported(e)) {
+                    log.debug("This docker-compose can not take snapshots, querying containers one by one", e);
+                    snapshotsUnsupported = true;
+                } else {
+                    log.debug("Could not take a snapshot of the cluster, querying containers one by one", e);
+                }
+                return Optional.empty();
+            }
+        }
+        return snapshot.container(service).filter(container -> container.state() != State.DOWN);
+    }
+
+    /*
+     * Whether taking a snapshot failed because this docker-compose does not support ps --format json, or its output
+     * could not be parsed, or the DockerCompose implementation can not take snapshots at all, rather than for a reason
+     * that may pass, like the daemon being briefly unavailable.
+     */
+    private static boolean isUnsupported(Exception exception) {
+        if (exception instanceof UncheckedIOException || exception instanceof UnsupportedOperationException) {
+            return true;
+        }
+        String message = Strings.nullToEmpty(exception.getMessage()).toLowerCase(Locale.ROOT);
+        return exception instanceof DockerExecutionException
+                && UNSUPPORTED_SNAPSHOT_ERRORS.stream().anyMatch(message::contains);
+    }
+
+    private static final class TakenSnapshot {
+        private final ClusterSnapshot snapshot;
+        private final long takenNanos = System.nanoTime();
+
+        private TakenSnapshot(ClusterSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
 }
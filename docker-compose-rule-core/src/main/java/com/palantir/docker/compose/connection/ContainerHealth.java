@@ -0,0 +1,53 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import org.immutables.value.Value;
+
+/**
+ * The native health of a single container, as reported by <code>docker inspect</code>.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class ContainerHealth {
+
+    public abstract String containerId();
+
+    /** The docker-compose service the container belongs to. */
+    public abstract String serviceName();
+
+    /** Whether the container declares a native "healthcheck", either in its image or in the docker-compose file. */
+    public abstract boolean hasHealthcheck();
+
+    public abstract State state();
+
+    /** Whether docker restarts the container when it exits, because it has a restart policy other than "no". */
+    @Value.Default
+    public boolean hasRestartPolicy() {
+        return false;
+    }
+
+    /** How many times docker has restarted the container under its restart policy. */
+    @Value.Default
+    public int restartCount() {
+        return 0;
+    }
+
+    public static ImmutableContainerHealth.Builder builder() {
+        return ImmutableContainerHealth.builder();
+    }
+}
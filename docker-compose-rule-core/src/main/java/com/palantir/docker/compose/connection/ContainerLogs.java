@@ -0,0 +1,112 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import com.palantir.docker.compose.connection.LogRingBuffer.Line;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.joda.time.ReadableDuration;
+
+/**
+ * The recent logs of a container, kept in memory by following them with a single long-lived
+ * <code>docker-compose logs --follow</code>. Only the most recent 10,000 lines are kept, so reading the logs is an
+ * in-memory operation with a fixed memory budget per container.
+ *
+ * <p>Lines are timestamped when they are read. Lines logged before the logs started being followed are read
+ * straight away, so carry the time following started. The lines stay readable once the container stops. If the
+ * container is started again the logs are followed again, and the lines kept are replaced by the replayed ones once
+ * the replay has caught up.
+ */
+public final class ContainerLogs {
+    private static final long MAX_WAIT_SLICE_MILLIS = 1_000;
+
+    private final String service;
+    private final LogFollower follower;
+
+    ContainerLogs(String service, LogFollower follower) {
+        this.service = service;
+        this.follower = follower;
+    }
+
+    /** All of the lines still kept, oldest first. */
+    public List<String> lines() throws IOException, InterruptedException {
+        return texts(currentLines());
+    }
+
+    /** The last {@code count} lines, oldest first. */
+    public List<String> tail(int count) throws IOException, InterruptedException {
+        List<Line> lines = currentLines();
+        return texts(lines.subList(Math.max(0, lines.size() - count), lines.size()));
+    }
+
+    /** The lines read at or after the given time, oldest first. */
+    public List<String> since(Instant timestamp) throws IOException, InterruptedException {
+        return currentLines().stream()
+                .filter(line -> !line.time().isBefore(timestamp))
+                .map(Line::text)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the first line kept which matches the pattern, waiting for up to {@code timeout} for one to be logged.
+     *
+     * @throws IllegalStateException if no matching line is logged in time
+     */
+    public String awaitLine(Pattern pattern, ReadableDuration timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout.getMillis());
+        LogRingBuffer buffer = null;
+        long nextToCheck = 0;
+        while (true) {
+            follower.ensureFollowing();
+            if (follower.buffer() != buffer) {
+                buffer = follower.buffer();
+                nextToCheck = 0;
+            }
+
+            for (Line line : buffer.linesFrom(nextToCheck)) {
+                if (pattern.matcher(line.text()).find()) {
+                    return line.text();
+                }
+                nextToCheck = line.sequence() + 1;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("Container '" + service + "' did not log a line matching '" + pattern
+                        + "' within " + timeout.getMillis() + "ms. The last lines were:\n\t"
+                        + String.join("\n\t", tail(10)));
+            }
+            buffer.awaitMoreThan(
+                    nextToCheck,
+                    Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_SLICE_MILLIS)),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<Line> currentLines() throws IOException, InterruptedException {
+        follower.ensureFollowing();
+        return follower.buffer().linesFrom(0);
+    }
+
+    private static List<String> texts(List<Line> lines) {
+        return lines.stream().map(Line::text).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.connection;
+
+import org.immutables.value.Value;
+
+/**
+ * The state of a single container at the time a {@link ClusterSnapshot} was taken.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class ContainerSnapshot {
+
+    public abstract String id();
+
+    public abstract String name();
+
+    public abstract String service();
+
+    public abstract State state();
+
+    @Value.Default
+    public int exitCode() {
+        return 0;
+    }
+
+    /** Whether docker is restarting the container under its restart policy, so it is down but not for good. */
+    @Value.Default
+    public boolean restarting() {
+        return false;
+    }
+
+    public abstract Ports ports();
+
+    public static ImmutableContainerSnapshot.Builder builder() {
+        return ImmutableContainerSnapshot.builder();
+    }
+}
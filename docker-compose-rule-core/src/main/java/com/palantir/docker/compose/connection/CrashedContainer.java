@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import java.util.List;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * A container which has exited with a non-zero exit code or keeps being restarted, along with the end of its logs.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class CrashedContainer {
+
+    public abstract String serviceName();
+
+    /** The exit code of the last time the container stopped, if known. */
+    public abstract Optional<Integer> exitCode();
+
+    @Value.Default
+    public int restarts() {
+        return 0;
+    }
+
+    public abstract List<String> lastLogLines();
+
+    public String describe() {
+        StringBuilder description =
+                new StringBuilder("Service '").append(serviceName()).append("'");
+        if (exitCode().isPresent()) {
+            description.append(" exited with code ").append(exitCode().get());
+        } else {
+            description.append(" stopped");
+        }
+        if (restarts() > 0) {
+            description.append(" after restarting ").append(restarts()).append(" times");
+        }
+        if (lastLogLines().isEmpty()) {
+            return description.append(" and logged nothing").toString();
+        }
+        description.append(". Last ").append(lastLogLines().size()).append(" log lines:");
+        lastLogLines().forEach(line -> description.append("\n\t").append(line));
+        return description.toString();
+    }
+
+    public static ImmutableCrashedContainer.Builder builder() {
+        return ImmutableCrashedContainer.builder();
+    }
+}
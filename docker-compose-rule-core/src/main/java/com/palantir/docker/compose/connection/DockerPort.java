@@ -16,23 +16,13 @@
 package com.palantir.docker.compose.connection;
 
 import com.palantir.docker.compose.connection.waiting.SuccessOrFailure;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
-import java.net.Socket;
-import java.net.SocketException;
 import java.net.URL;
 import java.util.Objects;
 import java.util.function.Function;
-import javax.net.ssl.SSLHandshakeException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public final class DockerPort {
 
-    private static final Logger log = LoggerFactory.getLogger(DockerPort.class);
-
     private final String ip;
     private final PortMapping portMapping;
 
@@ -57,49 +47,31 @@ public final class DockerPort {
         return portMapping.getInternalPort();
     }
 
+    /**
+     * Whether the port accepts a connection within 500ms. To check many ports, {@link PortProber#probe} checks them
+     * all at once.
+     */
     public boolean isListeningNow() {
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(ip, getExternalPort()), 500);
-            log.trace("External Port '{}' on ip '{}' was open", getExternalPort(), ip);
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
+        return PortProber.defaultProber().isListening(this);
     }
 
     public boolean isHttpResponding(Function<DockerPort, String> urlFunction, boolean andCheckStatus) {
         return isHttpRespondingSuccessfully(urlFunction, andCheckStatus).succeeded();
     }
 
-    @SuppressWarnings("ReadReturnValueIgnored")
+    /**
+     * Makes a single HTTP request to the url built from this port, over a pooled connection where possible. See
+     * {@link HttpProber#probe}.
+     */
     public SuccessOrFailure isHttpRespondingSuccessfully(
             Function<DockerPort, String> urlFunction, boolean andCheckStatus) {
         URL url;
         try {
-            String urlString = urlFunction.apply(this);
-            log.trace("Trying to connect to {}", urlString);
-            url = new URL(urlString);
+            url = new URL(urlFunction.apply(this));
         } catch (MalformedURLException e) {
             throw new RuntimeException("Could not create URL for connecting to localhost", e);
         }
-        try {
-            url.openConnection().connect();
-            url.openStream().read();
-            log.debug("Http connection acquired, assuming port active");
-            return SuccessOrFailure.success();
-        } catch (SocketException e) {
-            return SuccessOrFailure.failureWithCondensedException(
-                    "Failed to acquire http connection, assuming port inactive", e);
-        } catch (FileNotFoundException e) {
-            return SuccessOrFailure.fromBoolean(
-                    !andCheckStatus, "Received 404, assuming port inactive: " + e.getMessage());
-        } catch (SSLHandshakeException e) {
-            return SuccessOrFailure.failureWithCondensedException(
-                    "Received bad SSL response, assuming port inactive", e);
-        } catch (IOException e) {
-            return SuccessOrFailure.failureWithCondensedException(
-                    "Error acquiring http connection, assuming port open but inactive", e);
-        }
+        return HttpProber.defaultProber().probe(url, andCheckStatus);
     }
 
     /**
@@ -0,0 +1,294 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.docker.compose.connection.waiting.SuccessOrFailure;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.SocketException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.net.ssl.SSLHandshakeException;
+import org.joda.time.Duration;
+import org.joda.time.ReadableDuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks whether HTTP endpoints respond, making a single request per check over pooled keep-alive connections.
+ *
+ * <p>On Java 11 and later requests go through one shared {@code java.net.http.HttpClient}, which sends them
+ * asynchronously and uses HTTP/2 where the server supports it. This library still targets Java 8, so that client is
+ * looked up reflectively, and on older JVMs requests fall back to {@link HttpURLConnection}, whose responses are read
+ * fully so the JDK's keep-alive cache can reuse the connection.
+ */
+public final class HttpProber {
+    private static final Logger log = LoggerFactory.getLogger(HttpProber.class);
+
+    private static final HttpProber DEFAULT = new HttpProber(Duration.standardSeconds(5));
+
+    private final Engine engine;
+
+    public HttpProber(ReadableDuration requestTimeout) {
+        this(JavaHttpClientEngine.create(requestTimeout).orElseGet(() -> new UrlConnectionEngine(requestTimeout)));
+    }
+
+    private HttpProber(Engine engine) {
+        this.engine = engine;
+    }
+
+    static HttpProber usingUrlConnections(ReadableDuration requestTimeout) {
+        return new HttpProber(new UrlConnectionEngine(requestTimeout));
+    }
+
+    /** A prober which gives up on requests after five seconds. */
+    public static HttpProber defaultProber() {
+        return DEFAULT;
+    }
+
+    /**
+     * Sends a GET request to the url, succeeding if it gets a response. A 404 or 410 response only counts as a
+     * failure if {@code andCheckStatus} is set, and other error responses always do.
+     */
+    public CompletableFuture<SuccessOrFailure> probeAsync(URL url, boolean andCheckStatus) {
+        log.trace("Trying to connect to {}", url);
+        CompletableFuture<Integer> status;
+        try {
+            status = engine.get(url.toURI());
+        } catch (URISyntaxException | RuntimeException e) {
+            status = new CompletableFuture<>();
+            status.completeExceptionally(e);
+        }
+        return status.handle(
+                (code, error) -> error == null ? fromStatus(url, code, andCheckStatus) : fromError(unwrap(error)));
+    }
+
+    public SuccessOrFailure probe(URL url, boolean andCheckStatus) {
+        CompletableFuture<SuccessOrFailure> probe = probeAsync(url, andCheckStatus);
+        try {
+            return probe.get();
+        } catch (InterruptedException e) {
+            probe.cancel(true);
+            Thread.currentThread().interrupt();
+            return SuccessOrFailure.fromException(e);
+        } catch (ExecutionException e) {
+            return fromError(e.getCause());
+        }
+    }
+
+    private static SuccessOrFailure fromStatus(URL url, int status, boolean andCheckStatus) {
+        if (status < 400) {
+            log.debug("Http connection acquired, assuming port active");
+            return SuccessOrFailure.success();
+        }
+        if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_GONE) {
+            return SuccessOrFailure.fromBoolean(
+                    !andCheckStatus, "Received " + status + ", assuming port inactive: " + url);
+        }
+        return SuccessOrFailure.failure("Error acquiring http connection, assuming port open but inactive: "
+                + "Server returned HTTP response code: " + status + " for URL: " + url);
+    }
+
+    private static SuccessOrFailure fromError(Throwable error) {
+        if (error instanceof SocketException) {
+            return SuccessOrFailure.failureWithCondensedException(
+                    "Failed to acquire http connection, assuming port inactive", (Exception) error);
+        }
+        if (error instanceof SSLHandshakeException) {
+            return SuccessOrFailure.failureWithCondensedException(
+                    "Received bad SSL response, assuming port inactive", (Exception) error);
+        }
+        if (error instanceof IOException) {
+            return SuccessOrFailure.failureWithCondensedException(
+                    "Error acquiring http connection, assuming port open but inactive", (Exception) error);
+        }
+        if (error instanceof Exception) {
+            return SuccessOrFailure.fromException((Exception) error);
+        }
+        throw (Error) error;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException
+                        || cause instanceof ExecutionException
+                        || cause instanceof InvocationTargetException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private interface Engine {
+        /** Sends a GET request, completing with the status code of the response. */
+        CompletableFuture<Integer> get(URI uri);
+    }
+
+    /** Makes requests through {@code java.net.http.HttpClient}, which was only added in Java 11. */
+    private static final class JavaHttpClientEngine implements Engine {
+        private final Object client;
+        private final java.time.Duration requestTimeout;
+        private final Object discardingBodyHandler;
+        private final Method newRequestBuilder;
+        private final Method timeout;
+        private final Method build;
+        private final Method sendAsync;
+        private final Method statusCode;
+
+        private JavaHttpClientEngine(ReadableDuration requestTimeout) throws ReflectiveOperationException {
+            this.requestTimeout = java.time.Duration.ofMillis(requestTimeout.getMillis());
+
+            Class<?> clientClass = Class.forName("java.net.http.HttpClient");
+            Class<?> clientBuilderClass = Class.forName("java.net.http.HttpClient$Builder");
+            Object clientBuilder = clientClass.getMethod("newBuilder").invoke(null);
+            clientBuilderClass
+                    .getMethod("version", Class.forName("java.net.http.HttpClient$Version"))
+                    .invoke(clientBuilder, enumConstant("java.net.http.HttpClient$Version", "HTTP_2"));
+            clientBuilderClass
+                    .getMethod("followRedirects", Class.forName("java.net.http.HttpClient$Redirect"))
+                    .invoke(clientBuilder, enumConstant("java.net.http.HttpClient$Redirect", "NORMAL"));
+            clientBuilderClass
+                    .getMethod("connectTimeout", java.time.Duration.class)
+                    .invoke(clientBuilder, this.requestTimeout);
+            this.client = clientBuilderClass.getMethod("build").invoke(clientBuilder);
+
+            Class<?> requestClass = Class.forName("java.net.http.HttpRequest");
+            Class<?> requestBuilderClass = Class.forName("java.net.http.HttpRequest$Builder");
+            this.newRequestBuilder = requestClass.getMethod("newBuilder", URI.class);
+            this.timeout = requestBuilderClass.getMethod("timeout", java.time.Duration.class);
+            this.build = requestBuilderClass.getMethod("build");
+
+            this.discardingBodyHandler = Class.forName("java.net.http.HttpResponse$BodyHandlers")
+                    .getMethod("discarding")
+                    .invoke(null);
+            this.sendAsync = clientClass.getMethod(
+                    "sendAsync", requestClass, Class.forName("java.net.http.HttpResponse$BodyHandler"));
+            this.statusCode = Class.forName("java.net.http.HttpResponse").getMethod("statusCode");
+        }
+
+        static Optional<Engine> create(ReadableDuration requestTimeout) {
+            try {
+                return Optional.of(new JavaHttpClientEngine(requestTimeout));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.debug("java.net.http.HttpClient is not available, falling back to HttpURLConnection", e);
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<Integer> get(URI uri) {
+            try {
+                Object request = build.invoke(timeout.invoke(newRequestBuilder.invoke(null, uri), requestTimeout));
+                CompletableFuture<Object> response =
+                        (CompletableFuture<Object>) sendAsync.invoke(client, request, discardingBodyHandler);
+                return response.thenApply(this::statusCodeOf);
+            } catch (ReflectiveOperationException e) {
+                CompletableFuture<Integer> failed = new CompletableFuture<>();
+                failed.completeExceptionally(unwrap(e));
+                return failed;
+            }
+        }
+
+        private int statusCodeOf(Object response) {
+            try {
+                return (int) statusCode.invoke(response);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not read the status code of an http response", e);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object enumConstant(String enumClass, String name) throws ClassNotFoundException {
+            return Enum.valueOf((Class) Class.forName(enumClass), name);
+        }
+    }
+
+    /** Makes requests through {@link HttpURLConnection} on a small pool, reusing connections the JDK keeps alive. */
+    private static final class UrlConnectionEngine implements Engine {
+        private static final ExecutorService REQUESTS = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("dcr-http-check-%d")
+                .setDaemon(true)
+                .build());
+
+        private final int requestTimeoutMillis;
+
+        UrlConnectionEngine(ReadableDuration requestTimeout) {
+            this.requestTimeoutMillis = (int) requestTimeout.getMillis();
+        }
+
+        @Override
+        public CompletableFuture<Integer> get(URI uri) {
+            return CompletableFuture.supplyAsync(
+                    () -> {
+                        try {
+                            return statusOf(uri.toURL());
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    },
+                    REQUESTS);
+        }
+
+        private int statusOf(URL url) throws IOException {
+            URLConnection connection = url.openConnection();
+            connection.setConnectTimeout(requestTimeoutMillis);
+            connection.setReadTimeout(requestTimeoutMillis);
+            if (!(connection instanceof HttpURLConnection)) {
+                drain(connection.getInputStream());
+                return HttpURLConnection.HTTP_OK;
+            }
+
+            HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            int status = httpConnection.getResponseCode();
+            try {
+                drain(httpConnection.getInputStream());
+            } catch (FileNotFoundException e) {
+                drain(httpConnection.getErrorStream());
+            } catch (IOException e) {
+                if (status < 400) {
+                    throw e;
+                }
+                drain(httpConnection.getErrorStream());
+            }
+            return status;
+        }
+
+        // reading the whole body and closing the stream hands the connection back to the keep-alive cache
+        private static void drain(InputStream body) throws IOException {
+            if (body != null) {
+                try (InputStream toClose = body) {
+                    ByteStreams.exhaust(toClose);
+                }
+            }
+        }
+    }
+}
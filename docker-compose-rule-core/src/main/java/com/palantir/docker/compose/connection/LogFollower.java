@@ -0,0 +1,222 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import com.palantir.docker.compose.execution.DockerCompose;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows the logs of a single service with one long-lived <code>docker-compose logs --follow</code>, scanning each
+ * line once as it arrives for the patterns that have been asked about, rather than fetching the whole log again on
+ * every check.
+ *
+ * <p>The lines read are kept once the follower exits, for example because the container stopped or crashed, so they
+ * can still be inspected. The logs are only followed again once the service is restarted through this library or,
+ * for restarts made elsewhere, at most once a second. A new follower replays the logs
+ * into a separate buffer, which only replaces the one being read once it has caught up.
+ */
+final class LogFollower implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(LogFollower.class);
+    private static final int MAX_REMEMBERED_LINES = 10_000;
+    private static final long REFOLLOW_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_REPLAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final LogRingBuffer EMPTY = new LogRingBuffer(1);
+
+    private final String service;
+    private final DockerCompose dockerCompose;
+    private final Runnable onMatch;
+
+    // written under this, read without locking while the logs are being followed
+    private volatile Following current = null;
+    private volatile Following replay = null;
+    private volatile boolean restarted = false;
+    private volatile boolean closed = false;
+
+    // guarded by this
+    private final Map<String, Pattern> unmatchedPatterns = new LinkedHashMap<>();
+    private final Set<String> matchedPatterns = new HashSet<>();
+
+    LogFollower(String service, DockerCompose dockerCompose, Runnable onMatch) {
+        this.service = service;
+        this.dockerCompose = dockerCompose;
+        this.onMatch = onMatch;
+    }
+
+    private static final class Following {
+        private final Process process;
+        private final LogRingBuffer lines = new LogRingBuffer(MAX_REMEMBERED_LINES);
+        private final long startedNanos = System.nanoTime();
+
+        private Following(Process process) {
+            this.process = process;
+        }
+
+        private boolean mayFollowAgain() {
+            return !process.isAlive() && System.nanoTime() - startedNanos >= REFOLLOW_BACKOFF_NANOS;
+        }
+    }
+
+    /**
+     * Whether the service has logged a line matching the pattern. Starts following the logs if they are not already
+     * being followed, in which case earlier lines are replayed before this returns true.
+     */
+    boolean hasLogged(Pattern pattern) throws IOException, InterruptedException {
+        String key = keyOf(pattern);
+        ensureFollowing();
+        synchronized (this) {
+            if (matchedPatterns.contains(key)) {
+                return true;
+            }
+            if (!unmatchedPatterns.containsKey(key)) {
+                if (buffer().linesFrom(0).stream()
+                        .anyMatch(line -> pattern.matcher(line.text()).find())) {
+                    matchedPatterns.add(key);
+                    return true;
+                }
+                unmatchedPatterns.put(key, pattern);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Starts following the logs, unless they are already being followed, have been followed too recently or the
+     * follower has been closed. Does not lock unless the logs have to be followed again or are being replayed.
+     */
+    void ensureFollowing() throws IOException, InterruptedException {
+        Following following = current;
+        if (closed || (following != null && replay == null && !restarted && !following.mayFollowAgain())) {
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (replay != null) {
+                if (replay.process.isAlive() && System.nanoTime() - replay.startedNanos < MAX_REPLAY_NANOS) {
+                    return;
+                }
+                promote(replay);
+            }
+            boolean mustFollow =
+                    current == null || (restarted && !current.process.isAlive()) || current.mayFollowAgain();
+            if (!mustFollow) {
+                return;
+            }
+            restarted = false;
+
+            Following newFollowing = new Following(dockerCompose.followLogs(service));
+            if (current == null) {
+                current = newFollowing;
+            } else {
+                replay = newFollowing;
+            }
+            Thread reader = new Thread(() -> read(newFollowing), "dcr-log-follower-" + service);
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Tells the follower the service has been started again, so its logs are followed again on the next read once
+     * the previous follower has exited, rather than after the backoff.
+     */
+    void restarted() {
+        restarted = true;
+    }
+
+    private void read(Following following) {
+        try (BufferedReader lines =
+                new BufferedReader(new InputStreamReader(following.process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (lineLogged(following, line)) {
+                    onMatch.run();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Stopped following the logs of '{}'", service, e);
+        }
+        synchronized (this) {
+            if (following == replay) {
+                promote(following);
+            }
+        }
+    }
+
+    private synchronized boolean lineLogged(Following following, String line) {
+        if (following != current && following != replay) {
+            return false;
+        }
+        following.lines.add(line);
+        if (following == replay && following.lines.written() >= current.lines.written()) {
+            promote(following);
+        }
+
+        boolean matched = false;
+        for (Map.Entry<String, Pattern> pattern : unmatchedPatterns.entrySet()) {
+            if (pattern.getValue().matcher(line).find()) {
+                matchedPatterns.add(pattern.getKey());
+                matched = true;
+            }
+        }
+        unmatchedPatterns.keySet().removeAll(matchedPatterns);
+        return matched;
+    }
+
+    // guarded by this
+    private void promote(Following following) {
+        current = following;
+        replay = null;
+    }
+
+    /**
+     * The lines read by the current follower. Replaced when the logs are followed again, once the new follower has
+     * replayed at least as many lines, exited, or been replaying for a second.
+     */
+    LogRingBuffer buffer() {
+        Following following = current;
+        return following == null ? EMPTY : following.lines;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (current != null) {
+            current.process.destroy();
+        }
+        if (replay != null) {
+            replay.process.destroy();
+        }
+    }
+
+    private static String keyOf(Pattern pattern) {
+        return pattern.flags() + "/" + pattern.pattern();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent lines logged by a service, in a fixed number of slots. Lines are added by the single thread
+ * reading the logs and can be read by any number of threads without locking; a reader racing with the writer simply
+ * misses lines which were overwritten while it was reading.
+ */
+final class LogRingBuffer {
+    private final int capacity;
+    private final AtomicReferenceArray<Line> slots;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Object newLines = new Object();
+
+    LogRingBuffer(int capacity) {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    static final class Line {
+        private final long sequence;
+        private final Instant time;
+        private final String text;
+
+        private Line(long sequence, Instant time, String text) {
+            this.sequence = sequence;
+            this.time = time;
+            this.text = text;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        Instant time() {
+            return time;
+        }
+
+        String text() {
+            return text;
+        }
+    }
+
+    /** Adds a line, overwriting the oldest one if the buffer is full. Must only be called by one thread at a time. */
+    void add(String text) {
+        long sequence = written.get();
+        slots.set(slot(sequence), new Line(sequence, Instant.now(), text));
+        written.set(sequence + 1);
+        if (waiting.get() > 0) {
+            synchronized (newLines) {
+                newLines.notifyAll();
+            }
+        }
+    }
+
+    /** How many lines have ever been added, including those which have since been overwritten. */
+    long written() {
+        return written.get();
+    }
+
+    /** The lines from the given sequence number onwards which are still in the buffer, oldest first. */
+    List<Line> linesFrom(long sequence) {
+        long end = written.get();
+        long start = Math.max(sequence, end - capacity);
+        List<Line> lines = new ArrayList<>((int) Math.max(0, end - start));
+        for (long next = start; next < end; next++) {
+            Line line = slots.get(slot(next));
+            if (line != null && line.sequence == next) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /** Waits until more than {@code count} lines have been added, returning false if the timeout passes first. */
+    boolean awaitMoreThan(long count, long timeout, TimeUnit unit) throws InterruptedException {
+        if (written.get() > count) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiting.incrementAndGet();
+        try {
+            synchronized (newLines) {
+                while (written.get() <= count) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(newLines, remaining);
+                }
+                return true;
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+}
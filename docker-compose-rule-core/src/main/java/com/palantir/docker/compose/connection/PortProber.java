@@ -0,0 +1,139 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.Duration;
+import org.joda.time.ReadableDuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks whether many ports are listening at once, by connecting to all of them with non-blocking channels on a
+ * single {@link Selector}. One slow or unreachable port therefore only holds up the whole probe for as long as the
+ * connect timeout, rather than delaying every port after it.
+ */
+public final class PortProber {
+    private static final Logger log = LoggerFactory.getLogger(PortProber.class);
+
+    private static final PortProber DEFAULT = new PortProber(Duration.millis(500));
+
+    private final long connectTimeoutMillis;
+
+    public PortProber(ReadableDuration connectTimeout) {
+        this.connectTimeoutMillis = connectTimeout.getMillis();
+    }
+
+    /** A prober with a connect timeout of 500ms. */
+    public static PortProber defaultProber() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns whether each of the given ports accepted a connection within the connect timeout, in the order they
+     * were given.
+     */
+    public Map<DockerPort, Boolean> probe(Collection<DockerPort> ports) {
+        Map<DockerPort, Boolean> listening = new LinkedHashMap<>();
+        ports.forEach(port -> listening.put(port, false));
+        if (ports.isEmpty()) {
+            return listening;
+        }
+
+        List<SocketChannel> channels = new ArrayList<>();
+        try (Selector selector = Selector.open()) {
+            int pending = 0;
+            for (DockerPort port : listening.keySet()) {
+                SocketChannel channel = SocketChannel.open();
+                channels.add(channel);
+                if (startConnecting(channel, port)) {
+                    listening.put(port, true);
+                } else if (channel.isConnectionPending()) {
+                    channel.register(selector, SelectionKey.OP_CONNECT, port);
+                    pending++;
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(connectTimeoutMillis);
+            while (pending > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0 || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                selector.select(remainingMillis);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    DockerPort port = (DockerPort) key.attachment();
+                    listening.put(port, finishConnecting((SocketChannel) key.channel(), port));
+                    key.cancel();
+                    pending--;
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            log.debug("Could not probe ports {}", ports, e);
+        } finally {
+            channels.forEach(PortProber::closeQuietly);
+        }
+        return listening;
+    }
+
+    public boolean isListening(DockerPort port) {
+        return probe(Collections.singletonList(port)).get(port);
+    }
+
+    private static boolean startConnecting(SocketChannel channel, DockerPort port) {
+        try {
+            channel.configureBlocking(false);
+            return channel.connect(new InetSocketAddress(port.getIp(), port.getExternalPort()));
+        } catch (IOException | RuntimeException e) {
+            // unresolved hosts and immediately refused connections
+            log.trace("Could not connect to external port '{}' on ip '{}'", port.getExternalPort(), port.getIp(), e);
+            return false;
+        }
+    }
+
+    private static boolean finishConnecting(SocketChannel channel, DockerPort port) {
+        try {
+            if (channel.finishConnect()) {
+                log.trace("External Port '{}' on ip '{}' was open", port.getExternalPort(), port.getIp());
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.trace("Could not close port probe", e);
+        }
+    }
+}
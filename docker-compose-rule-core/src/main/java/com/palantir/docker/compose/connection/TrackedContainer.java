@@ -0,0 +1,94 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.connection;
+
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * The last known state of a container, as seen by a {@link ClusterStateTracker}.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class TrackedContainer {
+
+    public abstract String containerId();
+
+    public abstract String serviceName();
+
+    public abstract boolean hasHealthcheck();
+
+    public abstract boolean running();
+
+    @Value.Default
+    public boolean paused() {
+        return false;
+    }
+
+    /** The last native "health_status", which is empty for containers without a healthcheck. */
+    public abstract Optional<String> healthStatus();
+
+    @Value.Default
+    public boolean hasRestartPolicy() {
+        return false;
+    }
+
+    /** How many times the container has exited, counting the restarts docker had made before it was tracked. */
+    @Value.Default
+    public int exits() {
+        return 0;
+    }
+
+    public abstract Optional<Integer> lastExitCode();
+
+    /** The {@link System#nanoTime()} at which the container was last seen to stop, while it is stopped. */
+    @Value.Auxiliary
+    public abstract Optional<Long> stoppedAtNanos();
+
+    public State state() {
+        if (!running()) {
+            return State.DOWN;
+        }
+        if (paused()) {
+            return State.PAUSED;
+        }
+        if (hasHealthcheck() && !healthStatus().equals(Optional.of("healthy"))) {
+            return State.UNHEALTHY;
+        }
+        return State.HEALTHY;
+    }
+
+    public static ImmutableTrackedContainer.Builder builder() {
+        return ImmutableTrackedContainer.builder();
+    }
+
+    static TrackedContainer from(ContainerHealth health) {
+        return builder()
+                .containerId(health.containerId())
+                .serviceName(health.serviceName())
+                .hasHealthcheck(health.hasHealthcheck())
+                .running(health.state() != State.DOWN)
+                .paused(health.state() == State.PAUSED)
+                .hasRestartPolicy(health.hasRestartPolicy())
+                .exits(health.restartCount())
+                .stoppedAtNanos(health.state() == State.DOWN ? Optional.of(System.nanoTime()) : Optional.empty())
+                .healthStatus(
+                        health.hasHealthcheck()
+                                ? Optional.of(health.state() == State.HEALTHY ? "healthy" : "unhealthy")
+                                : Optional.empty())
+                .build();
+    }
+}
@@ -16,24 +16,57 @@
 package com.palantir.docker.compose.connection.waiting;
 
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toCollection;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.connection.Cluster;
 import com.palantir.docker.compose.connection.Container;
+import com.palantir.docker.compose.connection.ContainerHealth;
+import com.palantir.docker.compose.connection.CrashedContainer;
+import com.palantir.docker.compose.connection.DockerPort;
+import com.palantir.docker.compose.connection.PortProber;
 import com.palantir.docker.compose.connection.State;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
 @FunctionalInterface
 public interface ClusterHealthCheck {
     static ClusterHealthCheck serviceHealthCheck(List<String> containerNames, HealthCheck<List<Container>> delegate) {
-        return transformingHealthCheck(cluster -> cluster.containers(containerNames), delegate);
+        return failingFastOnCrashes(
+                containerNames, transformingHealthCheck(cluster -> cluster.containers(containerNames), delegate));
     }
 
     static ClusterHealthCheck serviceHealthCheck(String containerName, HealthCheck<Container> containerCheck) {
-        return transformingHealthCheck(cluster -> cluster.container(containerName), containerCheck);
+        return failingFastOnCrashes(
+                ImmutableList.of(containerName),
+                transformingHealthCheck(cluster -> cluster.container(containerName), containerCheck));
+    }
+
+    /**
+     * Returns a check which, whenever the given check fails, also looks for containers of the given services which
+     * have exited with an error or keep restarting, and if there are any throws an {@link IllegalStateException} with
+     * their exit codes and the end of their logs. A {@link ClusterWait} then gives up straight away rather than
+     * polling a service which will never become healthy until it times out.
+     */
+    static ClusterHealthCheck failingFastOnCrashes(List<String> services, ClusterHealthCheck healthCheck) {
+        return cluster -> {
+            SuccessOrFailure successOrFailure = healthCheck.isClusterHealthy(cluster);
+            if (successOrFailure.failed()) {
+                List<CrashedContainer> crashedContainers = cluster.crashedContainers(services);
+                if (!crashedContainers.isEmpty()) {
+                    throw new IllegalStateException("The cluster failed to pass a startup check: "
+                            + crashedContainers.stream()
+                                    .map(CrashedContainer::describe)
+                                    .collect(joining("\n")));
+                }
+            }
+            return successOrFailure;
+        };
     }
 
     static <T> ClusterHealthCheck transformingHealthCheck(Function<Cluster, T> transform, HealthCheck<T> healthCheck) {
@@ -43,6 +76,30 @@ public interface ClusterHealthCheck {
         };
     }
 
+    /**
+     * Returns a check that every published port of every container in the cluster is listening. All of the ports are
+     * probed at once, so a cluster with many services takes no longer to check than one with a single port.
+     */
+    static ClusterHealthCheck allPortsOpen() {
+        return cluster -> {
+            try {
+                Map<DockerPort, String> containerNames = new LinkedHashMap<>();
+                for (Container container : cluster.allContainers()) {
+                    container.ports().stream().forEach(port -> containerNames.put(port, container.getContainerName()));
+                }
+                String closedPorts = PortProber.defaultProber().probe(containerNames.keySet()).entrySet().stream()
+                        .filter(port -> !port.getValue())
+                        .map(port -> containerNames.get(port.getKey()) + ":"
+                                + port.getKey().getInternalPort())
+                        .collect(joining(", "));
+                return SuccessOrFailure.fromBoolean(
+                        closedPorts.isEmpty(), "The following ports failed to open: " + closedPorts);
+            } catch (IOException e) {
+                return SuccessOrFailure.fromException(e);
+            }
+        };
+    }
+
     /**
      * Returns a check that the native "healthcheck" status of the docker containers is not unhealthy.
      *
@@ -69,5 +126,28 @@ public interface ClusterHealthCheck {
         };
     }
 
+    /**
+     * Returns the same check as {@link #nativeHealthChecks()}, but fetches the health of every container with one
+     * <code>docker-compose ps</code> and one <code>docker inspect</code> per poll rather than two processes per
+     * container. Containers with no healthcheck defined are only inspected once.
+     */
+    static ClusterHealthCheck batchedNativeHealthChecks() {
+        return cluster -> {
+            try {
+                Set<String> unhealthyContainers = cluster.nativeHealth().stream()
+                        .filter(container -> container.state() == State.UNHEALTHY)
+                        .map(ContainerHealth::serviceName)
+                        .collect(toCollection(LinkedHashSet::new));
+                if (!unhealthyContainers.isEmpty()) {
+                    return SuccessOrFailure.failure("The following containers are not healthy: "
+                            + unhealthyContainers.stream().collect(joining(", ")));
+                }
+                return SuccessOrFailure.success();
+            } catch (IOException e) {
+                return SuccessOrFailure.fromException(e);
+            }
+        };
+    }
+
     SuccessOrFailure isClusterHealthy(Cluster cluster) throws InterruptedException;
 }
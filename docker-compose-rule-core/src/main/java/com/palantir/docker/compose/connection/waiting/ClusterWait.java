@@ -15,55 +15,206 @@
  */
 package com.palantir.docker.compose.connection.waiting;
 
+import com.google.common.base.Throwables;
 import com.palantir.docker.compose.connection.Cluster;
+import com.palantir.docker.compose.connection.ClusterStateTracker;
 import java.util.Optional;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
-import org.awaitility.Awaitility;
-import org.awaitility.core.ConditionTimeoutException;
 import org.joda.time.Duration;
 import org.joda.time.ReadableDuration;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public final class ClusterWait {
-    private static final Logger log = LoggerFactory.getLogger(ClusterWait.class);
     private final ClusterHealthCheck clusterHealthCheck;
     private final Duration timeout;
+    private final Optional<ClusterStateTracker> wakeOnChangesTo;
+    private final Optional<PollPolicy> pollPolicy;
+    private final ReadinessHistory readinessHistory;
+    private final ClusterWaitScheduler scheduler = ClusterWaitScheduler.INSTANCE;
 
     public ClusterWait(ClusterHealthCheck clusterHealthCheck, ReadableDuration timeout) {
+        this(clusterHealthCheck, timeout, Optional.empty(), Optional.empty(), new ReadinessHistory());
+    }
+
+    /**
+     * Creates a wait which re-checks the cluster as soon as the tracker sees a container change state, as well as on
+     * the usual poll interval.
+     */
+    public ClusterWait(
+            ClusterHealthCheck clusterHealthCheck, ReadableDuration timeout, ClusterStateTracker wakeOnChangesTo) {
+        this(clusterHealthCheck, timeout, Optional.of(wakeOnChangesTo), Optional.empty(), new ReadinessHistory());
+    }
+
+    private ClusterWait(
+            ClusterHealthCheck clusterHealthCheck,
+            ReadableDuration timeout,
+            Optional<ClusterStateTracker> wakeOnChangesTo,
+            Optional<PollPolicy> pollPolicy,
+            ReadinessHistory readinessHistory) {
         this.clusterHealthCheck = clusterHealthCheck;
         this.timeout = Duration.millis(timeout.getMillis());
+        this.wakeOnChangesTo = wakeOnChangesTo;
+        this.pollPolicy = pollPolicy;
+        this.readinessHistory = readinessHistory;
+    }
+
+    /**
+     * Returns a copy of this wait which checks the cluster as often as the given policy says. The copy shares what
+     * this wait has learned about how long the cluster takes to become ready.
+     */
+    public ClusterWait withPollPolicy(PollPolicy newPollPolicy) {
+        return new ClusterWait(
+                clusterHealthCheck, timeout, wakeOnChangesTo, Optional.of(newPollPolicy), readinessHistory);
+    }
+
+    /**
+     * Returns a copy of this wait which learns how long the cluster takes to become ready together with every other
+     * wait in this JVM using the same key, rather than only from its own earlier runs. This lets a {@link PollPolicy}
+     * that learns the time to ready benefit from earlier tests, each of which usually creates its own waits.
+     */
+    public ClusterWait withSharedReadinessHistory(String key) {
+        return new ClusterWait(clusterHealthCheck, timeout, wakeOnChangesTo, pollPolicy, ReadinessHistory.shared(key));
+    }
+
+    /**
+     * The policy set with {@link #withPollPolicy}, if any. Without one, the cluster is checked at a fixed interval
+     * of a twentieth of the timeout, or 500ms if that is shorter.
+     */
+    public Optional<PollPolicy> pollPolicy() {
+        return pollPolicy;
     }
 
     public void waitUntilReady(Cluster cluster) {
-        final AtomicReference<Optional<SuccessOrFailure>> lastSuccessOrFailure =
+        CompletableFuture<Void> wait = waitUntilReadyAsync(cluster);
+        try {
+            wait.get();
+        } catch (InterruptedException e) {
+            wait.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the cluster", e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Starts polling the cluster on a shared scheduler without blocking the calling thread. The returned future
+     * completes when the check succeeds, fails if the check throws or does not succeed before the timeout, and stops
+     * polling if it is cancelled.
+     */
+    public CompletableFuture<Void> waitUntilReadyAsync(Cluster cluster) {
+        Poll poll = new Poll(cluster);
+        poll.start();
+        return poll.result;
+    }
+
+    private final class Poll {
+        private final Cluster cluster;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final AtomicReference<Optional<SuccessOrFailure>> lastSuccessOrFailure =
                 new AtomicReference<>(Optional.empty());
+        private final Runnable wake = this::wake;
+        private final PollSchedule schedule = new PollSchedule(
+                pollPolicy.orElseGet(ClusterWait.this::defaultPollPolicy),
+                readinessHistory.earliestExpectedMillis(),
+                ThreadLocalRandom.current());
+        private final long startedNanos = System.nanoTime();
 
-        // semi-intelligent poll interval. If we specify a fast timeout, it will poll more often, otherwise poll
-        // at a slower rate
-        Duration pollInterval = minDuration(Duration.millis(500), timeout.dividedBy(20));
+        // guarded by this
+        private Future<?> nextCheck;
+        private Thread checkingThread;
+        private boolean wokenDuringCheck = false;
 
-        try {
-            Awaitility.await()
-                    .pollInterval(java.time.Duration.ofMillis(pollInterval.getMillis()))
-                    .pollDelay(java.time.Duration.ofMillis(
-                            ThreadLocalRandom.current().nextInt(1, 50)))
-                    .atMost(java.time.Duration.ofMillis(timeout.getMillis()))
-                    .until(weHaveSuccess(cluster, lastSuccessOrFailure));
-        } catch (ConditionTimeoutException e) {
-            throw new IllegalStateException(serviceDidNotStartupExceptionMessage(lastSuccessOrFailure));
+        Poll(Cluster cluster) {
+            this.cluster = cluster;
+        }
+
+        void start() {
+            // Timing out runs every callback on the result, so it happens on the check executor rather than the timer
+            Future<?> timeoutTask = scheduler.schedule(this::timeOut, timeout.getMillis());
+            wakeOnChangesTo.ifPresent(tracker -> tracker.addListener(wake));
+            cluster.containerCache().addChangeListener(wake);
+            result.whenComplete((_ignored, _error) -> {
+                timeoutTask.cancel(false);
+                wakeOnChangesTo.ifPresent(tracker -> tracker.removeListener(wake));
+                cluster.containerCache().removeChangeListener(wake);
+                stop();
+            });
+            scheduleCheck(schedule.firstDelayMillis());
+        }
+
+        private synchronized void scheduleCheck(long delayMillis) {
+            if (!result.isDone()) {
+                nextCheck = scheduler.schedule(this::check, delayMillis);
+            }
+        }
+
+        private void check() {
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                checkingThread = Thread.currentThread();
+                wokenDuringCheck = false;
+            }
+
+            try {
+                SuccessOrFailure successOrFailure = clusterHealthCheck.isClusterHealthy(cluster);
+                lastSuccessOrFailure.set(Optional.of(successOrFailure));
+                if (successOrFailure.succeeded()) {
+                    readinessHistory.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+                    result.complete(null);
+                }
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+
+            synchronized (this) {
+                checkingThread = null;
+                if (result.isDone()) {
+                    // clear any interrupt from stop() so it does not leak into the next task on this thread
+                    Thread.interrupted();
+                    return;
+                }
+                scheduleCheck(wokenDuringCheck ? 0 : schedule.nextDelayMillis());
+            }
+        }
+
+        private synchronized void wake() {
+            if (checkingThread != null) {
+                wokenDuringCheck = true;
+            } else if (nextCheck != null && nextCheck.cancel(false)) {
+                scheduleCheck(0);
+            }
+        }
+
+        private synchronized void stop() {
+            if (nextCheck != null) {
+                nextCheck.cancel(false);
+            }
+            if (checkingThread != null) {
+                checkingThread.interrupt();
+            }
+        }
+
+        private void timeOut() {
+            result.completeExceptionally(
+                    new IllegalStateException(serviceDidNotStartupExceptionMessage(lastSuccessOrFailure)));
         }
     }
 
-    private Callable<Boolean> weHaveSuccess(
-            Cluster cluster, AtomicReference<Optional<SuccessOrFailure>> lastSuccessOrFailure) {
-        return () -> {
-            SuccessOrFailure successOrFailure = clusterHealthCheck.isClusterHealthy(cluster);
-            lastSuccessOrFailure.set(Optional.of(successOrFailure));
-            return successOrFailure.succeeded();
-        };
+    private PollPolicy defaultPollPolicy() {
+        // semi-intelligent poll interval. If we specify a fast timeout, it will poll more often, otherwise poll
+        // at a slower rate
+        long intervalMillis =
+                minDuration(Duration.millis(500), timeout.dividedBy(20)).getMillis();
+        return PollPolicy.fixed(Duration.millis(Math.max(1, intervalMillis)));
     }
 
     private static String serviceDidNotStartupExceptionMessage(
@@ -0,0 +1,88 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection.waiting;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the polls of every {@link ClusterWait}. A single timer thread decides when each poll is due, and the health
+ * checks themselves, which usually block on a process or socket, run on virtual threads where the JVM supports them
+ * or otherwise on a small shared pool.
+ */
+final class ClusterWaitScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ClusterWaitScheduler.class);
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    static final ClusterWaitScheduler INSTANCE = new ClusterWaitScheduler();
+
+    private final ScheduledExecutorService timer;
+    private final Executor checks;
+
+    private ClusterWaitScheduler() {
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("dcr-cluster-wait-timer")
+                .setDaemon(true)
+                .build());
+        this.checks = virtualThreadExecutor().orElseGet(ClusterWaitScheduler::sharedPool);
+    }
+
+    /**
+     * Runs the given task on the check executor after the delay. Nothing runs on the timer thread itself, so that a
+     * slow task can not hold up any other wait.
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return timer.schedule(() -> checks.execute(task), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static ExecutorService sharedPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                POOL_SIZE,
+                POOL_SIZE,
+                30,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("dcr-cluster-wait-%d")
+                        .setDaemon(true)
+                        .build());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Virtual threads were only added in Java 21, and this library still targets Java 8, so they have to be looked
+    // up reflectively.
+    private static Optional<ExecutorService> virtualThreadExecutor() {
+        try {
+            return Optional.of((ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual threads are not available, running cluster waits on a shared pool", e);
+            return Optional.empty();
+        }
+    }
+}
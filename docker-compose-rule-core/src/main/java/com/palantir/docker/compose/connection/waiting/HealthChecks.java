@@ -19,6 +19,7 @@ package com.palantir.docker.compose.connection.waiting;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.DockerPort;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 public final class HealthChecks {
 
@@ -36,4 +37,19 @@ public final class HealthChecks {
     public static HealthCheck<Container> toHaveAllPortsOpen() {
         return Container::areAllPortsOpen;
     }
+
+    /**
+     * Waits until the container logs a line containing a match for the pattern. The logs are followed with a single
+     * long-lived <code>docker-compose logs --follow</code>, and the wait checks again as soon as a matching line
+     * arrives rather than on its next poll.
+     */
+    public static HealthCheck<Container> toLogLine(Pattern pattern) {
+        return container -> container.hasLoggedLineMatching(pattern);
+    }
+
+    public static HealthCheck<DockerPort> toBeOpen() {
+        return port -> SuccessOrFailure.fromBoolean(
+                port.isListeningNow(),
+                "External port " + port.getExternalPort() + " on " + port.getIp() + " is not listening");
+    }
 }
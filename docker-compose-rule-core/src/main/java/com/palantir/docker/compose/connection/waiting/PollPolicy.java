@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection.waiting;
+
+import com.google.common.base.Preconditions;
+import org.immutables.value.Value;
+import org.joda.time.Duration;
+import org.joda.time.ReadableDuration;
+
+/**
+ * How often a {@link ClusterWait} checks the cluster. Checks start with {@link #fastAttempts()} checks
+ * {@link #fastInterval()} apart, to catch services that are ready almost immediately, and then back off exponentially
+ * from {@link #initialInterval()} up to {@link #maxInterval()}, shortening each interval by a random fraction of up to
+ * {@link #jitter()} so that waits started together do not check in lockstep.
+ *
+ * <p>If {@link #learnTimeToReady()} is set, the wait remembers how long the cluster took to become ready on earlier
+ * runs, and skips straight to shortly before that point before it starts backing off.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class PollPolicy {
+
+    @Value.Default
+    public int fastAttempts() {
+        return 0;
+    }
+
+    @Value.Default
+    public ReadableDuration fastInterval() {
+        return Duration.millis(50);
+    }
+
+    public abstract ReadableDuration initialInterval();
+
+    @Value.Default
+    public double multiplier() {
+        return 1;
+    }
+
+    @Value.Default
+    public ReadableDuration maxInterval() {
+        return initialInterval();
+    }
+
+    /** The largest fraction by which an interval is randomly shortened, between 0 and 1. */
+    @Value.Default
+    public double jitter() {
+        return 0;
+    }
+
+    @Value.Default
+    public boolean learnTimeToReady() {
+        return false;
+    }
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkArgument(fastAttempts() >= 0, "fastAttempts must not be negative");
+        Preconditions.checkArgument(initialInterval().getMillis() > 0, "initialInterval must be positive");
+        Preconditions.checkArgument(multiplier() >= 1, "multiplier must be at least 1");
+        Preconditions.checkArgument(
+                !maxInterval().isShorterThan(initialInterval()),
+                "maxInterval must not be shorter than initialInterval");
+        Preconditions.checkArgument(jitter() >= 0 && jitter() <= 1, "jitter must be between 0 and 1");
+    }
+
+    /** Checks at the same interval every time. */
+    public static PollPolicy fixed(ReadableDuration interval) {
+        return builder().initialInterval(interval).build();
+    }
+
+    /**
+     * Checks every 50ms for the first quarter of a second, then backs off from 100ms by half again each time up to
+     * 500ms, learning from earlier runs when the cluster is likely to be ready. It never checks less often than the
+     * default fixed interval of waits with a timeout of ten seconds or more, so it never notices a cluster become
+     * ready later than that would on average.
+     */
+    public static PollPolicy adaptive() {
+        return builder()
+                .fastAttempts(5)
+                .fastInterval(Duration.millis(50))
+                .initialInterval(Duration.millis(100))
+                .multiplier(1.5)
+                .maxInterval(Duration.millis(500))
+                .jitter(0.2)
+                .learnTimeToReady(true)
+                .build();
+    }
+
+    public static ImmutablePollPolicy.Builder builder() {
+        return ImmutablePollPolicy.builder();
+    }
+}
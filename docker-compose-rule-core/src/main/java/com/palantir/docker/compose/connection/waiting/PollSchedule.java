@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection.waiting;
+
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * The delays between the checks of a single wait under a {@link PollPolicy}.
+ */
+final class PollSchedule {
+    private static final int MAX_INITIAL_SPREAD_MILLIS = 50;
+
+    private final PollPolicy policy;
+    private final Random random;
+
+    private final Optional<Long> earliestExpectedMillis;
+    private int fastAttemptsLeft;
+    private double intervalMillis;
+
+    PollSchedule(PollPolicy policy, Optional<Long> earliestExpectedMillis, Random random) {
+        this.policy = policy;
+        this.random = random;
+        this.earliestExpectedMillis = policy.learnTimeToReady() ? earliestExpectedMillis : Optional.empty();
+        this.fastAttemptsLeft = policy.fastAttempts();
+        this.intervalMillis = policy.initialInterval().getMillis();
+    }
+
+    /**
+     * The delay before the first check, which is either shortly before the cluster is expected to be ready or a
+     * few random milliseconds to spread out waits which start together.
+     */
+    long firstDelayMillis() {
+        long spread = 1 + random.nextInt(MAX_INITIAL_SPREAD_MILLIS - 1);
+        if (earliestExpectedMillis.isPresent() && earliestExpectedMillis.get() > fastPhaseMillis()) {
+            // everything before this point is very likely to be wasted, so skip the fast checks too
+            fastAttemptsLeft = 0;
+            return Math.max(spread, earliestExpectedMillis.get());
+        }
+        return spread;
+    }
+
+    long nextDelayMillis() {
+        if (fastAttemptsLeft > 0) {
+            fastAttemptsLeft--;
+            return policy.fastInterval().getMillis();
+        }
+
+        double delay = intervalMillis * (1 - policy.jitter() * random.nextDouble());
+        intervalMillis = Math.min(policy.maxInterval().getMillis(), intervalMillis * policy.multiplier());
+        return Math.max(1, Math.round(delay));
+    }
+
+    private long fastPhaseMillis() {
+        return policy.fastAttempts() * policy.fastInterval().getMillis();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection.waiting;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * How long a {@link ClusterWait} has taken to become ready, as moving averages of the time and of its deviation
+ * which favour recent runs.
+ */
+final class ReadinessHistory {
+    private static final double WEIGHT = 0.3;
+    private static final int DEVIATIONS_OF_HEADROOM = 3;
+    private static final int MAX_DEVIATIONS_PER_MEAN = 8;
+    private static final ConcurrentMap<String, ReadinessHistory> SHARED = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private boolean empty = true;
+    private double meanMillis;
+    private double deviationMillis;
+
+    /** The history shared by every wait in this JVM which remembers how long it took under the given key. */
+    static ReadinessHistory shared(String key) {
+        return SHARED.computeIfAbsent(key, _key -> new ReadinessHistory());
+    }
+
+    synchronized void record(long timeToReadyMillis) {
+        if (empty) {
+            empty = false;
+            meanMillis = timeToReadyMillis;
+            deviationMillis = timeToReadyMillis / 4.0;
+            return;
+        }
+        deviationMillis += WEIGHT * (Math.abs(timeToReadyMillis - meanMillis) - deviationMillis);
+        meanMillis += WEIGHT * (timeToReadyMillis - meanMillis);
+    }
+
+    /**
+     * The earliest the cluster is likely to be ready, if it has become ready before in a consistent enough time that
+     * skipping ahead to then is unlikely to miss it.
+     */
+    synchronized Optional<Long> earliestExpectedMillis() {
+        if (empty || deviationMillis * MAX_DEVIATIONS_PER_MEAN > meanMillis) {
+            return Optional.empty();
+        }
+        return Optional.of(Math.max(0, Math.round(meanMillis - DEVIATIONS_OF_HEADROOM * deviationMillis)));
+    }
+}
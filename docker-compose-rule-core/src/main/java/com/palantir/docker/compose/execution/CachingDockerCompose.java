@@ -0,0 +1,220 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.execution;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.palantir.docker.compose.connection.Container;
+import com.palantir.docker.compose.connection.ContainerName;
+import com.palantir.docker.compose.connection.Ports;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.ReadableDuration;
+
+/**
+ * Memoizes the read-only <code>docker-compose</code> queries. The compose config and service names can not change
+ * during a run, so are cached indefinitely. Container IDs, ports and <code>ps</code> output are cached for the given
+ * time to live, and are invalidated by any lifecycle operation which could change them, even one which fails part way.
+ */
+public final class CachingDockerCompose extends DelegatingDockerCompose {
+    private static final String CLUSTER = "";
+
+    private final Cache<String, String> config = CacheBuilder.newBuilder().build();
+    private final Cache<String, List<String>> services =
+            CacheBuilder.newBuilder().build();
+    private final Cache<String, List<ContainerName>> ps;
+    private final Cache<String, List<String>> ids;
+    private final Cache<String, Optional<String>> id;
+    private final Cache<String, Ports> ports;
+
+    public CachingDockerCompose(ReadableDuration timeToLive, DockerCompose dockerCompose) {
+        this(timeToLive, Ticker.systemTicker(), dockerCompose);
+    }
+
+    CachingDockerCompose(ReadableDuration timeToLive, Ticker ticker, DockerCompose dockerCompose) {
+        super(dockerCompose);
+        this.ps = expiringCache(timeToLive, ticker);
+        this.ids = expiringCache(timeToLive, ticker);
+        this.id = expiringCache(timeToLive, ticker);
+        this.ports = expiringCache(timeToLive, ticker);
+    }
+
+    private static <V> Cache<String, V> expiringCache(ReadableDuration timeToLive, Ticker ticker) {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(timeToLive.getMillis(), TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public void up() throws IOException, InterruptedException {
+        try {
+            super.up();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void up(Container container) throws IOException, InterruptedException {
+        try {
+            super.up(container);
+        } finally {
+            invalidate(container);
+        }
+    }
+
+    @Override
+    public void down() throws IOException, InterruptedException {
+        try {
+            super.down();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void stop() throws IOException, InterruptedException {
+        try {
+            super.stop();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void stop(Container container) throws IOException, InterruptedException {
+        try {
+            super.stop(container);
+        } finally {
+            invalidate(container);
+        }
+    }
+
+    @Override
+    public void kill() throws IOException, InterruptedException {
+        try {
+            super.kill();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void kill(Container container) throws IOException, InterruptedException {
+        try {
+            super.kill(container);
+        } finally {
+            invalidate(container);
+        }
+    }
+
+    @Override
+    public void rm() throws IOException, InterruptedException {
+        try {
+            super.rm();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void start(Container container) throws IOException, InterruptedException {
+        try {
+            super.start(container);
+        } finally {
+            invalidate(container);
+        }
+    }
+
+    @Override
+    public String run(
+            DockerComposeRunOption dockerComposeRunOption,
+            String containerName,
+            DockerComposeRunArgument dockerComposeRunArgument)
+            throws IOException, InterruptedException {
+        try {
+            return super.run(dockerComposeRunOption, containerName, dockerComposeRunArgument);
+        } finally {
+            invalidateClusterQueries();
+        }
+    }
+
+    @Override
+    public List<ContainerName> ps() throws IOException, InterruptedException {
+        return cached(ps, CLUSTER, super::ps);
+    }
+
+    @Override
+    public Optional<String> id(Container container) throws IOException, InterruptedException {
+        return cached(id, container.getContainerName(), () -> super.id(container));
+    }
+
+    @Override
+    public List<String> ids() throws IOException, InterruptedException {
+        return cached(ids, CLUSTER, super::ids);
+    }
+
+    @Override
+    public String config() throws IOException, InterruptedException {
+        return cached(config, CLUSTER, super::config);
+    }
+
+    @Override
+    public List<String> services() throws IOException, InterruptedException {
+        return cached(services, CLUSTER, super::services);
+    }
+
+    @Override
+    public Ports ports(String service) throws IOException, InterruptedException {
+        return cached(ports, service, () -> super.ports(service));
+    }
+
+    private void invalidate(Container container) {
+        invalidateClusterQueries();
+        id.invalidate(container.getContainerName());
+        ports.invalidate(container.getContainerName());
+    }
+
+    private void invalidateAll() {
+        invalidateClusterQueries();
+        id.invalidateAll();
+        ports.invalidateAll();
+    }
+
+    private void invalidateClusterQueries() {
+        ps.invalidateAll();
+        ids.invalidateAll();
+    }
+
+    private interface Query<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    private static <T> T cached(Cache<String, T> cache, String key, Query<T> query)
+            throws IOException, InterruptedException {
+        T cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        T value = query.call();
+        cache.put(key, value);
+        return value;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import com.palantir.docker.compose.connection.Container;
+import java.io.IOException;
+
+/**
+ * Tells a listener after every <code>docker-compose</code> command which may have created, removed, started or stopped
+ * containers, whether or not it succeeded, so anything remembered about the containers can be forgotten.
+ */
+public final class ChangeNotifyingDockerCompose extends DelegatingDockerCompose {
+    private final Runnable onChange;
+
+    public ChangeNotifyingDockerCompose(DockerCompose dockerCompose, Runnable onChange) {
+        super(dockerCompose);
+        this.onChange = onChange;
+    }
+
+    @Override
+    public void up() throws IOException, InterruptedException {
+        try {
+            super.up();
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void up(Container container) throws IOException, InterruptedException {
+        try {
+            super.up(container);
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void down() throws IOException, InterruptedException {
+        try {
+            super.down();
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void stop() throws IOException, InterruptedException {
+        try {
+            super.stop();
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void stop(Container container) throws IOException, InterruptedException {
+        try {
+            super.stop(container);
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void kill() throws IOException, InterruptedException {
+        try {
+            super.kill();
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void kill(Container container) throws IOException, InterruptedException {
+        try {
+            super.kill(container);
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void rm() throws IOException, InterruptedException {
+        try {
+            super.rm();
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void start(Container container) throws IOException, InterruptedException {
+        try {
+            super.start(container);
+        } finally {
+            onChange.run();
+        }
+    }
+
+    @Override
+    public String run(
+            DockerComposeRunOption dockerComposeRunOption,
+            String containerName,
+            DockerComposeRunArgument dockerComposeRunArgument)
+            throws IOException, InterruptedException {
+        try {
+            return super.run(dockerComposeRunOption, containerName, dockerComposeRunArgument);
+        } finally {
+            onChange.run();
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.configuration.DockerComposeFiles;
 import com.palantir.docker.compose.configuration.ProjectName;
+import com.palantir.docker.compose.connection.ClusterSnapshot;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerName;
 import com.palantir.docker.compose.connection.ContainerNames;
@@ -27,11 +28,12 @@ import com.palantir.docker.compose.connection.DockerMachine;
 import com.palantir.docker.compose.connection.Ports;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import org.apache.commons.io.IOUtils;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
 import org.joda.time.Duration;
 import org.slf4j.Logger;
@@ -209,21 +211,37 @@ public final class DefaultDockerCompose implements DockerCompose {
 
     @Override
     public boolean writeLogs(String container, OutputStream output) throws IOException {
+        return writeLogs(DockerComposeLogsOption.noOptions(), container, output);
+    }
+
+    @Override
+    public boolean writeLogs(DockerComposeLogsOption options, String container, OutputStream output)
+            throws IOException {
+        Process executedProcess;
         try {
-            Process executedProcess = logs(container);
-            IOUtils.copy(executedProcess.getInputStream(), output);
-            boolean processFinished = executedProcess.waitFor(LOG_TIMEOUT.getMillis(), TimeUnit.MILLISECONDS);
-            boolean timedOut = !processFinished;
-            if (timedOut) {
+            executedProcess = logs(options, container);
+        } catch (InterruptedException e) {
+            return false;
+        }
+        boolean processFinished = false;
+        try {
+            ProcessOutputTransfer.transfer(executedProcess.getInputStream(), output);
+            processFinished = executedProcess.waitFor(LOG_TIMEOUT.getMillis(), TimeUnit.MILLISECONDS);
+            if (!processFinished) {
                 log.error(
                         "Log collection timed out after {} millis. Destroying log reading process for container {}",
                         LOG_TIMEOUT.getMillis(),
                         container);
-                executedProcess.destroyForcibly();
             }
             return processFinished;
         } catch (InterruptedException e) {
             return false;
+        } finally {
+            // also when copying fails, for example because the output was closed, so nothing is left writing to a
+            // pipe nobody reads
+            if (!processFinished) {
+                executedProcess.destroyForcibly();
+            }
         }
     }
 
@@ -232,6 +250,21 @@ public final class DefaultDockerCompose implements DockerCompose {
         return id(container.getContainerName());
     }
 
+    @Override
+    public List<String> ids() throws IOException, InterruptedException {
+        String ids = command.execute(Command.throwingOnError(), "ps", "-q");
+        return Arrays.stream(ids.split("(\r|\n)+"))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ClusterSnapshot snapshot() throws IOException, InterruptedException {
+        String psOutput = command.execute(Command.throwingOnError(), "ps", "--all", "--format", "json");
+        return ClusterSnapshot.parseFromDockerComposePsJson(psOutput, dockerMachine.getIp());
+    }
+
     private Optional<String> id(String containerName) throws IOException, InterruptedException {
         String id = command.execute(Command.throwingOnError(), "ps", "-q", containerName);
         if (id.isEmpty()) {
@@ -240,10 +273,22 @@ public final class DefaultDockerCompose implements DockerCompose {
         return Optional.of(id);
     }
 
-    private Process logs(String container) throws IOException, InterruptedException {
+    @Override
+    public Process followLogs(String container) throws IOException, InterruptedException {
+        verifyDockerComposeVersionAtLeast(
+                VERSION_1_7_0, "You need at least docker-compose 1.7 to run docker-compose logs");
+        return rawExecutable.execute("logs", "--no-color", "--follow", container);
+    }
+
+    private Process logs(DockerComposeLogsOption options, String container) throws IOException, InterruptedException {
         verifyDockerComposeVersionAtLeast(
                 VERSION_1_7_0, "You need at least docker-compose 1.7 to run docker-compose logs");
-        return rawExecutable.execute("logs", "--no-color", container);
+        List<String> command = new ArrayList<>();
+        command.add("logs");
+        command.add("--no-color");
+        command.addAll(options.options());
+        command.add(container);
+        return rawExecutable.execute(command.toArray(new String[0]));
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package com.palantir.docker.compose.execution;
 
+import com.palantir.docker.compose.connection.ClusterSnapshot;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerName;
 import com.palantir.docker.compose.connection.Ports;
@@ -113,6 +114,16 @@ abstract class DelegatingDockerCompose implements DockerCompose {
         return dockerCompose.id(container);
     }
 
+    @Override
+    public List<String> ids() throws IOException, InterruptedException {
+        return dockerCompose.ids();
+    }
+
+    @Override
+    public ClusterSnapshot snapshot() throws IOException, InterruptedException {
+        return dockerCompose.snapshot();
+    }
+
     @Override
     public String config() throws IOException, InterruptedException {
         return dockerCompose.config();
@@ -128,6 +139,17 @@ abstract class DelegatingDockerCompose implements DockerCompose {
         return dockerCompose.writeLogs(container, output);
     }
 
+    @Override
+    public boolean writeLogs(DockerComposeLogsOption options, String container, OutputStream output)
+            throws IOException {
+        return dockerCompose.writeLogs(options, container, output);
+    }
+
+    @Override
+    public Process followLogs(String container) throws IOException, InterruptedException {
+        return dockerCompose.followLogs(container);
+    }
+
     @Override
     public Ports ports(String service) throws IOException, InterruptedException {
         return dockerCompose.ports(service);
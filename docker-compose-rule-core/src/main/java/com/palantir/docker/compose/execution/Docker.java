@@ -16,33 +16,49 @@
 package com.palantir.docker.compose.execution;
 
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.stream.Collectors.toList;
 
 import com.github.zafarkhaja.semver.Version;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ObjectArrays;
+import com.palantir.docker.compose.connection.ContainerHealth;
 import com.palantir.docker.compose.connection.DockerMachine;
 import com.palantir.docker.compose.connection.State;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public final class Docker {
+@SuppressWarnings("DesignForExtension")
+public class Docker {
 
     private static final Logger log = LoggerFactory.getLogger(Docker.class);
 
     // Without java escape characters: ^(\d+)\.(\d+)\.(\d+)(?:-.*)?$
     private static final Pattern VERSION_PATTERN = Pattern.compile("^Docker version (\\d+)\\.(\\d+)\\.(\\d+)(?:-.*)?$");
-    private static final String HEALTH_STATUS_FORMAT = "--format="
-            + "{{if not .State.Running}}DOWN"
+    private static final String HEALTH_STATUS_TEMPLATE = "{{if not .State.Running}}DOWN"
             + "{{else if .State.Paused}}PAUSED"
             + "{{else if index .State \"Health\"}}"
             + "{{if eq .State.Health.Status \"healthy\"}}HEALTHY"
             + "{{else}}UNHEALTHY{{end}}"
             + "{{else}}HEALTHY{{end}}";
+    private static final String HEALTH_STATUS_FORMAT = "--format=" + HEALTH_STATUS_TEMPLATE;
     private static final String HEALTH_STATUS_FORMAT_WINDOWS = HEALTH_STATUS_FORMAT.replaceAll("\"", "`\"");
+    // One line per container: <id> <compose service> <has healthcheck> <state> <has restart policy> <restart count>
+    private static final String CONTAINER_HEALTH_FORMAT = "--format="
+            + "{{.Id}} "
+            + "{{index .Config.Labels \"com.docker.compose.service\"}} "
+            + "{{if index .State \"Health\"}}true{{else}}false{{end}} "
+            + HEALTH_STATUS_TEMPLATE
+            + " {{with .HostConfig.RestartPolicy.Name}}{{if eq . \"no\"}}false{{else}}true{{end}}{{else}}false{{end}}"
+            + " {{.RestartCount}}";
+    private static final String CONTAINER_HEALTH_FORMAT_WINDOWS = CONTAINER_HEALTH_FORMAT.replaceAll("\"", "`\"");
 
     public static Version version() throws IOException, InterruptedException {
         return new Docker(DockerExecutable.builder()
@@ -61,9 +77,11 @@ public final class Docker {
                 Integer.parseInt(matcher.group(3)));
     }
 
+    private final DockerExecutable rawExecutable;
     private final Command command;
 
     public Docker(DockerExecutable rawExecutable) {
+        this.rawExecutable = rawExecutable;
         this.command = new Command(rawExecutable, log::trace);
     }
 
@@ -73,6 +91,34 @@ public final class Docker {
         return State.valueOf(stateString);
     }
 
+    /**
+     * Returns the native health of all the given containers using a single <code>docker inspect</code>.
+     */
+    public List<ContainerHealth> health(Collection<String> containerIds) throws IOException, InterruptedException {
+        if (containerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String formatString = SystemUtils.IS_OS_WINDOWS ? CONTAINER_HEALTH_FORMAT_WINDOWS : CONTAINER_HEALTH_FORMAT;
+        String output = command.execute(
+                Command.throwingOnError(),
+                ObjectArrays.concat(
+                        new String[] {"inspect", formatString},
+                        containerIds.toArray(new String[containerIds.size()]),
+                        String.class));
+
+        return Splitter.onPattern("(\r|\n)+").omitEmptyStrings().splitToList(output).stream()
+                .map(line -> Splitter.on(' ').splitToList(line.trim()))
+                .map(fields -> ContainerHealth.builder()
+                        .containerId(fields.get(0))
+                        .serviceName(fields.get(1))
+                        .hasHealthcheck(Boolean.parseBoolean(fields.get(2)))
+                        .state(State.valueOf(fields.get(3)))
+                        .hasRestartPolicy(fields.size() > 4 && Boolean.parseBoolean(fields.get(4)))
+                        .restartCount(fields.size() > 5 ? Integer.parseInt(fields.get(5)) : 0)
+                        .build())
+                .collect(toList());
+    }
+
     public void rm(Collection<String> containerNames) throws IOException, InterruptedException {
         rm(containerNames.toArray(new String[containerNames.size()]));
     }
@@ -83,6 +129,24 @@ public final class Docker {
                 ObjectArrays.concat(new String[] {"rm", "-f"}, containerNames, String.class));
     }
 
+    /**
+     * Starts a <code>docker events</code> process which writes one JSON object per line for every container event
+     * matching the given filters, until it is destroyed.
+     */
+    public Process followContainerEvents(String... filters) throws IOException {
+        List<String> args = new ArrayList<>();
+        args.add("events");
+        args.add("--format");
+        args.add("{{json .}}");
+        args.add("--filter");
+        args.add("type=container");
+        for (String filter : filters) {
+            args.add("--filter");
+            args.add(filter);
+        }
+        return rawExecutable.execute(args.toArray(new String[args.size()]));
+    }
+
     public String listNetworks() throws IOException, InterruptedException {
         return command.execute(Command.throwingOnError(), "network", "ls");
     }
@@ -16,11 +16,13 @@
 package com.palantir.docker.compose.execution;
 
 import com.github.zafarkhaja.semver.Version;
+import com.palantir.docker.compose.connection.ClusterSnapshot;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerName;
 import com.palantir.docker.compose.connection.Ports;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,11 +69,47 @@ public interface DockerCompose {
 
     Optional<String> id(Container container) throws IOException, InterruptedException;
 
+    /** The IDs of the containers of every service, looked up one service at a time unless overridden. */
+    default List<String> ids() throws IOException, InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (String service : services()) {
+            id(new Container(service, null, this)).ifPresent(ids::add);
+        }
+        return ids;
+    }
+
+    /**
+     * Takes a snapshot of every container with a single <code>docker-compose ps</code>. Implementations which can not
+     * throw an {@link UnsupportedOperationException}, and containers are then queried one by one instead.
+     */
+    default ClusterSnapshot snapshot() throws IOException, InterruptedException {
+        throw new UnsupportedOperationException(getClass().getName() + " can not take snapshots");
+    }
+
     String config() throws IOException, InterruptedException;
 
     List<String> services() throws IOException, InterruptedException;
 
     boolean writeLogs(String container, OutputStream output) throws IOException;
 
+    /**
+     * Writes the logs of the given container, passing the given options to <code>docker-compose logs</code>.
+     * Implementations which do not support options write all of the container's logs instead.
+     */
+    default boolean writeLogs(DockerComposeLogsOption _options, String container, OutputStream output)
+            throws IOException {
+        return writeLogs(container, output);
+    }
+
+    /**
+     * Starts following the logs of the given container with <code>docker-compose logs --follow</code>, returning the
+     * process whose output is the container's logs from the beginning. The process runs until the container stops or
+     * it is destroyed. Implementations which can not follow logs throw an {@link UnsupportedOperationException}, in
+     * which case log collectors which follow logs collect them in full at shutdown instead.
+     */
+    default Process followLogs(String container) throws IOException, InterruptedException {
+        throw new UnsupportedOperationException(getClass().getName() + " can not follow the logs of " + container);
+    }
+
     Ports ports(String service) throws IOException, InterruptedException;
 }
@@ -0,0 +1,324 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A minimal HTTP/1.1 client for the Docker Engine API which keeps a single connection to the daemon open between
+ * requests. Supports <code>unix://</code> endpoints (on Java 16+, which added unix domain socket channels) and plain
+ * <code>tcp://</code> endpoints.
+ */
+final class DockerEngineApiClient implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(DockerEngineApiClient.class);
+
+    static final String DEFAULT_UNIX_SOCKET = "unix:///var/run/docker.sock";
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+
+    private final Endpoint endpoint;
+    private Connection connection;
+
+    private DockerEngineApiClient(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Returns a client for the given <code>DOCKER_HOST</code> value, or empty if the host uses a scheme this client
+     * cannot talk to.
+     */
+    static Optional<DockerEngineApiClient> forDockerHost(String dockerHost) {
+        String host = Strings.isNullOrEmpty(dockerHost) ? DEFAULT_UNIX_SOCKET : dockerHost;
+        URI uri = URI.create(host);
+        if ("unix".equals(uri.getScheme())) {
+            return Optional.of(new DockerEngineApiClient(Endpoint.unix(uri.getPath())));
+        }
+        if ("tcp".equals(uri.getScheme()) && uri.getPort() != -1) {
+            return Optional.of(new DockerEngineApiClient(Endpoint.tcp(uri.getHost(), uri.getPort())));
+        }
+        log.debug("Docker host '{}' is not supported by the engine API client", host);
+        return Optional.empty();
+    }
+
+    public Response get(String path) throws IOException {
+        return request("GET", path);
+    }
+
+    public Response post(String path) throws IOException {
+        return request("POST", path);
+    }
+
+    public Response delete(String path) throws IOException {
+        return request("DELETE", path);
+    }
+
+    private synchronized Response request(String method, String path) throws IOException {
+        boolean reusedConnection = connection != null;
+        try {
+            return send(method, path);
+        } catch (IOException e) {
+            close();
+            if (!reusedConnection) {
+                throw e;
+            }
+            // the daemon is allowed to close idle keep-alive connections, so retry once on a fresh connection
+            log.debug("Docker engine API connection was closed, reconnecting", e);
+            return send(method, path);
+        }
+    }
+
+    private Response send(String method, String path) throws IOException {
+        if (connection == null) {
+            connection = endpoint.connect();
+        }
+
+        String request = method + " " + path + " HTTP/1.1\r\n"
+                + "Host: docker\r\n"
+                + "User-Agent: docker-compose-rule\r\n"
+                + "Content-Length: 0\r\n"
+                + "\r\n";
+        connection.output.write(request.getBytes(StandardCharsets.US_ASCII));
+        connection.output.flush();
+
+        Response response = readResponse(connection.input);
+        if (!response.keepAlive) {
+            close();
+        }
+        return response;
+    }
+
+    private static Response readResponse(InputStream input) throws IOException {
+        String statusLine = readLine(input);
+        List<String> statusParts = Splitter.on(' ').limit(3).splitToList(statusLine);
+        if (statusParts.size() < 2 || !statusParts.get(0).startsWith("HTTP/")) {
+            throw new IOException("Malformed status line from docker engine API: " + statusLine);
+        }
+        int status = Integer.parseInt(statusParts.get(1));
+        boolean keepAlive = !statusParts.get(0).equals("HTTP/1.0");
+
+        long contentLength = -1;
+        boolean chunked = false;
+        for (String header = readLine(input); !header.isEmpty(); header = readLine(input)) {
+            int colon = header.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = header.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = header.substring(colon + 1).trim();
+            if (name.equals("content-length")) {
+                contentLength = Long.parseLong(value);
+            } else if (name.equals("transfer-encoding")) {
+                chunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+            } else if (name.equals("connection")) {
+                keepAlive = !value.equalsIgnoreCase("close");
+            }
+        }
+
+        byte[] body;
+        if (chunked) {
+            body = readChunkedBody(input);
+        } else if (contentLength >= 0) {
+            body = new byte[Math.toIntExact(contentLength)];
+            ByteStreams.readFully(input, body);
+        } else if (status == 204 || status == 304) {
+            body = new byte[0];
+        } else {
+            body = ByteStreams.toByteArray(input);
+            keepAlive = false;
+        }
+
+        return new Response(status, new String(body, StandardCharsets.UTF_8), keepAlive);
+    }
+
+    private static byte[] readChunkedBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine(input);
+            int extension = sizeLine.indexOf(';');
+            int size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            if (size == 0) {
+                // skip any trailers
+                while (!readLine(input).isEmpty()) {}
+                return body.toByteArray();
+            }
+            byte[] chunk = new byte[size];
+            ByteStreams.readFully(input, chunk);
+            body.write(chunk);
+            readLine(input);
+        }
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int next = input.read();
+            if (next == -1) {
+                throw new IOException("Docker engine API connection closed unexpectedly");
+            }
+            if (next == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            line.append((char) next);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.closeable.close();
+        } catch (IOException e) {
+            log.debug("Error closing docker engine API connection", e);
+        }
+        connection = null;
+    }
+
+    @Override
+    public String toString() {
+        return "DockerEngineApiClient{endpoint=" + endpoint + "}";
+    }
+
+    static final class Response {
+        private final int status;
+        private final String body;
+        private final boolean keepAlive;
+
+        Response(int status, String body, boolean keepAlive) {
+            this.status = status;
+            this.body = body;
+            this.keepAlive = keepAlive;
+        }
+
+        public int status() {
+            return status;
+        }
+
+        public String body() {
+            return body;
+        }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private static final class Connection {
+        private final InputStream input;
+        private final OutputStream output;
+        private final Closeable closeable;
+
+        Connection(InputStream input, OutputStream output, Closeable closeable) {
+            this.input = new BufferedInputStream(input);
+            this.output = output;
+            this.closeable = closeable;
+        }
+    }
+
+    private interface Endpoint {
+        Connection connect() throws IOException;
+
+        static Endpoint tcp(String host, int port) {
+            return new Endpoint() {
+                @Override
+                public Connection connect() throws IOException {
+                    Socket socket = new Socket();
+                    socket.setKeepAlive(true);
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                    socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                    return new Connection(socket.getInputStream(), socket.getOutputStream(), socket);
+                }
+
+                @Override
+                public String toString() {
+                    return "tcp://" + host + ":" + port;
+                }
+            };
+        }
+
+        static Endpoint unix(String path) {
+            return new Endpoint() {
+                @Override
+                public Connection connect() throws IOException {
+                    SocketChannel channel = openUnixDomainChannel(path);
+                    return new Connection(Channels.newInputStream(channel), Channels.newOutputStream(channel), channel);
+                }
+
+                @Override
+                public String toString() {
+                    return "unix://" + path;
+                }
+            };
+        }
+    }
+
+    // Unix domain socket channels were only added in Java 16, and this library still targets Java 8, so they have
+    // to be looked up reflectively. On older JVMs this fails and callers fall back to the docker CLI.
+    private static SocketChannel openUnixDomainChannel(String path) throws IOException {
+        try {
+            ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            SocketAddress address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", String.class)
+                    .invoke(null, path);
+            SocketChannel channel = (SocketChannel)
+                    SocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+            try {
+                channel.connect(address);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return channel;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not open unix domain socket " + path, e.getCause());
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new IOException("Unix domain sockets are not supported by this JVM", e);
+        }
+    }
+}
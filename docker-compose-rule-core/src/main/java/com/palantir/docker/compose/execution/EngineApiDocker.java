@@ -0,0 +1,317 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import static java.util.stream.Collectors.joining;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.palantir.docker.compose.configuration.EnvironmentVariables;
+import com.palantir.docker.compose.connection.ContainerHealth;
+import com.palantir.docker.compose.connection.State;
+import com.palantir.docker.compose.execution.DockerEngineApiClient.Response;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Docker} which talks to the Docker Engine API over a persistent connection rather than forking a
+ * <code>docker</code> process for every call. Any call that cannot reach the daemon falls back to the CLI. Closing it
+ * closes the connection, which is opened again if it is used afterwards.
+ */
+public final class EngineApiDocker extends Docker implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(EngineApiDocker.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Supplier<Optional<DockerEngineApiClient>> connect;
+    // empty if the daemon could not be reached, and null until the first call
+    private volatile Optional<DockerEngineApiClient> client;
+
+    EngineApiDocker(DockerExecutable rawExecutable, DockerEngineApiClient client) {
+        this(rawExecutable, () -> Optional.of(client));
+    }
+
+    private EngineApiDocker(DockerExecutable rawExecutable, Supplier<Optional<DockerEngineApiClient>> connect) {
+        super(rawExecutable);
+        this.connect = connect;
+    }
+
+    /**
+     * Returns a {@link Docker} which connects to the engine API of the daemon that the given executable is configured
+     * to use the first time it is called, using the CLI for every call if it can not.
+     */
+    public static EngineApiDocker connectingOnFirstUse(DockerExecutable dockerExecutable) {
+        return new EngineApiDocker(dockerExecutable, () -> connect(dockerExecutable));
+    }
+
+    /**
+     * Returns a {@link Docker} using the engine API of the daemon that the given executable is configured to use,
+     * or a CLI based {@link Docker} if that daemon can not be reached over a unix socket or plain TCP.
+     */
+    public static Docker connectOrFallBackToCli(DockerExecutable dockerExecutable) {
+        return connect(dockerExecutable)
+                .<Docker>map(client -> new EngineApiDocker(dockerExecutable, client))
+                .orElseGet(() -> new Docker(dockerExecutable));
+    }
+
+    static Docker connectOrFallBackToCli(String dockerHost, DockerExecutable dockerExecutable) {
+        return connect(dockerHost)
+                .<Docker>map(client -> new EngineApiDocker(dockerExecutable, client))
+                .orElseGet(() -> new Docker(dockerExecutable));
+    }
+
+    private static Optional<DockerEngineApiClient> connect(DockerExecutable dockerExecutable) {
+        Map<String, String> environment = dockerExecutable
+                .dockerConfiguration()
+                .configuredDockerComposeProcess()
+                .environment();
+        if (!Strings.isNullOrEmpty(environment.get(EnvironmentVariables.DOCKER_TLS_VERIFY))) {
+            log.debug("Docker engine API client does not support TLS, falling back to the docker CLI");
+            return Optional.empty();
+        }
+        return connect(environment.get(EnvironmentVariables.DOCKER_HOST));
+    }
+
+    private static Optional<DockerEngineApiClient> connect(String dockerHost) {
+        Optional<DockerEngineApiClient> possibleClient = DockerEngineApiClient.forDockerHost(dockerHost);
+        if (!possibleClient.isPresent()) {
+            return Optional.empty();
+        }
+
+        DockerEngineApiClient client = possibleClient.get();
+        try {
+            Response ping = client.get("/_ping");
+            if (ping.isSuccessful()) {
+                log.debug("Using docker engine API at {}", client);
+                return Optional.of(client);
+            }
+            log.debug("Docker engine API ping returned {}, falling back to the docker CLI", ping.status());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not connect to docker engine API, falling back to the docker CLI", e);
+        }
+        client.close();
+        return Optional.empty();
+    }
+
+    private Optional<DockerEngineApiClient> client() {
+        Optional<DockerEngineApiClient> connected = client;
+        if (connected == null) {
+            synchronized (this) {
+                if (client == null) {
+                    client = connect.get();
+                }
+                connected = client;
+            }
+        }
+        return connected;
+    }
+
+    @Override
+    public void close() {
+        Optional<DockerEngineApiClient> connected = client;
+        if (connected != null) {
+            connected.ifPresent(DockerEngineApiClient::close);
+        }
+    }
+
+    @Override
+    public State state(String containerId) throws IOException, InterruptedException {
+        Optional<Response> response = call(client -> client.get("/containers/" + encode(containerId) + "/json"));
+        if (!response.isPresent()) {
+            return super.state(containerId);
+        }
+
+        return stateOf(OBJECT_MAPPER
+                .readTree(successfulBody(response.get(), "inspect", containerId))
+                .path("State"));
+    }
+
+    @Override
+    public List<ContainerHealth> health(Collection<String> containerIds) throws IOException, InterruptedException {
+        List<ContainerHealth> containers = new ArrayList<>();
+        for (String containerId : containerIds) {
+            Optional<Response> response = call(client -> client.get("/containers/" + encode(containerId) + "/json"));
+            if (!response.isPresent()) {
+                return super.health(containerIds);
+            }
+
+            JsonNode container = OBJECT_MAPPER.readTree(successfulBody(response.get(), "inspect", containerId));
+            containers.add(ContainerHealth.builder()
+                    .containerId(container.path("Id").asText(containerId))
+                    .serviceName(container
+                            .path("Config")
+                            .path("Labels")
+                            .path("com.docker.compose.service")
+                            .asText())
+                    .hasHealthcheck(hasHealth(container.path("State")))
+                    .state(stateOf(container.path("State")))
+                    .hasRestartPolicy(hasRestartPolicy(container.path("HostConfig")))
+                    .restartCount(container.path("RestartCount").asInt())
+                    .build());
+        }
+        return containers;
+    }
+
+    private static State stateOf(JsonNode state) {
+        if (!state.path("Running").asBoolean()) {
+            return State.DOWN;
+        }
+        if (state.path("Paused").asBoolean()) {
+            return State.PAUSED;
+        }
+        if (!hasHealth(state)) {
+            return State.HEALTHY;
+        }
+        return state.path("Health").path("Status").asText().equals("healthy") ? State.HEALTHY : State.UNHEALTHY;
+    }
+
+    private static boolean hasRestartPolicy(JsonNode hostConfig) {
+        String restartPolicy = hostConfig.path("RestartPolicy").path("Name").asText();
+        return !restartPolicy.isEmpty() && !restartPolicy.equals("no");
+    }
+
+    private static boolean hasHealth(JsonNode state) {
+        JsonNode health = state.path("Health");
+        return !health.isMissingNode() && !health.isNull();
+    }
+
+    @Override
+    public void rm(String... containerNames) throws IOException, InterruptedException {
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < containerNames.length; i++) {
+            String containerName = containerNames[i];
+            Optional<Response> response =
+                    call(client -> client.delete("/containers/" + encode(containerName) + "?force=true"));
+            if (!response.isPresent()) {
+                super.rm(Arrays.copyOfRange(containerNames, i, containerNames.length));
+                break;
+            }
+            if (!response.get().isSuccessful()) {
+                failures.add(containerName + ": " + response.get().body());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new DockerExecutionException("'docker rm -f " + String.join(" ", containerNames)
+                    + "' failed for some containers:\n" + String.join("\n", failures));
+        }
+    }
+
+    @Override
+    public String listNetworks() throws IOException, InterruptedException {
+        Optional<Response> response = call(client -> client.get("/networks"));
+        if (!response.isPresent()) {
+            return super.listNetworks();
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {"NETWORK ID", "NAME", "DRIVER", "SCOPE"});
+        for (JsonNode network : OBJECT_MAPPER.readTree(successfulBody(response.get(), "network", "ls"))) {
+            String id = network.path("Id").asText();
+            rows.add(new String[] {
+                id.substring(0, Math.min(12, id.length())),
+                network.path("Name").asText(),
+                network.path("Driver").asText(),
+                network.path("Scope").asText()
+            });
+        }
+        return asTable(rows);
+    }
+
+    @Override
+    public String pruneNetworks() throws IOException, InterruptedException {
+        Optional<Response> response = call(client -> client.post("/networks/prune"));
+        if (!response.isPresent()) {
+            return super.pruneNetworks();
+        }
+
+        JsonNode deleted = OBJECT_MAPPER
+                .readTree(successfulBody(response.get(), "network", "prune", "--force"))
+                .path("NetworksDeleted");
+        if (deleted.size() == 0) {
+            return "";
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("Deleted Networks:");
+        deleted.forEach(network -> lines.add(network.asText()));
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    private interface EngineApiCall {
+        Response call(DockerEngineApiClient client) throws IOException;
+    }
+
+    private Optional<Response> call(EngineApiCall apiCall) {
+        Optional<DockerEngineApiClient> connected = client();
+        if (!connected.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(apiCall.call(connected.get()));
+        } catch (IOException e) {
+            log.warn("Docker engine API request failed, falling back to the docker CLI", e);
+            return Optional.empty();
+        }
+    }
+
+    private static String successfulBody(Response response, String... commands) {
+        if (!response.isSuccessful()) {
+            throw new DockerExecutionException("'docker " + String.join(" ", commands) + "' returned status "
+                    + response.status() + " from the docker engine API\nThe output was:\n" + response.body());
+        }
+        return response.body();
+    }
+
+    private static String asTable(List<String[]> rows) {
+        int[] widths = new int[rows.get(0).length];
+        rows.forEach(row -> {
+            for (int i = 0; i < row.length; i++) {
+                widths[i] = Math.max(widths[i], row[i].length());
+            }
+        });
+
+        return rows.stream()
+                .map(row -> {
+                    StringBuilder line = new StringBuilder();
+                    for (int i = 0; i < row.length - 1; i++) {
+                        line.append(Strings.padEnd(row[i], widths[i] + 3, ' '));
+                    }
+                    return line.append(row[row.length - 1]).toString();
+                })
+                .collect(joining(System.lineSeparator()));
+    }
+
+    private static String encode(String pathSegment) {
+        try {
+            return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Copies the output of a process to where it is being collected through a large buffer reused by each thread, so
+ * that copying gigabytes of logs neither allocates as it goes nor makes a system call for every few kilobytes.
+ *
+ * <p>{@link java.nio.channels.FileChannel#transferFrom} is no help here. The output of a process is only available
+ * as a stream, which a channel reads 8KB at a time, and that is slower than reading whole pipe buffers at once.
+ * See <code>ProcessOutputTransferBenchmark</code>.
+ */
+final class ProcessOutputTransfer {
+    static final int BUFFER_SIZE = 256 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private ProcessOutputTransfer() {}
+
+    /** Copies everything from the input to the output, returning how many bytes were copied. */
+    static long transfer(InputStream input, OutputStream output) throws IOException {
+        return IOUtils.copyLarge(input, output, BUFFERS.get());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the timestamped logs of every service into a single <code>cluster-timeline.log</code>, in the order the
+ * lines were logged. The files are already in order, so they are merged by repeatedly taking the earliest of the next
+ * line of each file, which only ever holds one line per service in memory however large the logs are.
+ */
+final class ClusterTimeline {
+    static final String NAME = "cluster-timeline";
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterTimeline.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // docker-compose puts the container name before the timestamp, as in "db-1  | 2026-01-01T12:00:00.000000000Z ..."
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "^(?:[^|]*\\|\\s?)?\\s*(\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2}))\\s");
+
+    private ClusterTimeline() {}
+
+    static void write(File logDirectory, List<String> services, LogFileFormat format) throws IOException {
+        List<ServiceLines> allLines = new ArrayList<>();
+        PriorityQueue<ServiceLines> nextLines = new PriorityQueue<>(
+                Comparator.comparing(ServiceLines::timestamp).thenComparingInt(ServiceLines::index));
+        try {
+            for (String service : services) {
+                ServiceLines lines;
+                try {
+                    lines = new ServiceLines(allLines.size(), format, logDirectory, service);
+                } catch (IOException e) {
+                    log.warn("Could not read the logs of '{}', leaving them out of the cluster timeline", service, e);
+                    continue;
+                }
+                allLines.add(lines);
+                if (lines.advance()) {
+                    nextLines.add(lines);
+                }
+            }
+
+            try (Writer timeline = new BufferedWriter(
+                    new OutputStreamWriter(format.open(logDirectory, NAME), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                while (!nextLines.isEmpty()) {
+                    ServiceLines earliest = nextLines.poll();
+                    timeline.write(earliest.line());
+                    timeline.write('\n');
+                    if (earliest.advance()) {
+                        nextLines.add(earliest);
+                    }
+                }
+            }
+        } finally {
+            for (ServiceLines lines : allLines) {
+                lines.close();
+            }
+        }
+    }
+
+    /** Parses the timestamp docker added to a line, if it has one. */
+    static Instant timestampOf(String line, Instant previous) {
+        Matcher matcher = TIMESTAMP.matcher(line);
+        if (!matcher.find()) {
+            return previous;
+        }
+        try {
+            return OffsetDateTime.parse(matcher.group(1)).toInstant();
+        } catch (DateTimeParseException e) {
+            return previous;
+        }
+    }
+
+    private static final class ServiceLines {
+        private final int index;
+        private final BufferedReader reader;
+        private String line;
+        // lines without a timestamp stay with the line before them
+        private Instant timestamp = Instant.MIN;
+
+        ServiceLines(int index, LogFileFormat format, File logDirectory, String service) throws IOException {
+            this.index = index;
+            this.reader = new BufferedReader(
+                    new InputStreamReader(format.openForReading(logDirectory, service), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+        }
+
+        boolean advance() throws IOException {
+            line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+            timestamp = timestampOf(line, timestamp);
+            return true;
+        }
+
+        int index() {
+            return index;
+        }
+
+        String line() {
+            return line;
+        }
+
+        Instant timestamp() {
+            return timestamp;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.debug("Could not close log file", e);
+            }
+        }
+    }
+}
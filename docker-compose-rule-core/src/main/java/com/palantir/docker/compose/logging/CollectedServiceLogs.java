@@ -0,0 +1,47 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * The outcome of collecting the logs of a single service.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class CollectedServiceLogs {
+
+    public abstract String serviceName();
+
+    public abstract Instant startTime();
+
+    public abstract Instant endTime();
+
+    /** Why the logs could not be collected in full, if they could not. */
+    public abstract Optional<String> failure();
+
+    public Duration duration() {
+        return Duration.between(startTime(), endTime());
+    }
+
+    public static ImmutableCollectedServiceLogs.Builder builder() {
+        return ImmutableCollectedServiceLogs.builder();
+    }
+}
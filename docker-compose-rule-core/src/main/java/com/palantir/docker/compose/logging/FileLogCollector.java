@@ -17,61 +17,273 @@ package com.palantir.docker.compose.logging;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.docker.compose.connection.waiting.Exceptions;
 import com.palantir.docker.compose.execution.DockerCompose;
+import com.palantir.docker.compose.execution.DockerComposeLogsOption;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
+import org.joda.time.Duration;
+import org.joda.time.ReadableDuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public final class FileLogCollector implements LogCollector {
 
     private static final Logger log = LoggerFactory.getLogger(FileLogCollector.class);
+    private static final ReadableDuration DEFAULT_SERVICE_TIMEOUT = Duration.standardMinutes(1);
+    private static final String TESTS_DIRECTORY = "tests";
 
     private final File logDirectory;
+    private final int parallelism;
+    private final ReadableDuration serviceTimeout;
+    private final LogFileFormat format;
+    private final boolean clusterTimeline;
 
     public FileLogCollector(File logDirectory) {
+        this(logDirectory, 1, DEFAULT_SERVICE_TIMEOUT);
+    }
+
+    public FileLogCollector(File logDirectory, int parallelism, ReadableDuration serviceTimeout) {
+        this(logDirectory, parallelism, serviceTimeout, LogFileFormat.plain());
+    }
+
+    /**
+     * Creates a collector which collects the logs of up to {@code parallelism} services at once. A service whose
+     * logs take longer than {@code serviceTimeout} to collect is given up on, leaving whatever was written so far,
+     * without holding up the other services. Logs are written in the given {@code format}.
+     */
+    public FileLogCollector(File logDirectory, int parallelism, ReadableDuration serviceTimeout, LogFileFormat format) {
+        this(logDirectory, parallelism, serviceTimeout, format, false);
+    }
+
+    private FileLogCollector(
+            File logDirectory,
+            int parallelism,
+            ReadableDuration serviceTimeout,
+            LogFileFormat format,
+            boolean clusterTimeline) {
         checkArgument(!logDirectory.isFile(), "Log directory cannot be a file");
+        checkArgument(parallelism > 0, "Parallelism must be positive, but was %s", parallelism);
+        checkArgument(serviceTimeout.getMillis() > 0, "Service timeout must be positive, but was %s", serviceTimeout);
         if (!logDirectory.exists()) {
             Validate.isTrue(logDirectory.mkdirs(), "Error making log directory: " + logDirectory.getAbsolutePath());
         }
         this.logDirectory = logDirectory;
+        this.parallelism = parallelism;
+        this.serviceTimeout = serviceTimeout;
+        this.format = format;
+        this.clusterTimeline = clusterTimeline;
+    }
+
+    /**
+     * Returns a collector which also collects docker's timestamps for every line, and once all the logs have been
+     * collected merges them into a single <code>cluster-timeline.log</code> in the order the lines were logged.
+     */
+    public FileLogCollector withClusterTimeline() {
+        return new FileLogCollector(logDirectory, parallelism, serviceTimeout, format, true);
     }
 
     public static LogCollector fromPath(String path) {
         return new FileLogCollector(new File(path));
     }
 
+    public static LogCollector fromPath(String path, int parallelism) {
+        return new FileLogCollector(new File(path), parallelism, DEFAULT_SERVICE_TIMEOUT);
+    }
+
+    public static LogCollector fromPath(String path, LogFileFormat format) {
+        return new FileLogCollector(new File(path), 1, DEFAULT_SERVICE_TIMEOUT, format);
+    }
+
     @Override
     public void collectLogs(DockerCompose dockerCompose) throws IOException, InterruptedException {
+        collectServiceLogs(dockerCompose);
+    }
+
+    @Override
+    public List<CollectedServiceLogs> collectServiceLogs(DockerCompose dockerCompose)
+            throws IOException, InterruptedException {
+        List<String> services = dockerCompose.services();
+        ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("dcr-log-collector-%d")
+                .setDaemon(true)
+                .build());
+        CompletionService<ServiceLogs> completions = new ExecutorCompletionService<>(executor);
+        Deque<String> waiting = new ArrayDeque<>(services);
+        Map<Future<ServiceLogs>, ServiceLogs> running = new LinkedHashMap<>();
+        Map<String, CollectedServiceLogs> collected = new LinkedHashMap<>();
+
+        try {
+            while (!waiting.isEmpty() || !running.isEmpty()) {
+                while (running.size() < parallelism && !waiting.isEmpty()) {
+                    ServiceLogs serviceLogs = new ServiceLogs(waiting.poll(), dockerCompose);
+                    running.put(completions.submit(serviceLogs, serviceLogs), serviceLogs);
+                }
+
+                long nanosUntilNextDeadline = running.values().stream()
+                        .mapToLong(ServiceLogs::nanosUntilDeadline)
+                        .min()
+                        .getAsLong();
+                Future<ServiceLogs> finished =
+                        completions.poll(Math.max(0, nanosUntilNextDeadline), TimeUnit.NANOSECONDS);
+                // A service which was given up on can still finish later on, in which case it is ignored
+                if (finished != null && running.remove(finished) != null) {
+                    ServiceLogs serviceLogs = resultOf(finished);
+                    collected.put(serviceLogs.service, serviceLogs.collected());
+                }
+
+                running.entrySet().removeIf(entry -> {
+                    ServiceLogs serviceLogs = entry.getValue();
+                    if (serviceLogs.nanosUntilDeadline() > 0) {
+                        return false;
+                    }
+                    serviceLogs.abandon();
+                    entry.getKey().cancel(true);
+                    collected.put(serviceLogs.service, serviceLogs.collected());
+                    return true;
+                });
+            }
+        } finally {
+            running.values().forEach(ServiceLogs::abandon);
+            executor.shutdownNow();
+        }
+
+        if (clusterTimeline) {
+            writeClusterTimeline(services);
+        }
+        return services.stream().map(collected::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Saves the logs each service wrote while the test ran to <code>tests/&lt;test name&gt;/&lt;service&gt;.log</code>,
+     * fetching only that stretch of the logs with <code>docker-compose logs --since --until</code>.
+     */
+    @Override
+    public void collectTestLogs(DockerCompose dockerCompose, TestLogSlice slice)
+            throws IOException, InterruptedException {
+        File testDirectory = new File(new File(logDirectory, TESTS_DIRECTORY), slice.testName());
+        Validate.isTrue(
+                testDirectory.isDirectory() || testDirectory.mkdirs(),
+                "Error making log directory: " + testDirectory.getAbsolutePath());
+        DockerComposeLogsOption options = DockerComposeLogsOption.options(
+                "--since", slice.since().toString(), "--until", slice.until().toString());
+
         for (String service : dockerCompose.services()) {
-            try {
-                collectLogs(service, dockerCompose);
-            } catch (RuntimeException e) {
-                log.error("Failed to collect logs for '{}'", service);
+            try (OutputStream outputStream = format.open(testDirectory, service)) {
+                if (!dockerCompose.writeLogs(options, service, outputStream)) {
+                    log.error("Timed out while collecting logs of '{}' for {}", service, slice.testName());
+                }
             }
         }
+        log.info("Saved the logs of {} to '{}'", slice.testName(), testDirectory.getAbsolutePath());
+    }
+
+    private void writeClusterTimeline(List<String> services) {
+        try {
+            ClusterTimeline.write(logDirectory, services, format);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write the cluster timeline", e);
+        }
     }
 
-    private void collectLogs(String container, DockerCompose dockerCompose) {
-        File outputFile = new File(logDirectory, container + ".log");
+    private static ServiceLogs resultOf(Future<ServiceLogs> finished) {
         try {
-            Files.createFile(outputFile.toPath());
-        } catch (final FileAlreadyExistsException e) {
-            // ignore
-        } catch (final IOException e) {
-            throw new RuntimeException("Error creating log file", e);
+            return finished.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Log collection tasks handle their own failures", e);
+        }
+    }
+
+    private final class ServiceLogs implements Runnable {
+        private final String service;
+        private final DockerCompose dockerCompose;
+        private final Instant startTime = Instant.now();
+        private final long deadlineNanos =
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(serviceTimeout.getMillis());
+
+        private volatile OutputStream output;
+        private volatile boolean abandoned = false;
+        private volatile Optional<String> failure = Optional.empty();
+        private volatile Instant endTime;
+
+        ServiceLogs(String service, DockerCompose dockerCompose) {
+            this.service = service;
+            this.dockerCompose = dockerCompose;
         }
-        log.info("Writing logs for container '{}' to '{}'", container, outputFile.getAbsolutePath());
-        try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
-            if (!dockerCompose.writeLogs(container, outputStream)) {
-                log.error("Timed out while collecting logs for '{}'", container);
+
+        @Override
+        public void run() {
+            File outputFile = format.file(logDirectory, service, 0);
+            log.info("Writing logs for container '{}' to '{}'", service, outputFile.getAbsolutePath());
+            try (OutputStream outputStream = format.open(logDirectory, service)) {
+                output = outputStream;
+                if (!writeLogs(outputStream)) {
+                    log.error("Timed out while collecting logs for '{}'", service);
+                    failure = Optional.of("Timed out while collecting logs for '" + service + "'");
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!abandoned) {
+                    log.error("Failed to collect logs for '{}'", service, e);
+                    failure = Optional.of(Exceptions.condensedStacktraceFor(e));
+                }
+            } finally {
+                endTime = Instant.now();
+            }
+        }
+
+        private boolean writeLogs(OutputStream outputStream) throws IOException {
+            if (clusterTimeline) {
+                return dockerCompose.writeLogs(DockerComposeLogsOption.options("--timestamps"), service, outputStream);
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Error reading log", e);
+            return dockerCompose.writeLogs(service, outputStream);
+        }
+
+        long nanosUntilDeadline() {
+            return deadlineNanos - System.nanoTime();
+        }
+
+        /** Stops waiting for the logs, closing the log file so that anything still copying into it fails. */
+        void abandon() {
+            abandoned = true;
+            failure = Optional.of(
+                    "Gave up collecting logs for '" + service + "' after " + serviceTimeout.getMillis() + "ms");
+            endTime = Instant.now();
+            log.error("Gave up collecting logs for '{}' after {}ms", service, serviceTimeout.getMillis());
+            OutputStream stream = output;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.debug("Could not close log file for '{}'", service, e);
+                }
+            }
+        }
+
+        CollectedServiceLogs collected() {
+            return CollectedServiceLogs.builder()
+                    .serviceName(service)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .failure(failure)
+                    .build();
         }
     }
 }
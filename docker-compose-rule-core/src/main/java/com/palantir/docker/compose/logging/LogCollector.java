@@ -15,10 +15,47 @@
  */
 package com.palantir.docker.compose.logging;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.execution.DockerCompose;
 import java.io.IOException;
+import java.util.List;
 
 public interface LogCollector {
 
+    /**
+     * Called once the cluster has been brought up, before any cluster waits, for collectors which collect logs as
+     * they are produced rather than only at shutdown.
+     */
+    default void startCollecting(DockerCompose _dockerCompose) throws IOException, InterruptedException {}
+
     void collectLogs(DockerCompose dockerCompose) throws IOException, InterruptedException;
+
+    /**
+     * Called when a test run against a cluster shared between several tests fails, while the cluster is still up,
+     * for collectors which can save just the logs that test produced.
+     */
+    default void collectTestLogs(DockerCompose _dockerCompose, TestLogSlice _slice)
+            throws IOException, InterruptedException {}
+
+    /**
+     * Called when a service is started again through its {@link com.palantir.docker.compose.connection.Container}
+     * while the cluster is up, for collectors which follow logs that stop being followed when a container stops.
+     */
+    default void serviceStarted(String _service) {}
+
+    /**
+     * Called at shutdown instead of collecting logs when they are not wanted, for collectors which need to stop
+     * whatever {@link #startCollecting(DockerCompose)} started.
+     */
+    default void stopCollecting() {}
+
+    /**
+     * Collects logs in the same way as {@link #collectLogs(DockerCompose)}, returning how collecting each service's
+     * logs went. Collectors which do not collect logs service by service return nothing.
+     */
+    default List<CollectedServiceLogs> collectServiceLogs(DockerCompose dockerCompose)
+            throws IOException, InterruptedException {
+        collectLogs(dockerCompose);
+        return ImmutableList.of();
+    }
 }
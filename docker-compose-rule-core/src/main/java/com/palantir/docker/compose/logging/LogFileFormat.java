@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.immutables.value.Value;
+
+/**
+ * How the logs of each service are written to disk, optionally gzipped and capped in size.
+ *
+ * <p>Logs are written to <code>&lt;service&gt;.log</code>, or <code>&lt;service&gt;.log.gz</code> if
+ * {@link #compressed()}. Once {@link #maxHeadBytes()} have been written there, the rest of the logs go to numbered
+ * segments of {@link #segmentBytes()} each, <code>&lt;service&gt;.1.log</code>, <code>&lt;service&gt;.2.log</code>
+ * and so on, and the oldest segments are deleted so that no more than {@link #maxTailBytes()} are kept. This keeps
+ * the start and end of a chatty service's logs, noting in the first file how much was left out in between. All sizes
+ * are of the uncompressed logs.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class LogFileFormat {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value.Default
+    public boolean compressed() {
+        return false;
+    }
+
+    @Value.Default
+    public long maxHeadBytes() {
+        return Long.MAX_VALUE;
+    }
+
+    @Value.Default
+    public long maxTailBytes() {
+        return 0;
+    }
+
+    @Value.Default
+    public long segmentBytes() {
+        return Math.max(1, maxTailBytes() / 4);
+    }
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkArgument(maxHeadBytes() >= 0, "maxHeadBytes must not be negative");
+        Preconditions.checkArgument(maxTailBytes() >= 0, "maxTailBytes must not be negative");
+        Preconditions.checkArgument(segmentBytes() > 0, "segmentBytes must be positive");
+    }
+
+    /** Plain text logs, kept in full. */
+    public static LogFileFormat plain() {
+        return builder().build();
+    }
+
+    /** Gzipped logs, kept in full. */
+    public static LogFileFormat gzipped() {
+        return builder().compressed(true).build();
+    }
+
+    /** Gzipped logs, keeping the first {@code headBytes} and last {@code tailBytes} of each service's logs. */
+    public static LogFileFormat gzippedHeadAndTail(long headBytes, long tailBytes) {
+        return builder()
+                .compressed(true)
+                .maxHeadBytes(headBytes)
+                .maxTailBytes(tailBytes)
+                .build();
+    }
+
+    public static ImmutableLogFileFormat.Builder builder() {
+        return ImmutableLogFileFormat.builder();
+    }
+
+    /**
+     * Opens a stream which writes the logs of the service into the directory in this format, first deleting any
+     * segments left in the directory by an earlier run so that they are not read back as part of these logs.
+     */
+    public OutputStream open(File logDirectory, String service) throws IOException {
+        for (int segment : segments(logDirectory, service)) {
+            File staleSegment = file(logDirectory, service, segment);
+            if (!staleSegment.delete() && staleSegment.exists()) {
+                throw new IOException("Could not delete log segment left by an earlier run: " + staleSegment);
+            }
+        }
+        if (!compressed() && maxHeadBytes() == Long.MAX_VALUE) {
+            return new FileOutputStream(file(logDirectory, service, 0));
+        }
+        return new RetainingLogOutputStream(this, logDirectory, service);
+    }
+
+    /** The file of the service's logs, where segment 0 is the first file, holding the head of the logs. */
+    File file(File logDirectory, String service, int segment) {
+        String name = segment == 0 ? service : service + "." + segment;
+        return new File(logDirectory, name + (compressed() ? ".log.gz" : ".log"));
+    }
+
+    /** Reads back the logs of the service written in this format, from the first file through every segment. */
+    InputStream openForReading(File logDirectory, String service) throws IOException {
+        List<InputStream> inputs = new ArrayList<>();
+        try {
+            inputs.add(openFileForReading(file(logDirectory, service, 0)));
+            for (int segment : segments(logDirectory, service)) {
+                inputs.add(openFileForReading(file(logDirectory, service, segment)));
+            }
+        } catch (IOException e) {
+            for (InputStream input : inputs) {
+                input.close();
+            }
+            throw e;
+        }
+        return new SequenceInputStream(Collections.enumeration(inputs));
+    }
+
+    /** The numbers of the segments of the service's logs in the directory, in order. */
+    private List<Integer> segments(File logDirectory, String service) {
+        Pattern segmentName = Pattern.compile(
+                Pattern.quote(service) + "\\.(\\d+)" + Pattern.quote(compressed() ? ".log.gz" : ".log"));
+        File[] files = logDirectory.listFiles();
+        if (files == null) {
+            return ImmutableList.of();
+        }
+        return Arrays.stream(files)
+                .map(file -> segmentName.matcher(file.getName()))
+                .filter(Matcher::matches)
+                .map(matcher -> Integer.parseInt(matcher.group(1)))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private InputStream openFileForReading(File file) throws IOException {
+        InputStream input = new FileInputStream(file);
+        if (compressed()) {
+            return new GZIPInputStream(input, BUFFER_SIZE);
+        }
+        return new BufferedInputStream(input, BUFFER_SIZE);
+    }
+
+    OutputStream openFile(File file) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        if (compressed()) {
+            return new GZIPOutputStream(output, BUFFER_SIZE, true);
+        }
+        return new BufferedOutputStream(output, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes logs in a {@link LogFileFormat}, keeping the head of the logs in the first file and rotating the rest
+ * through segments. Limits are applied at the end of the line which crosses them, where that line ends within the
+ * same write, so that lines are only split when they arrive in pieces.
+ */
+final class RetainingLogOutputStream extends OutputStream {
+    private static final Logger log = LoggerFactory.getLogger(RetainingLogOutputStream.class);
+
+    private final LogFileFormat format;
+    private final File logDirectory;
+    private final String service;
+    private final OutputStream head;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final long maxSegments;
+
+    private long headBytes = 0;
+    private int lastSegment = 0;
+    private long omittedBytes = 0;
+    private boolean closed = false;
+
+    RetainingLogOutputStream(LogFileFormat format, File logDirectory, String service) throws IOException {
+        this.format = format;
+        this.logDirectory = logDirectory;
+        this.service = service;
+        this.head = format.openFile(format.file(logDirectory, service, 0));
+        this.maxSegments = (format.maxTailBytes() + format.segmentBytes() - 1) / format.segmentBytes();
+    }
+
+    @Override
+    public void write(int oneByte) throws IOException {
+        write(new byte[] {(byte) oneByte}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        int start = offset;
+        int end = offset + length;
+        while (start < end) {
+            if (headBytes < format.maxHeadBytes()) {
+                int chunk = chunk(bytes, start, end, format.maxHeadBytes() - headBytes);
+                head.write(bytes, start, chunk);
+                headBytes += chunk;
+                start += chunk;
+            } else if (maxSegments == 0) {
+                omittedBytes += end - start;
+                return;
+            } else {
+                Segment segment = currentSegment();
+                int chunk = chunk(bytes, start, end, format.segmentBytes() - segment.bytes);
+                segment.output.write(bytes, start, chunk);
+                segment.bytes += chunk;
+                start += chunk;
+            }
+        }
+    }
+
+    /** How many bytes to write before switching files, given how many more fit in the current one. */
+    private static int chunk(byte[] bytes, int start, int end, long remaining) {
+        if (end - start <= remaining) {
+            return end - start;
+        }
+        for (int i = start + (int) remaining - 1; i < end; i++) {
+            if (bytes[i] == '\n') {
+                return i - start + 1;
+            }
+        }
+        return (int) remaining;
+    }
+
+    private Segment currentSegment() throws IOException {
+        Segment current = segments.peekLast();
+        if (current != null && current.bytes < format.segmentBytes()) {
+            return current;
+        }
+        if (current != null) {
+            current.output.close();
+        }
+
+        lastSegment++;
+        Segment next = new Segment(format.file(logDirectory, service, lastSegment));
+        segments.addLast(next);
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.removeFirst();
+            omittedBytes += oldest.bytes;
+            if (!oldest.file.delete()) {
+                log.warn("Could not delete old log segment {}", oldest.file);
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        head.flush();
+        Segment current = segments.peekLast();
+        if (current != null) {
+            current.output.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            Optional<String> note = note();
+            if (note.isPresent()) {
+                head.write(note.get().getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            Segment current = segments.peekLast();
+            try {
+                if (current != null) {
+                    current.output.close();
+                }
+            } finally {
+                head.close();
+            }
+        }
+    }
+
+    private Optional<String> note() {
+        if (!segments.isEmpty()) {
+            String omitted = omittedBytes > 0 ? omittedBytes + " bytes of logs omitted, " : "";
+            return Optional.of(String.format(
+                    "%n[docker-compose-rule] %sthe logs continue in %s%n",
+                    omitted, segments.getFirst().file.getName()));
+        }
+        if (omittedBytes > 0) {
+            return Optional.of(String.format("%n[docker-compose-rule] %d more bytes of logs omitted%n", omittedBytes));
+        }
+        return Optional.empty();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Log output for '" + service + "' has been closed");
+        }
+    }
+
+    private final class Segment {
+        private final File file;
+        private final OutputStream output;
+        private long bytes = 0;
+
+        Segment(File file) throws IOException {
+            this.file = file;
+            this.output = format.openFile(file);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.palantir.docker.compose.connection.waiting.Exceptions;
+import com.palantir.docker.compose.execution.DockerCompose;
+import com.palantir.docker.compose.execution.DockerComposeLogsOption;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.Validate;
+import org.joda.time.Duration;
+import org.joda.time.ReadableDuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link LogCollector} which follows the logs of every service from the moment the cluster is up, writing them to
+ * <code>&lt;service&gt;.log</code> files as they are produced. Collecting the logs at shutdown then only has to wait
+ * for the last few lines to arrive, and whatever was logged before the JVM was killed is already on disk.
+ *
+ * <p>Services which were not being followed, or whose <code>docker-compose logs --follow</code> failed, have their
+ * logs collected in full at shutdown instead. <code>docker-compose logs --follow</code> ends when its container stops,
+ * so if a service was started again through its {@link com.palantir.docker.compose.connection.Container} after that,
+ * whatever it logged since following ended is fetched at shutdown and appended. Services which were just stopped at
+ * shutdown are not fetched again.
+ */
+public final class StreamingLogCollector implements LogCollector {
+    private static final Logger log = LoggerFactory.getLogger(StreamingLogCollector.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ReadableDuration DEFAULT_QUIET_PERIOD = Duration.millis(250);
+    private static final ReadableDuration DEFAULT_SHUTDOWN_TIMEOUT = Duration.standardSeconds(10);
+
+    private final File logDirectory;
+    private final ReadableDuration quietPeriod;
+    private final ReadableDuration shutdownTimeout;
+    private final LogFileFormat format;
+
+    private final Set<String> servicesStartedAgain = ConcurrentHashMap.newKeySet();
+
+    // guarded by this
+    private final Map<String, ServiceLogStream> streams = new LinkedHashMap<>();
+
+    public StreamingLogCollector(File logDirectory) {
+        this(logDirectory, DEFAULT_QUIET_PERIOD, DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * Creates a collector which, at shutdown, stops following a service once nothing new has been logged for
+     * {@code quietPeriod}, or once {@code shutdownTimeout} has passed since shutdown began.
+     */
+    public StreamingLogCollector(File logDirectory, ReadableDuration quietPeriod, ReadableDuration shutdownTimeout) {
+        this(logDirectory, quietPeriod, shutdownTimeout, LogFileFormat.plain());
+    }
+
+    public StreamingLogCollector(
+            File logDirectory, ReadableDuration quietPeriod, ReadableDuration shutdownTimeout, LogFileFormat format) {
+        checkArgument(!logDirectory.isFile(), "Log directory cannot be a file");
+        if (!logDirectory.exists()) {
+            Validate.isTrue(logDirectory.mkdirs(), "Error making log directory: " + logDirectory.getAbsolutePath());
+        }
+        this.logDirectory = logDirectory;
+        this.quietPeriod = quietPeriod;
+        this.shutdownTimeout = shutdownTimeout;
+        this.format = format;
+    }
+
+    public static LogCollector fromPath(String path) {
+        return new StreamingLogCollector(new File(path));
+    }
+
+    public static LogCollector fromPath(String path, LogFileFormat format) {
+        return new StreamingLogCollector(new File(path), DEFAULT_QUIET_PERIOD, DEFAULT_SHUTDOWN_TIMEOUT, format);
+    }
+
+    @Override
+    public synchronized void startCollecting(DockerCompose dockerCompose) throws IOException, InterruptedException {
+        for (String service : dockerCompose.services()) {
+            if (streams.containsKey(service)) {
+                continue;
+            }
+            log.info(
+                    "Streaming logs for container '{}' to '{}'",
+                    service,
+                    format.file(logDirectory, service, 0).getAbsolutePath());
+            OutputStream output = format.open(logDirectory, service);
+            try {
+                streams.put(service, new ServiceLogStream(service, dockerCompose.followLogs(service), output));
+            } catch (IOException | RuntimeException e) {
+                output.close();
+                log.warn("Could not follow the logs of '{}', they will be collected at shutdown instead", service, e);
+            }
+        }
+    }
+
+    @Override
+    public void collectLogs(DockerCompose dockerCompose) throws IOException, InterruptedException {
+        collectServiceLogs(dockerCompose);
+    }
+
+    @Override
+    public synchronized List<CollectedServiceLogs> collectServiceLogs(DockerCompose dockerCompose)
+            throws IOException, InterruptedException {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout.getMillis());
+        List<CollectedServiceLogs> collected = new ArrayList<>();
+        try {
+            for (String service : dockerCompose.services()) {
+                Instant startTime = Instant.now();
+                ServiceLogStream stream = streams.remove(service);
+                Optional<String> failure;
+                if (stream == null) {
+                    failure = collectInFull(service, dockerCompose);
+                } else {
+                    Optional<DockerCompose> catchUpWith =
+                            servicesStartedAgain.remove(service) ? Optional.of(dockerCompose) : Optional.empty();
+                    failure = stream.finish(deadlineNanos, catchUpWith);
+                    if (failure.isPresent()) {
+                        log.warn(
+                                "Streaming the logs of '{}' failed, collecting them in full: {}",
+                                service,
+                                failure.get());
+                        failure = collectInFull(service, dockerCompose);
+                    }
+                }
+                collected.add(CollectedServiceLogs.builder()
+                        .serviceName(service)
+                        .startTime(startTime)
+                        .endTime(Instant.now())
+                        .failure(failure)
+                        .build());
+            }
+        } finally {
+            for (ServiceLogStream stream : streams.values()) {
+                stream.finish(System.nanoTime(), Optional.empty());
+            }
+            streams.clear();
+            servicesStartedAgain.clear();
+        }
+        return collected;
+    }
+
+    /**
+     * Remembers that the service was started again, so that if following its logs has ended because its container
+     * stopped, whatever it logged since is fetched at shutdown.
+     */
+    @Override
+    public void serviceStarted(String service) {
+        servicesStartedAgain.add(service);
+    }
+
+    /** Stops following the logs, keeping whatever has already been written. */
+    @Override
+    public synchronized void stopCollecting() {
+        try {
+            for (ServiceLogStream stream : streams.values()) {
+                stream.finish(System.nanoTime(), Optional.empty());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            streams.clear();
+            servicesStartedAgain.clear();
+        }
+    }
+
+    private Optional<String> collectInFull(String service, DockerCompose dockerCompose) {
+        try (OutputStream output = format.open(logDirectory, service)) {
+            if (!dockerCompose.writeLogs(service, output)) {
+                log.error("Timed out while collecting logs for '{}'", service);
+                return Optional.of("Timed out while collecting logs for '" + service + "'");
+            }
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to collect logs for '{}'", service, e);
+            return Optional.of(Exceptions.condensedStacktraceFor(e));
+        }
+    }
+
+    private final class ServiceLogStream {
+        private final String service;
+        private final Process process;
+        private final OutputStream output;
+        private final WritableByteChannel channel;
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private volatile long lastReadNanos = System.nanoTime();
+        private volatile IOException error;
+        private volatile Instant endTime;
+
+        ServiceLogStream(String service, Process process, OutputStream output) {
+            this.service = service;
+            this.process = process;
+            this.output = output;
+            this.channel = Channels.newChannel(output);
+            Thread copier = new Thread(this::copy, "dcr-log-streamer-" + service);
+            copier.setDaemon(true);
+            copier.start();
+        }
+
+        /**
+         * Copies the logs into the file, batching up writes while lines are arriving quickly but writing as soon as
+         * the process has nothing more to give, so that the file never lags far behind the container.
+         */
+        private void copy() {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            InputStream logs = process.getInputStream();
+            try (ReadableByteChannel input = Channels.newChannel(logs)) {
+                while (input.read(buffer) >= 0) {
+                    lastReadNanos = System.nanoTime();
+                    boolean idle = logs.available() == 0;
+                    if (idle || buffer.position() >= BUFFER_SIZE / 2) {
+                        write(buffer);
+                    }
+                    if (idle) {
+                        output.flush();
+                    }
+                }
+                write(buffer);
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                endTime = Instant.now();
+                finished.countDown();
+            }
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Waits for the logs to finish, or to go quiet, then closes the log file. If following the logs ended by
+         * itself, because the container stopped, appends whatever has been logged since using {@code catchUpWith}, if
+         * given because the service was started again. Returns why the logs might be incomplete, if they might be.
+         */
+        Optional<String> finish(long deadlineNanos, Optional<DockerCompose> catchUpWith) throws InterruptedException {
+            long quietNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriod.getMillis());
+            while (finished.getCount() > 0) {
+                long now = System.nanoTime();
+                long untilQuiet = lastReadNanos + quietNanos - now;
+                long untilDeadline = deadlineNanos - now;
+                if (untilQuiet <= 0 || untilDeadline <= 0) {
+                    break;
+                }
+                finished.await(Math.min(untilQuiet, untilDeadline), TimeUnit.NANOSECONDS);
+            }
+
+            boolean endedByItself = finished.getCount() == 0;
+            if (!endedByItself) {
+                process.destroy();
+            }
+            boolean copied = finished.await(1, TimeUnit.SECONDS);
+            try {
+                if (!copied) {
+                    return Optional.of("Timed out waiting for the logs of '" + service + "' to be written");
+                }
+                if (error != null) {
+                    return Optional.of(Exceptions.condensedStacktraceFor(error));
+                }
+                if (endedByItself && process.waitFor(1, TimeUnit.SECONDS) && process.exitValue() != 0) {
+                    return Optional.of("docker-compose logs --follow exited with code " + process.exitValue());
+                }
+                if (endedByItself && catchUpWith.isPresent() && !catchUp(catchUpWith.get())) {
+                    return Optional.of("Timed out fetching the logs of '" + service + "' since " + endTime);
+                }
+                output.close();
+                return Optional.empty();
+            } catch (IOException e) {
+                return Optional.of(Exceptions.condensedStacktraceFor(e));
+            } finally {
+                closeQuietly();
+            }
+        }
+
+        // The lines logged after following ended, for example by the container once it was started again
+        private boolean catchUp(DockerCompose dockerCompose) throws IOException {
+            return dockerCompose.writeLogs(
+                    DockerComposeLogsOption.options("--since", endTime.toString()), service, output);
+        }
+
+        private void closeQuietly() {
+            try {
+                output.close();
+            } catch (IOException e) {
+                log.debug("Could not close the log file of '{}'", service, e);
+            }
+        }
+    }
+}
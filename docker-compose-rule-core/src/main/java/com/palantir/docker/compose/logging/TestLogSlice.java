@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import com.google.common.base.Preconditions;
+import com.palantir.docker.compose.report.TestDescription;
+import java.time.Instant;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * The stretch of time a single test ran for against a cluster shared between several tests, used to save just the
+ * logs that test produced.
+ */
+@Value.Immutable
+@SuppressWarnings("DesignForExtension")
+public abstract class TestLogSlice {
+
+    /** A name for the test which is safe to use as a file name, such as <code>MyTest.does_something</code>. */
+    public abstract String testName();
+
+    public abstract Instant since();
+
+    public abstract Instant until();
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkArgument(!until().isBefore(since()), "until must not be before since");
+    }
+
+    public static TestLogSlice of(TestDescription test, Instant since, Instant until) {
+        return builder().testName(nameOf(test)).since(since).until(until).build();
+    }
+
+    public static ImmutableTestLogSlice.Builder builder() {
+        return ImmutableTestLogSlice.builder();
+    }
+
+    private static String nameOf(TestDescription test) {
+        Optional<String> testClass = test.getTestClass().map(name -> name.substring(name.lastIndexOf('.') + 1));
+        String name;
+        if (testClass.isPresent() && test.getMethod().isPresent()) {
+            name = testClass.get() + "." + test.getMethod().get();
+        } else {
+            name = test.getDisplayName().orElseGet(() -> testClass.orElse("unknown-test"));
+        }
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
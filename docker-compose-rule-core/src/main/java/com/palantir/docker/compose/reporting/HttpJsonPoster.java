@@ -17,63 +17,159 @@
 package com.palantir.docker.compose.reporting;
 
 import com.google.common.io.CharStreams;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.net.HttpRetryException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 class HttpJsonPoster {
     private static final Logger log = LoggerFactory.getLogger(HttpJsonPoster.class);
 
-    private final ReportingConfig reportingConfig;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MILLIS = 250;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+    private static final int READ_TIMEOUT_MILLIS = 10_000;
 
-    HttpJsonPoster(ReportingConfig reportingConfig) {
-        this.reportingConfig = reportingConfig;
+    private final String url;
+    private final boolean gzip;
+
+    HttpJsonPoster(String url) {
+        this(url, true);
+    }
+
+    HttpJsonPoster(String url, boolean gzip) {
+        this.url = url;
+        this.gzip = gzip;
+    }
+
+    interface Body {
+        void writeTo(OutputStream output) throws IOException;
     }
 
     public void post(String json) {
-        try {
-            URL url = new URL(reportingConfig.url());
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        post(output -> {
+            PrintWriter body =
+                    new PrintWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+            body.println(json);
+            body.flush();
+        });
+    }
 
-            connection.setConnectTimeout(1_000);
-            connection.setReadTimeout(10_000);
+    public void post(Body json) {
+        post(json, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIMEOUT_MILLIS));
+    }
 
-            connection.setRequestMethod("POST");
-            connection.setInstanceFollowRedirects(true);
-            connection.setRequestProperty("Content-Type", "application/json");
+    /**
+     * Posts the JSON written by the body, gzipped unless turned off, streaming it to the server rather than buffering
+     * it all in memory. Connection failures, 5xx and 429 responses are retried with exponential backoff, but no
+     * attempt is started or waited on past the deadline, so that a slow or absent server can not hold up the JVM
+     * exiting. A streamed body can not be sent again to follow a redirect, so redirects are not retried either.
+     *
+     * @return whether the server accepted the JSON
+     */
+    public boolean post(Body json, long deadlineNanos) {
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remainingMillis <= 0) {
+                log.error("Gave up posting report after {} attempts as the deadline passed", attempt - 1);
+                return false;
+            }
 
-            String version = Optional.ofNullable(this.getClass().getPackage().getImplementationVersion())
-                    .orElse("0.0.0");
-            connection.setRequestProperty("User-Agent", "docker-compose-rule/" + version);
+            try {
+                int status = postOnce(json, remainingMillis);
+                if (status < 300) {
+                    return true;
+                }
+                if (status < 500 && status != 429) {
+                    return false;
+                }
+            } catch (HttpRetryException e) {
+                log.error(
+                        "Could not post report as the server asked for it to be sent again, for a redirect or"
+                                + " authentication, which a streamed report can not be",
+                        e);
+                return false;
+            } catch (IOException e) {
+                log.warn("Attempt {} to post report failed", attempt, e);
+            }
 
-            connection.setDoOutput(true);
-            PrintWriter body = new PrintWriter(
-                    new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)));
+            if (attempt >= MAX_ATTEMPTS) {
+                log.error("Gave up posting report after {} attempts", attempt);
+                return false;
+            }
 
-            body.println(json);
-            body.close();
+            remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            try {
+                Thread.sleep(Math.max(0, Math.min(backoffMillis, remainingMillis)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMillis *= 2;
+        }
+    }
+
+    private int postOnce(Body json, long remainingMillis) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+
+        connection.setConnectTimeout((int) Math.min(CONNECT_TIMEOUT_MILLIS, remainingMillis));
+        connection.setReadTimeout((int) Math.min(READ_TIMEOUT_MILLIS, remainingMillis));
+
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestProperty("Content-Type", "application/json");
+        if (gzip) {
+            connection.setRequestProperty("Content-Encoding", "gzip");
+        }
 
-            connection.connect();
+        String version = Optional.ofNullable(this.getClass().getPackage().getImplementationVersion())
+                .orElse("0.0.0");
+        connection.setRequestProperty("User-Agent", "docker-compose-rule/" + version);
+
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(0);
+        try {
+            OutputStream output = connection.getOutputStream();
+            try (OutputStream body = new BufferedOutputStream(gzip ? new GZIPOutputStream(output) : output)) {
+                json.writeTo(body);
+            }
 
             int status = connection.getResponseCode();
 
-            if (status >= 400) {
-                String error = CharStreams.toString(
-                        new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8));
+            if (status >= 300 && status < 400) {
+                log.error(
+                        "Posting report was redirected with status {} to {}, which can not be followed as the report"
+                                + " is streamed. Set the reporting url to where it redirects to",
+                        status,
+                        connection.getHeaderField("Location"));
+            }
 
-                throw new RuntimeException("Posting json failed. Error is: " + error);
+            if (status >= 400) {
+                InputStream errorStream = connection.getErrorStream();
+                String error = errorStream == null
+                        ? ""
+                        : CharStreams.toString(new InputStreamReader(errorStream, StandardCharsets.UTF_8));
+                log.warn("Posting report returned status {}. Error is: {}", status, error);
             }
 
+            return status;
+        } finally {
             connection.disconnect();
-        } catch (Exception e) {
-            log.error("Failed to post report", e);
         }
     }
 }
@@ -18,7 +18,11 @@ package com.palantir.docker.compose.reporting;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.docker.compose.configuration.DockerComposeRuleConfig;
+import java.nio.file.Paths;
 import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -35,10 +39,26 @@ final class PostReportOnShutdown {
                 .<Reporter>map(reportingConfig -> new ReportCompiler(
                         Clock.systemUTC(),
                         reportingConfig.envVarWhitelistPatterns(),
-                        new ReportPoster(new HttpJsonPoster(reportingConfig))::postReport))
+                        reportingConfig.batchSize(),
+                        Duration.ofMillis(reportingConfig.shutdownTimeoutMillis()),
+                        reportSinks(reportingConfig)))
                 .orElse(Reporter.NoOpReporter.INSTANCE);
     }
 
+    private static ReportCompiler.SpooledReportConsumer reportSinks(ReportingConfig reportingConfig) {
+        List<ReportCompiler.SpooledReportConsumer> sinks = new ArrayList<>();
+        reportingConfig
+                .localDirectory()
+                .ifPresent(directory -> sinks.add(new ReportFileWriter(Paths.get(directory))::writeReport));
+        if (!reportingConfig.url().trim().isEmpty()) {
+            sinks.add(
+                    new ReportPoster(new HttpJsonPoster(reportingConfig.url(), reportingConfig.gzipReports()))
+                            ::postReport);
+        }
+        return (reportWithoutRuns, runs, deadlineNanos) ->
+                sinks.forEach(sink -> sink.accept(reportWithoutRuns, runs, deadlineNanos));
+    }
+
     private PostReportOnShutdown() {}
 
     public static Reporter reporter() {
@@ -16,7 +16,9 @@
 
 package com.palantir.docker.compose.reporting;
 
+import com.google.common.base.Preconditions;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.palantir.docker.compose.DockerComposeManager;
 import com.palantir.docker.compose.report.DockerComposeRun;
 import com.palantir.docker.compose.report.GitInfo;
@@ -29,11 +31,20 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import one.util.streamex.EntryStream;
 import org.slf4j.Logger;
@@ -42,22 +53,147 @@ import org.slf4j.LoggerFactory;
 final class ReportCompiler implements Reporter {
     private static final Logger log = LoggerFactory.getLogger(ReportCompiler.class);
 
-    private static final String REPORT_API_VERSION = "2";
+    private static final String REPORT_API_VERSION = "3";
+    private static final Duration BATCH_UPLOAD_TIMEOUT = Duration.ofMinutes(1);
 
     private final Clock clock;
     private final PatternCollection environmentVariableWhitelist;
-    private final Consumer<Report> reportConsumer;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final SpooledReportConsumer reportConsumer;
+    private final ExecutorService batchUploads = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("dcr-report-upload-%d")
+            .setDaemon(true)
+            .build());
+    private final ExecutorService metadataCollection = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("dcr-report-metadata-%d")
+            .setDaemon(true)
+            .build());
+    private final CommandRunner commandRunner;
+    private final CompletableFuture<Optional<String>> gitBranch;
+    private final CompletableFuture<Optional<String>> gitCommit;
+    private final CompletableFuture<Optional<Boolean>> gitDirty;
+    private final CompletableFuture<Optional<String>> gitOriginPath;
+    private final CompletableFuture<Optional<String>> dockerVersion;
+    private final CompletableFuture<Optional<String>> dockerComposeVersion;
+
+    // guarded by this
     private final Report.Builder reportBuilder = Report.builder();
+    private final Map<String, String> dockerComposeConfigs = new HashMap<>();
+    private final Set<String> batchConfigHashes = new HashSet<>();
+    private RunSpool runSpool = new RunSpool();
+    private int runsInBatch = 0;
+
+    /**
+     * Receives the report once it has been compiled. The report itself has no runs, which are instead read back one
+     * at a time from the spool, so that they never all have to be in memory at once.
+     */
+    interface SpooledReportConsumer {
+        void accept(Report reportWithoutRuns, RunSpool runs, long deadlineNanos);
+    }
+
+    /** Runs a command to completion, returning its trimmed standard output. */
+    interface CommandRunner {
+        String run(String... args) throws IOException, InterruptedException;
+    }
 
     ReportCompiler(Clock clock, PatternCollection environmentVariableWhitelist, Consumer<Report> reportConsumer) {
+        this(
+                clock,
+                environmentVariableWhitelist,
+                Integer.MAX_VALUE,
+                Duration.ofSeconds(10),
+                (reportWithoutRuns, runs, _deadlineNanos) -> reportConsumer.accept(Report.builder()
+                        .from(reportWithoutRuns)
+                        .runs(runs.readRuns())
+                        .build()));
+    }
+
+    /**
+     * Creates a compiler which sends every {@code batchSize} runs as a report of their own while tests are still
+     * running, and gives up on sending the rest if it takes longer than {@code shutdownTimeout}. The git and tool
+     * versions are collected in the background from here on, so that reporting does not have to wait on them.
+     */
+    ReportCompiler(
+            Clock clock,
+            PatternCollection environmentVariableWhitelist,
+            int batchSize,
+            Duration shutdownTimeout,
+            SpooledReportConsumer reportConsumer) {
+        this(
+                clock,
+                environmentVariableWhitelist,
+                batchSize,
+                shutdownTimeout,
+                reportConsumer,
+                ReportCompiler::runProcess);
+    }
+
+    ReportCompiler(
+            Clock clock,
+            PatternCollection environmentVariableWhitelist,
+            int batchSize,
+            Duration shutdownTimeout,
+            SpooledReportConsumer reportConsumer,
+            CommandRunner commandRunner) {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be positive");
         this.clock = clock;
         this.environmentVariableWhitelist = environmentVariableWhitelist;
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
         this.reportConsumer = reportConsumer;
+        this.commandRunner = commandRunner;
+        this.gitBranch = runCommandAsync("git", "rev-parse", "--abbrev-ref", "HEAD");
+        this.gitCommit = runCommandAsync("git", "rev-parse", "HEAD");
+        this.gitDirty = runCommandAsync("git", "status", "--short")
+                .thenApply(status -> status.map(output -> !output.isEmpty()));
+        this.gitOriginPath = runCommandAsync("git", "ls-remote", "--get-url", "origin")
+                .thenApply(origin -> origin.flatMap(GitUtils::parsePathFromGitRemoteUrl));
+        this.dockerVersion = runCommandAsync("docker", "--version");
+        this.dockerComposeVersion = runCommandAsync("docker-compose", "--version");
+        metadataCollection.shutdown();
     }
 
     @Override
     public synchronized void addRun(DockerComposeRun dockerComposeRun) {
-        reportBuilder.runs(dockerComposeRun);
+        runSpool.append(dockerComposeRun);
+        dockerComposeRun.getDockerComposeConfigHash().ifPresent(batchConfigHashes::add);
+        runsInBatch++;
+        if (runsInBatch >= batchSize) {
+            sendBatch();
+        }
+    }
+
+    private void sendBatch() {
+        RunSpool runs = runSpool;
+        Map<String, String> configs = configsForBatch();
+        runSpool = new RunSpool();
+        runsInBatch = 0;
+
+        batchUploads.execute(() -> {
+            try {
+                long deadlineNanos = System.nanoTime() + BATCH_UPLOAD_TIMEOUT.toNanos();
+                Report reportWithoutRuns = compile(Report.builder().dockerComposeConfigs(configs), deadlineNanos);
+                reportConsumer.accept(reportWithoutRuns, runs, deadlineNanos);
+            } catch (RuntimeException e) {
+                log.error("Failed to send a batch of runs", e);
+            } finally {
+                runs.clear();
+            }
+        });
+    }
+
+    /** Each batch only carries the configs its own runs refer to, the final report carries them all. */
+    private Map<String, String> configsForBatch() {
+        Map<String, String> configs = new HashMap<>();
+        batchConfigHashes.forEach(hash -> configs.put(hash, dockerComposeConfigs.get(hash)));
+        batchConfigHashes.clear();
+        return configs;
+    }
+
+    @Override
+    public synchronized void addDockerComposeConfig(String hash, String dockerComposeConfig) {
+        dockerComposeConfigs.put(hash, dockerComposeConfig);
     }
 
     @Override
@@ -67,27 +203,91 @@ final class ReportCompiler implements Reporter {
 
     @Override
     public void report() {
-        String reportId = IdGenerator.idFor("report");
-        log.info("Reporting docker-compose run statistics with id {}", SafeArg.of("reportId", reportId));
-        reportConsumer.accept(reportBuilder
+        long deadlineNanos = System.nanoTime() + shutdownTimeout.toNanos();
+        RunSpool runs;
+        Map<String, String> configs;
+        synchronized (this) {
+            runs = runSpool;
+            configs = new HashMap<>(dockerComposeConfigs);
+            runSpool = new RunSpool();
+            runsInBatch = 0;
+        }
+
+        batchUploads.shutdown();
+        try {
+            if (!batchUploads.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                log.warn("Timed out waiting for batches of runs to be sent");
+            }
+            GitInfo collectedGitInfo = gitInfo(deadlineNanos);
+            Versions collectedVersions = versions(deadlineNanos);
+            Report reportWithoutRuns;
+            synchronized (this) {
+                reportWithoutRuns = compileWithMetadata(reportBuilder
+                        .dockerComposeConfigs(configs)
+                        .gitInfo(collectedGitInfo)
+                        .versions(collectedVersions));
+            }
+            log.info(
+                    "Reporting docker-compose run statistics with id {}",
+                    SafeArg.of("reportId", reportWithoutRuns.getReportId()));
+            reportConsumer.accept(reportWithoutRuns, runs, deadlineNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            runs.clear();
+        }
+    }
+
+    private Report compile(Report.Builder builder, long deadlineNanos) {
+        return compileWithMetadata(builder.gitInfo(gitInfo(deadlineNanos)).versions(versions(deadlineNanos)));
+    }
+
+    private Report compileWithMetadata(Report.Builder builderWithMetadata) {
+        return builderWithMetadata
                 .reportApiVersion(REPORT_API_VERSION)
-                .reportId(reportId)
+                .reportId(IdGenerator.idFor("report"))
                 .submittedTime(clock.instant().atOffset(ZoneOffset.UTC))
                 .username(Optional.ofNullable(System.getProperty("user.name")))
-                .gitInfo(gitInfo())
                 .whitelistedEnvironmentVariables(whitelistedEnvironmentVariables())
-                .versions(versions())
-                .build());
+                .build();
     }
 
-    private Versions versions() {
+    /**
+     * Each piece of metadata falls back on its own, so that one slow or failing command does not lose the output of
+     * the others.
+     */
+    private GitInfo gitInfo(long deadlineNanos) {
+        return GitInfo.builder()
+                .branch(collected("gitBranch", gitBranch, deadlineNanos))
+                .commit(collected("gitCommit", gitCommit, deadlineNanos))
+                .dirty(collected("gitDirty", gitDirty, deadlineNanos))
+                .originPath(collected("gitOriginPath", gitOriginPath, deadlineNanos))
+                .build();
+    }
+
+    private Versions versions(long deadlineNanos) {
         return Versions.builder()
                 .dockerComposeRule(versionOf(DockerComposeManager.class))
-                .docker(runProcess("docker", "--version"))
-                .dockerCompose(runProcess("docker-compose", "--version"))
+                .docker(collected("dockerVersion", dockerVersion, deadlineNanos))
+                .dockerCompose(collected("dockerComposeVersion", dockerComposeVersion, deadlineNanos))
                 .build();
     }
 
+    private static <T> Optional<T> collected(String name, CompletableFuture<Optional<T>> metadata, long deadlineNanos) {
+        try {
+            return metadata.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Could not collect environment metadata in time, reporting without it", SafeArg.of("name", name));
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            log.warn("Could not collect environment metadata, reporting without it", SafeArg.of("name", name), e);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
     private Optional<String> versionOf(Class<?> clazz) {
         return Optional.ofNullable(clazz.getPackage().getImplementationVersion());
     }
@@ -98,35 +298,13 @@ final class ReportCompiler implements Reporter {
                 .toMap();
     }
 
-    private GitInfo gitInfo() {
-        return GitInfo.builder()
-                .branch(runProcess("git", "rev-parse", "--abbrev-ref", "HEAD"))
-                .commit(runProcess("git", "rev-parse", "HEAD"))
-                .dirty(runProcess("git", "status", "--short").map(output -> !output.isEmpty()))
-                .originPath(runProcess("git", "ls-remote", "--get-url", "origin")
-                        .flatMap(GitUtils::parsePathFromGitRemoteUrl))
-                .build();
+    private CompletableFuture<Optional<String>> runCommandAsync(String... args) {
+        return CompletableFuture.supplyAsync(() -> runCommand(args), metadataCollection);
     }
 
-    private Optional<String> runProcess(String... args) {
+    private Optional<String> runCommand(String... args) {
         try {
-            Process process = new ProcessBuilder().command(args).start();
-
-            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
-
-            if (!finished) {
-                process.destroyForcibly();
-                throw new SafeRuntimeException("Command timed out");
-            }
-
-            if (process.exitValue() != 0) {
-                throw new SafeRuntimeException(
-                        "Process exited with non-zero exit code",
-                        SafeArg.of("exitValue", process.exitValue()),
-                        SafeArg.of("stderr", inputStreamToString(process.getErrorStream())));
-            }
-
-            return Optional.of(inputStreamToString(process.getInputStream()));
+            return Optional.of(commandRunner.run(args));
         } catch (IOException | InterruptedException | RuntimeException exception) {
             addException(new SafeRuntimeException(
                     "Running command failed.", exception, SafeArg.of("args", Arrays.asList(args))));
@@ -134,7 +312,27 @@ final class ReportCompiler implements Reporter {
         }
     }
 
-    private String inputStreamToString(InputStream inputStream) throws IOException {
+    private static String runProcess(String... args) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder().command(args).start();
+
+        boolean finished = process.waitFor(5, TimeUnit.SECONDS);
+
+        if (!finished) {
+            process.destroyForcibly();
+            throw new SafeRuntimeException("Command timed out");
+        }
+
+        if (process.exitValue() != 0) {
+            throw new SafeRuntimeException(
+                    "Process exited with non-zero exit code",
+                    SafeArg.of("exitValue", process.exitValue()),
+                    SafeArg.of("stderr", inputStreamToString(process.getErrorStream())));
+        }
+
+        return inputStreamToString(process.getInputStream());
+    }
+
+    private static String inputStreamToString(InputStream inputStream) throws IOException {
         return CharStreams.toString(new InputStreamReader(inputStream, StandardCharsets.UTF_8))
                 .trim();
     }
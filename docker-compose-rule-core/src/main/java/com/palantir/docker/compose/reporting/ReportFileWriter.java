@@ -0,0 +1,58 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import com.palantir.docker.compose.report.Report;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes each report into a directory as {@code <reportId>.json}, in the same format as is posted, so reports can be
+ * kept and compared without a server to send them to.
+ */
+class ReportFileWriter {
+    private static final Logger log = LoggerFactory.getLogger(ReportFileWriter.class);
+
+    private final Path directory;
+
+    ReportFileWriter(Path directory) {
+        this.directory = directory;
+    }
+
+    /** Writes to a temporary file first, so that a report file is never seen half written. */
+    public void writeReport(Report reportWithoutRuns, RunSpool runs, long _deadlineNanos) {
+        Path reportFile = directory.resolve(reportWithoutRuns.getReportId() + ".json");
+        try {
+            Files.createDirectories(directory);
+            Path partialFile = Files.createTempFile(directory, reportWithoutRuns.getReportId(), ".json.tmp");
+            try (OutputStream output = Files.newOutputStream(partialFile)) {
+                ReportPoster.writeJson(reportWithoutRuns, runs, output);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(partialFile);
+                throw e;
+            }
+            Files.move(partialFile, reportFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write report to {}", reportFile, e);
+        }
+    }
+}
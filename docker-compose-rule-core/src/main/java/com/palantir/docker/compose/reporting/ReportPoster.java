@@ -16,13 +16,20 @@
 
 package com.palantir.docker.compose.reporting;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.palantir.conjure.java.serialization.ObjectMappers;
 import com.palantir.docker.compose.report.Report;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
 
 class ReportPoster {
     private static final ObjectMapper OBJECT_MAPPER = ObjectMappers.newClientObjectMapper();
+    private static final String RUNS_FIELD = "runs";
 
     private final HttpJsonPoster webhookPoster;
 
@@ -30,15 +37,29 @@ class ReportPoster {
         this.webhookPoster = webhookPoster;
     }
 
-    public void postReport(Report report) {
-        webhookPoster.post(toJson(report));
+    /**
+     * Posts the report with the spooled runs, streaming the runs from the spool into the request body one at a time.
+     * Retries stop once the deadline, from {@link System#nanoTime()}, has passed.
+     */
+    public void postReport(Report reportWithoutRuns, RunSpool runs, long deadlineNanos) {
+        webhookPoster.post(body -> writeJson(reportWithoutRuns, runs, body), deadlineNanos);
     }
 
-    private static String toJson(Report report) {
-        try {
-            return OBJECT_MAPPER.writeValueAsString(report);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException(e);
+    static void writeJson(Report reportWithoutRuns, RunSpool runs, OutputStream output) throws IOException {
+        ObjectNode report = OBJECT_MAPPER.valueToTree(reportWithoutRuns);
+        report.remove(RUNS_FIELD);
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(output)) {
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = report.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+            generator.writeArrayFieldStart(RUNS_FIELD);
+            runs.forEachRunJson(generator::writeRawValue);
+            generator.writeEndArray();
+            generator.writeEndObject();
         }
     }
 }
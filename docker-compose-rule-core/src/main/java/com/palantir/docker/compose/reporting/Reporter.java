@@ -24,6 +24,9 @@ import org.slf4j.LoggerFactory;
 interface Reporter {
     void addRun(DockerComposeRun dockerComposeRun);
 
+    /** Adds the output of <code>docker-compose config</code> that runs refer to by its hash. */
+    void addDockerComposeConfig(String hash, String dockerComposeConfig);
+
     void addException(Exception exception);
 
     void report();
@@ -38,6 +41,9 @@ interface Reporter {
         @Override
         public void addRun(DockerComposeRun _dockerComposeRun) {}
 
+        @Override
+        public void addDockerComposeConfig(String _hash, String _dockerComposeConfig) {}
+
         @Override
         public void addException(Exception _exception) {}
 
@@ -17,8 +17,10 @@
 package com.palantir.docker.compose.reporting;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.CustomImmutablesStyle;
+import java.util.Optional;
 import java.util.regex.Pattern;
 import org.immutables.value.Value;
 
@@ -26,7 +28,35 @@ import org.immutables.value.Value;
 @CustomImmutablesStyle
 @JsonDeserialize(as = ImmutableReportingConfig.class)
 public interface ReportingConfig {
-    String url();
+    /** Where to post each report to. Reports are not posted anywhere if this is blank. */
+    @Value.Default
+    default String url() {
+        return "";
+    }
+
+    /**
+     * A directory to also write each report into, as a JSON file named after its report id. These files can be
+     * summarised with {@link StartupTimings}, without running a reporting server.
+     */
+    Optional<String> localDirectory();
+
+    /** Whether to gzip the reports posted to {@link #url()}. Turn off for servers which only accept plain JSON. */
+    @Value.Default
+    default boolean gzipReports() {
+        return true;
+    }
+
+    /** Runs are sent in reports of this many as tests go along, rather than all at once when the JVM exits. */
+    @Value.Default
+    default int batchSize() {
+        return 100;
+    }
+
+    /** How long to keep trying to send the last of the runs once the JVM has started to exit. */
+    @Value.Default
+    default long shutdownTimeoutMillis() {
+        return 10_000;
+    }
 
     @Value.Auxiliary
     @Value.Derived
@@ -34,6 +64,12 @@ public interface ReportingConfig {
         return new PatternCollection(ImmutableList.of(Pattern.compile("^CIRCLE")));
     }
 
+    @Value.Check
+    default void check() {
+        Preconditions.checkState(
+                !url().trim().isEmpty() || localDirectory().isPresent(), "Either url or localDirectory must be set");
+    }
+
     class Builder extends ImmutableReportingConfig.Builder {}
 
     static Builder builder() {
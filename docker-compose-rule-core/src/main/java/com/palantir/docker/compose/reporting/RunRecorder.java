@@ -16,26 +16,46 @@
 
 package com.palantir.docker.compose.reporting;
 
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.palantir.docker.compose.configuration.DockerComposeFiles;
 import com.palantir.docker.compose.events.Event;
 import com.palantir.docker.compose.events.EventConsumer;
 import com.palantir.docker.compose.report.DockerComposeRun;
 import com.palantir.docker.compose.report.TestDescription;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public final class RunRecorder implements EventConsumer {
     private static final Logger log = LoggerFactory.getLogger(RunRecorder.class);
+    private static final ConcurrentMap<String, String> PROCESS_CONFIG_HASHES = new ConcurrentHashMap<>();
+    private static final String DOT_ENV = ".env";
 
     private final Clock clock;
     private final Reporter reporter;
+    private final ConcurrentMap<String, String> configHashesByInputs;
     private DockerComposeRun.Builder runBuilder;
 
     RunRecorder(Clock clock, Reporter reporter) {
+        this(clock, reporter, new ConcurrentHashMap<>());
+    }
+
+    RunRecorder(Clock clock, Reporter reporter, ConcurrentMap<String, String> configHashesByInputs) {
         this.clock = clock;
         this.reporter = reporter;
+        this.configHashesByInputs = configHashesByInputs;
 
         resetRunBuilder();
     }
@@ -51,15 +71,73 @@ public final class RunRecorder implements EventConsumer {
     }
 
     public void before(Callable<String> dockerComposeConfig) {
+        before(Optional.empty(), dockerComposeConfig);
+    }
+
+    /**
+     * Records the start of a run. The config is only fetched, which forks a <code>docker-compose config</code>, if
+     * no run in this JVM has fetched it from the same docker-compose files, <code>.env</code> files and environment.
+     */
+    public void before(
+            DockerComposeFiles files, Supplier<Map<String, String>> environment, Callable<String> dockerComposeConfig) {
+        before(fingerprintOf(files, environment), dockerComposeConfig);
+    }
+
+    private void before(Optional<String> inputsFingerprint, Callable<String> dockerComposeConfig) {
         runBuilder.startTime(clock.instant().atOffset(ZoneOffset.UTC));
         try {
-            runBuilder.dockerComposeConfig(dockerComposeConfig.call());
+            Optional<String> knownHash = inputsFingerprint.map(configHashesByInputs::get);
+            if (knownHash.isPresent()) {
+                runBuilder.dockerComposeConfigHash(knownHash.get());
+                return;
+            }
+            String config = dockerComposeConfig.call();
+            String configHash =
+                    Hashing.sha256().hashString(config, StandardCharsets.UTF_8).toString();
+            reporter.addDockerComposeConfig(configHash, config);
+            inputsFingerprint.ifPresent(fingerprint -> configHashesByInputs.put(fingerprint, configHash));
+            runBuilder.dockerComposeConfigHash(configHash);
         } catch (Exception e) {
             runBuilder.exceptions(ExceptionUtils.exceptionToString(e));
             log.error("EnhancedDockerComposeRule has failed in before()", e);
         }
     }
 
+    /*
+     * What docker-compose config depends on: the compose files, the .env files it may read from the project directory
+     * or the working directory, and the environment it interpolates variables from. Nothing if any compose file is
+     * not a regular file. The project name is left out on purpose: it only changes the name in the output, and a
+     * random one per run would mean the config is never reused.
+     */
+    private static Optional<String> fingerprintOf(
+            DockerComposeFiles files, Supplier<Map<String, String>> environmentSupplier) {
+        List<File> composeFiles = files.files();
+        if (composeFiles.isEmpty() || !composeFiles.stream().allMatch(File::isFile)) {
+            return Optional.empty();
+        }
+        Map<String, String> environment;
+        try {
+            environment = environmentSupplier.get();
+        } catch (RuntimeException e) {
+            log.debug("Could not read the docker-compose environment, so fetching its config", e);
+            return Optional.empty();
+        }
+        Hasher fingerprint = Hashing.sha256().newHasher();
+        composeFiles.forEach(file -> putFile(fingerprint, file));
+        putFile(fingerprint, new File(composeFiles.get(0).getAbsoluteFile().getParentFile(), DOT_ENV));
+        putFile(fingerprint, new File(DOT_ENV).getAbsoluteFile());
+        ImmutableSortedMap.copyOf(environment)
+                .forEach((name, value) -> fingerprint.putString(name + "=" + value + "\n", StandardCharsets.UTF_8));
+        return Optional.of(fingerprint.hash().toString());
+    }
+
+    private static void putFile(Hasher fingerprint, File file) {
+        String description = file.isFile()
+                ? file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified()
+                : file.getAbsolutePath() + ":absent";
+        fingerprint.putString(description + "\n", StandardCharsets.UTF_8);
+    }
+
     @Override
     public synchronized void receiveEvent(Event event) {
         runBuilder.events(event);
@@ -77,6 +155,6 @@ public final class RunRecorder implements EventConsumer {
     }
 
     public static RunRecorder defaults() {
-        return new RunRecorder(Clock.systemUTC(), PostReportOnShutdown.reporter());
+        return new RunRecorder(Clock.systemUTC(), PostReportOnShutdown.reporter(), PROCESS_CONFIG_HASHES);
     }
 }
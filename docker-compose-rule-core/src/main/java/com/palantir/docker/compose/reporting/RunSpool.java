@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.conjure.java.serialization.ObjectMappers;
+import com.palantir.docker.compose.report.DockerComposeRun;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps finished runs on disk, one JSON object per line, rather than in memory until the report is sent. The file is
+ * only created once the first run is added.
+ */
+class RunSpool {
+    private static final Logger log = LoggerFactory.getLogger(RunSpool.class);
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMappers.newClientObjectMapper();
+
+    interface RunJsonConsumer {
+        void accept(String runJson) throws IOException;
+    }
+
+    // guarded by this
+    private Path file;
+    private Writer writer;
+
+    synchronized void append(DockerComposeRun run) {
+        try {
+            String json = OBJECT_MAPPER.writeValueAsString(run);
+            if (writer == null) {
+                file = Files.createTempFile("docker-compose-rule-runs", ".jsonl");
+                file.toFile().deleteOnExit();
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            }
+            writer.write(json);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spool run " + run.getRunId(), e);
+        }
+    }
+
+    /** Passes the JSON of each run, in the order they were added, to the consumer, reading one run at a time. */
+    synchronized void forEachRunJson(RunJsonConsumer consumer) throws IOException {
+        if (file == null) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    consumer.accept(line);
+                }
+            }
+        }
+    }
+
+    /** Reads every run back into memory, for consumers which need the whole report at once. */
+    List<DockerComposeRun> readRuns() {
+        List<DockerComposeRun> runs = new ArrayList<>();
+        try {
+            forEachRunJson(json -> runs.add(OBJECT_MAPPER.readValue(json, DockerComposeRun.class)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read spooled runs", e);
+        }
+        return runs;
+    }
+
+    /** Deletes the spooled runs, for example once they have been reported. */
+    synchronized void clear() {
+        if (file == null) {
+            return;
+        }
+        try {
+            writer.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete run spool {}", file, e);
+        } finally {
+            writer = null;
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.palantir.conjure.java.serialization.ObjectMappers;
+import com.palantir.docker.compose.events.BuildEvent;
+import com.palantir.docker.compose.events.ClusterWaitEvent;
+import com.palantir.docker.compose.events.Event;
+import com.palantir.docker.compose.events.LogCollectionEvent;
+import com.palantir.docker.compose.events.PullEvent;
+import com.palantir.docker.compose.events.ShutdownEvent;
+import com.palantir.docker.compose.events.ShutdownStopEvent;
+import com.palantir.docker.compose.events.Task;
+import com.palantir.docker.compose.events.UpEvent;
+import com.palantir.docker.compose.events.WaitForServicesEvent;
+import com.palantir.docker.compose.report.DockerComposeRun;
+import com.palantir.docker.compose.report.Report;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Summarises how long each phase of starting and stopping clusters took across many reports, such as those written
+ * to {@link ReportingConfig#localDirectory()}, as percentiles for each git commit the reports were made at. Comparing
+ * commits shows when {@code before()} got slower, and which phase or service is responsible.
+ *
+ * <p>Phases are named after the events they come from, with per service timings as {@code phase/service}. The
+ * {@code before} phase runs from the start of a run to the end of its last pull, build, up or wait. Services that
+ * were waited on together each get the time of the whole wait.
+ *
+ * <p>Usage: {@code java -cp <classpath> com.palantir.docker.compose.reporting.StartupTimings <report file or
+ * directory>...}
+ */
+public final class StartupTimings {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimings.class);
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMappers.newClientObjectMapper();
+    private static final String UNKNOWN_COMMIT = "unknown";
+    private static final int COMMIT_LENGTH = 12;
+    private static final String ROW_FORMAT = "%-12s  %-40s  %6s  %8s  %8s  %8s  %8s";
+
+    // commit -> phase -> durations in millis, with commits in the order they were first reported at
+    private final Map<String, ListMultimap<String, Long>> timingsByCommit = new LinkedHashMap<>();
+
+    private StartupTimings() {}
+
+    @SuppressWarnings("checkstyle:BanSystemOut")
+    public static void main(String... args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: StartupTimings <report file or directory>...");
+            return;
+        }
+
+        List<Report> reports = new ArrayList<>();
+        for (String arg : args) {
+            reports.addAll(readReports(Paths.get(arg)));
+        }
+        summarise(reports).forEach(System.out::println);
+    }
+
+    static List<Report> readReports(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return readReport(path).map(Collections::singletonList).orElseGet(Collections::emptyList);
+        }
+
+        List<Report> reports = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.json")) {
+            for (Path file : files) {
+                readReport(file).ifPresent(reports::add);
+            }
+        }
+        return reports;
+    }
+
+    private static Optional<Report> readReport(Path file) {
+        try {
+            return Optional.of(OBJECT_MAPPER.readValue(file.toFile(), Report.class));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping {}, which is not a report", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /** Returns a table of percentiles, in milliseconds, of each phase's durations for each commit. */
+    static List<String> summarise(List<Report> reports) {
+        StartupTimings timings = new StartupTimings();
+        reports.stream().sorted(Comparator.comparing(Report::getSubmittedTime)).forEach(timings::add);
+
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format(ROW_FORMAT, "commit", "phase", "count", "p50", "p90", "p99", "max"));
+        timings.timingsByCommit.forEach((commit, phases) -> phases.asMap().forEach((phase, durations) -> {
+            List<Long> sorted = new ArrayList<>(durations);
+            Collections.sort(sorted);
+            rows.add(String.format(
+                    ROW_FORMAT,
+                    commit,
+                    phase,
+                    sorted.size(),
+                    percentile(sorted, 50),
+                    percentile(sorted, 90),
+                    percentile(sorted, 99),
+                    sorted.get(sorted.size() - 1)));
+        }));
+        return rows;
+    }
+
+    /** The nearest-rank percentile, so always one of the durations rather than an interpolation. */
+    static long percentile(List<Long> sortedDurations, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedDurations.size());
+        return sortedDurations.get(Math.max(0, rank - 1));
+    }
+
+    private void add(Report report) {
+        String commit = report.getGitInfo()
+                .getCommit()
+                .map(fullCommit -> fullCommit.substring(0, Math.min(COMMIT_LENGTH, fullCommit.length())))
+                .orElse(UNKNOWN_COMMIT);
+        ListMultimap<String, Long> timings = timingsByCommit.computeIfAbsent(
+                commit, _commit -> MultimapBuilder.treeKeys().arrayListValues().build());
+        report.getRuns().forEach(run -> add(run, timings));
+    }
+
+    private static void add(DockerComposeRun run, ListMultimap<String, Long> timings) {
+        PhaseRecorder recorder = new PhaseRecorder(timings);
+        run.getEvents().forEach(event -> event.accept(recorder));
+        recorder.startupEnd.ifPresent(end -> timings.put("before", millisBetween(run.getStartTime(), end)));
+    }
+
+    private static long millisBetween(OffsetDateTime start, OffsetDateTime end) {
+        return Duration.between(start, end).toMillis();
+    }
+
+    private static final class PhaseRecorder implements Event.Visitor<Void> {
+        private final ListMultimap<String, Long> timings;
+        private Optional<OffsetDateTime> startupEnd = Optional.empty();
+
+        PhaseRecorder(ListMultimap<String, Long> timings) {
+            this.timings = timings;
+        }
+
+        @Override
+        public Void visitBuild(BuildEvent value) {
+            return startupPhase("build", value.getTask());
+        }
+
+        @Override
+        public Void visitPull(PullEvent value) {
+            return startupPhase("pull", value.getTask());
+        }
+
+        @Override
+        public Void visitUp(UpEvent value) {
+            return startupPhase("up", value.getTask());
+        }
+
+        @Override
+        public Void visitWaitForServices(WaitForServicesEvent value) {
+            return startupPhase("waitForServices", value.getTask());
+        }
+
+        @Override
+        public Void visitClusterWait(ClusterWaitEvent value) {
+            value.getServiceNames().forEach(service -> record("clusterWait/" + service, value.getTask()));
+            return startupPhase("clusterWait", value.getTask());
+        }
+
+        @Override
+        public Void visitShutdownStop(ShutdownStopEvent value) {
+            return record("shutdownStop", value.getTask());
+        }
+
+        @Override
+        public Void visitLogCollection(LogCollectionEvent value) {
+            value.getServices()
+                    .forEach(service -> record("logCollection/" + service.getServiceName(), service.getTask()));
+            return record("logCollection", value.getTask());
+        }
+
+        @Override
+        public Void visitShutdown(ShutdownEvent value) {
+            return record("shutdown", value.getTask());
+        }
+
+        @Override
+        public Void visitUnknown(String _unknownType) {
+            return null;
+        }
+
+        private Void startupPhase(String phase, Task task) {
+            if (!startupEnd.isPresent() || task.getEndTime().isAfter(startupEnd.get())) {
+                startupEnd = Optional.of(task.getEndTime());
+            }
+            return record(phase, task);
+        }
+
+        private Void record(String phase, Task task) {
+            timings.put(phase, millisBetween(task.getStartTime(), task.getEndTime()));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.docker.compose.configuration.AsyncEventDispatch;
+import com.palantir.docker.compose.configuration.AsyncEventDispatch.OverflowPolicy;
+import com.palantir.docker.compose.events.BuildEvent;
+import com.palantir.docker.compose.events.Event;
+import com.palantir.docker.compose.events.Task;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.joda.time.Duration;
+import org.junit.Test;
+
+public class AsyncEventDispatcherShould {
+    private final List<Event> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch consumerReleased = new CountDownLatch(1);
+    private final CountDownLatch consumerBlocked = new CountDownLatch(1);
+
+    @Test
+    public void send_events_in_order_without_waiting_for_the_consumer() {
+        AsyncEventDispatcher dispatcher = blockingDispatcher(AsyncEventDispatch.defaults());
+
+        List<Event> events = events(5);
+        events.forEach(dispatcher::dispatch);
+        assertThat(sent).isEmpty();
+
+        consumerReleased.countDown();
+        assertThat(dispatcher.flush()).isTrue();
+        assertThat(sent).containsExactlyElementsOf(events);
+    }
+
+    @Test
+    public void give_up_flushing_after_the_flush_timeout() {
+        AsyncEventDispatcher dispatcher = blockingDispatcher(
+                AsyncEventDispatch.builder().flushTimeout(Duration.millis(50)).build());
+
+        dispatcher.dispatch(event(0));
+
+        assertThat(dispatcher.flush()).isFalse();
+        consumerReleased.countDown();
+    }
+
+    @Test
+    public void drop_new_events_when_full_with_the_drop_newest_policy() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = blockingDispatcher(AsyncEventDispatch.builder()
+                .capacity(2)
+                .overflowPolicy(OverflowPolicy.DROP_NEWEST)
+                .build());
+        List<Event> events = events(5);
+
+        dispatcher.dispatch(events.get(0));
+        assertThat(consumerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        events.subList(1, 5).forEach(dispatcher::dispatch);
+        consumerReleased.countDown();
+
+        assertThat(dispatcher.flush()).isTrue();
+        assertThat(sent).containsExactly(events.get(0), events.get(1), events.get(2));
+    }
+
+    @Test
+    public void drop_old_events_when_full_with_the_drop_oldest_policy() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = blockingDispatcher(AsyncEventDispatch.builder()
+                .capacity(2)
+                .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+                .build());
+        List<Event> events = events(5);
+
+        dispatcher.dispatch(events.get(0));
+        assertThat(consumerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        events.subList(1, 5).forEach(dispatcher::dispatch);
+        consumerReleased.countDown();
+
+        assertThat(dispatcher.flush()).isTrue();
+        assertThat(sent).containsExactly(events.get(0), events.get(3), events.get(4));
+    }
+
+    @Test
+    public void wait_for_room_when_full_with_the_block_policy() throws InterruptedException {
+        AsyncEventDispatcher dispatcher =
+                blockingDispatcher(AsyncEventDispatch.builder().capacity(1).build());
+        List<Event> events = events(3);
+
+        dispatcher.dispatch(events.get(0));
+        assertThat(consumerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.dispatch(events.get(1));
+        Thread producer = new Thread(() -> dispatcher.dispatch(events.get(2)));
+        producer.start();
+        producer.join(100);
+        assertThat(producer.isAlive()).isTrue();
+
+        consumerReleased.countDown();
+        producer.join(5_000);
+
+        assertThat(dispatcher.flush()).isTrue();
+        assertThat(sent).containsExactlyElementsOf(events);
+    }
+
+    @Test
+    public void carry_on_sending_events_after_a_consumer_throws() {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(AsyncEventDispatch.defaults(), event -> {
+            sent.add(event);
+            throw new IllegalStateException("consumer failed");
+        });
+        List<Event> events = events(2);
+
+        events.forEach(dispatcher::dispatch);
+
+        assertThat(dispatcher.flush()).isTrue();
+        assertThat(sent).containsExactlyElementsOf(events);
+    }
+
+    private AsyncEventDispatcher blockingDispatcher(AsyncEventDispatch config) {
+        return new AsyncEventDispatcher(config, event -> {
+            consumerBlocked.countDown();
+            try {
+                consumerReleased.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            sent.add(event);
+        });
+    }
+
+    private static List<Event> events(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(AsyncEventDispatcherShould::event)
+                .collect(Collectors.toList());
+    }
+
+    private static Event event(int index) {
+        OffsetDateTime time = OffsetDateTime.of(2026, 1, 1, 0, 0, index, 0, ZoneOffset.UTC);
+        return Event.build(BuildEvent.builder()
+                .task(Task.builder().startTime(time).endTime(time).build())
+                .build());
+    }
+}
@@ -19,13 +19,16 @@ import static com.palantir.docker.compose.connection.waiting.HealthChecks.toHave
 import static com.palantir.docker.compose.matchers.IoMatchers.fileContainingString;
 import static com.palantir.docker.compose.matchers.IoMatchers.fileWithName;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.core.Is.is;
 import static org.joda.time.Duration.millis;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -33,9 +36,11 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.palantir.docker.compose.configuration.AsyncEventDispatch;
 import com.palantir.docker.compose.configuration.DockerComposeFiles;
 import com.palantir.docker.compose.configuration.MockDockerEnvironment;
 import com.palantir.docker.compose.configuration.ShutdownStrategy;
+import com.palantir.docker.compose.connection.ClusterSnapshot;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.DockerMachine;
 import com.palantir.docker.compose.connection.DockerPort;
@@ -43,15 +48,20 @@ import com.palantir.docker.compose.connection.State;
 import com.palantir.docker.compose.connection.waiting.ClusterWait;
 import com.palantir.docker.compose.connection.waiting.HealthCheck;
 import com.palantir.docker.compose.connection.waiting.SuccessOrFailure;
+import com.palantir.docker.compose.events.Event;
 import com.palantir.docker.compose.execution.Docker;
 import com.palantir.docker.compose.execution.DockerCompose;
 import com.palantir.docker.compose.execution.DockerExecutionException;
 import com.palantir.docker.compose.logging.LogCollector;
+import com.palantir.docker.compose.logging.TestLogSlice;
+import com.palantir.docker.compose.report.TestDescription;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -64,6 +74,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -88,12 +99,13 @@ public final class DockerComposeManagerShould {
     private final MockDockerEnvironment env = new MockDockerEnvironment(dockerCompose);
     private DockerComposeFiles mockFiles = mock(DockerComposeFiles.class);
     private DockerMachine machine = mock(DockerMachine.class);
-    private LogCollector logCollector = mock(LogCollector.class);
+    private LogCollector logCollector = mock(LogCollector.class, CALLS_REAL_METHODS);
     private DockerComposeManager dockerComposeManager;
 
     @Before
-    public void before() {
+    public void before() throws IOException, InterruptedException {
         when(machine.getIp()).thenReturn(IP);
+        when(dockerCompose.snapshot()).thenReturn(ClusterSnapshot.empty());
         dockerComposeManager = defaultBuilder().build();
     }
 
@@ -282,6 +294,106 @@ public final class DockerComposeManagerShould {
         verify(logCollector, times(1)).collectLogs(dockerCompose);
     }
 
+    @Test
+    public void skip_log_collection_when_only_collecting_on_failure_and_nothing_failed()
+            throws IOException, InterruptedException {
+        dockerComposeManager = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        dockerComposeManager.before();
+        dockerComposeManager.after();
+
+        verify(logCollector, never()).collectLogs(dockerCompose);
+        verify(logCollector).stopCollecting();
+    }
+
+    @Test
+    public void collect_logs_when_only_collecting_on_failure_and_a_test_failed()
+            throws IOException, InterruptedException {
+        dockerComposeManager = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        dockerComposeManager.before();
+        dockerComposeManager.recordTestFailure();
+        dockerComposeManager.after();
+
+        verify(logCollector).collectLogs(dockerCompose);
+    }
+
+    @Test
+    public void collect_logs_when_only_collecting_on_failure_and_the_cluster_failed_to_start()
+            throws IOException, InterruptedException {
+        doThrow(new DockerExecutionException("")).when(dockerCompose).up();
+        dockerComposeManager = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        assertThatThrownBy(dockerComposeManager::before).isInstanceOf(DockerExecutionException.class);
+        dockerComposeManager.after();
+
+        verify(logCollector).collectLogs(dockerCompose);
+    }
+
+    @Test
+    public void only_collect_logs_for_the_run_which_failed() throws IOException, InterruptedException {
+        dockerComposeManager = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        dockerComposeManager.recordTestFailure();
+        dockerComposeManager.after();
+        dockerComposeManager.after();
+
+        verify(logCollector, times(1)).collectLogs(dockerCompose);
+    }
+
+    @Test
+    public void save_the_logs_of_a_failed_test_while_the_cluster_is_up() throws IOException, InterruptedException {
+        TestDescription test = TestDescription.builder()
+                .testClass(Optional.of("com.example.MyTest"))
+                .method(Optional.of("does_something"))
+                .build();
+        Instant beforeTest = Instant.now();
+
+        dockerComposeManager.recordTestStarted(test);
+        dockerComposeManager.recordTestFinished(test, true);
+
+        ArgumentCaptor<TestLogSlice> slice = ArgumentCaptor.forClass(TestLogSlice.class);
+        verify(logCollector).collectTestLogs(eq(dockerCompose), slice.capture());
+        assertThat(slice.getValue().testName()).isEqualTo("MyTest.does_something");
+        assertThat(slice.getValue().since())
+                .isBetween(beforeTest, slice.getValue().until());
+    }
+
+    @Test
+    public void not_save_the_logs_of_a_test_which_passed() throws IOException, InterruptedException {
+        TestDescription test =
+                TestDescription.builder().method(Optional.of("does_something")).build();
+
+        dockerComposeManager.recordTestStarted(test);
+        dockerComposeManager.recordTestFinished(test, false);
+
+        verify(logCollector, never()).collectTestLogs(any(), any());
+    }
+
+    @Test
+    public void send_every_event_before_after_returns_when_dispatching_asynchronously()
+            throws IOException, InterruptedException {
+        List<Event> events = new CopyOnWriteArrayList<>();
+        dockerComposeManager = defaultBuilder()
+                .addEventConsumers(event -> {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    events.add(event);
+                })
+                .asyncEventDispatch(AsyncEventDispatch.defaults())
+                .build();
+
+        dockerComposeManager.before();
+        dockerComposeManager.after();
+
+        int sentByTheEndOfAfter = events.size();
+        Thread.sleep(100);
+        assertThat(sentByTheEndOfAfter).isPositive().isEqualTo(events.size());
+    }
+
     @Test
     public void before_fails_when_docker_up_throws_exception() throws IOException, InterruptedException {
         doThrow(new DockerExecutionException("")).when(dockerCompose).up();
@@ -23,10 +23,14 @@ import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.EventEmitter.InterruptableClusterWait;
+import com.palantir.docker.compose.configuration.AsyncEventDispatch;
 import com.palantir.docker.compose.connection.Cluster;
 import com.palantir.docker.compose.connection.waiting.ClusterWait;
 import com.palantir.docker.compose.connection.waiting.Exceptions;
@@ -35,12 +39,18 @@ import com.palantir.docker.compose.events.ClusterWaitEvent;
 import com.palantir.docker.compose.events.ClusterWaitType;
 import com.palantir.docker.compose.events.Event;
 import com.palantir.docker.compose.events.EventConsumer;
+import com.palantir.docker.compose.events.LogCollectionEvent;
+import com.palantir.docker.compose.events.ServiceLogCollection;
 import com.palantir.docker.compose.events.Task;
+import com.palantir.docker.compose.logging.CollectedServiceLogs;
 import java.io.IOException;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
 import org.mockito.InOrder;
@@ -135,6 +145,78 @@ public class EventEmitterShould {
         inOrder.verify(eventConsumer2).receiveEvent(clusterWaitEvent);
     }
 
+    @Test
+    public void emit_an_event_once_an_asynchronous_cluster_wait_completes() throws Exception {
+        OffsetDateTime startedTime = timeIs(5);
+
+        ClusterWait clusterWait = mock(ClusterWait.class);
+        CompletableFuture<Void> wait = new CompletableFuture<>();
+        when(clusterWait.waitUntilReadyAsync(any())).thenAnswer(invocation -> {
+            Cluster cluster = (Cluster) invocation.getArguments()[0];
+            cluster.container("one");
+            return wait;
+        });
+
+        CompletableFuture<Void> eventedWait =
+                eventEmitter.nativeClusterWait(clusterWait).startWaitingForCluster(mock(Cluster.class));
+        verifyZeroInteractions(eventConsumer1);
+
+        OffsetDateTime endTime = timeIs(20);
+        wait.complete(null);
+        eventedWait.get();
+
+        Event clusterWaitEvent = Event.clusterWait(ClusterWaitEvent.builder()
+                .task(Task.builder().startTime(startedTime).endTime(endTime).build())
+                .type(ClusterWaitType.NATIVE)
+                .serviceNames(ImmutableList.of("one"))
+                .build());
+
+        inOrder.verify(eventConsumer1).receiveEvent(clusterWaitEvent);
+        inOrder.verify(eventConsumer2).receiveEvent(clusterWaitEvent);
+    }
+
+    @Test
+    public void stop_an_asynchronous_cluster_wait_when_it_is_cancelled() {
+        timeIs(5);
+        ClusterWait clusterWait = mock(ClusterWait.class);
+        CompletableFuture<Void> wait = new CompletableFuture<>();
+        when(clusterWait.waitUntilReadyAsync(any())).thenReturn(wait);
+
+        eventEmitter
+                .userClusterWait(clusterWait)
+                .startWaitingForCluster(mock(Cluster.class))
+                .cancel(true);
+
+        assertThat(wait).isCancelled();
+    }
+
+    @Test
+    public void send_events_to_synchronous_consumers_before_returning_even_when_sending_asynchronously()
+            throws Exception {
+        timeIs(5);
+        CountDownLatch release = new CountDownLatch(1);
+        EventConsumer slowConsumer = _event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        EventEmitter asyncEmitter = new EventEmitter(
+                clock,
+                ImmutableList.of(eventConsumer1),
+                ImmutableList.of(slowConsumer, eventConsumer2),
+                Optional.of(AsyncEventDispatch.defaults()));
+
+        asyncEmitter.build(() -> {});
+
+        verify(eventConsumer1).receiveEvent(any());
+        verify(eventConsumer2, never()).receiveEvent(any());
+        release.countDown();
+        asyncEmitter.flush();
+        verify(eventConsumer2).receiveEvent(any());
+    }
+
     @Test
     public void return_all_exceptions_as_suppressed() {
         timeIs(5);
@@ -152,6 +234,41 @@ public class EventEmitterShould {
                 });
     }
 
+    @Test
+    public void include_how_long_each_service_took_in_the_log_collection_event()
+            throws IOException, InterruptedException {
+        OffsetDateTime startedTime = timeIs(5);
+        AtomicReference<OffsetDateTime> endTime = new AtomicReference<>();
+
+        eventEmitter.logCollection(() -> {
+            endTime.set(timeIs(10));
+            return ImmutableList.of(CollectedServiceLogs.builder()
+                    .serviceName("db")
+                    .startTime(Instant.ofEpochSecond(6))
+                    .endTime(Instant.ofEpochSecond(8))
+                    .failure("Timed out")
+                    .build());
+        });
+
+        Event logCollection = Event.logCollection(LogCollectionEvent.builder()
+                .task(Task.builder()
+                        .startTime(startedTime)
+                        .endTime(endTime.get())
+                        .build())
+                .services(ServiceLogCollection.builder()
+                        .serviceName("db")
+                        .task(Task.builder()
+                                .startTime(Instant.ofEpochSecond(6).atOffset(ZoneOffset.UTC))
+                                .endTime(Instant.ofEpochSecond(8).atOffset(ZoneOffset.UTC))
+                                .failure("Timed out")
+                                .build())
+                        .build())
+                .build());
+
+        inOrder.verify(eventConsumer1).receiveEvent(logCollection);
+        inOrder.verify(eventConsumer2).receiveEvent(logCollection);
+    }
+
     private OffsetDateTime timeIs(int seconds) {
         Instant instant = Instant.ofEpochSecond(seconds);
         when(clock.instant()).thenReturn(instant);
@@ -53,6 +53,22 @@ public class DockerComposeRuleConfigTest {
                         .build());
     }
 
+    @Test
+    public void can_deserialize_config_which_only_writes_reports_locally() throws IOException {
+        File config = temporaryFolder.newFile(".docker-compose-rule.yml");
+        Files.write(
+                config.toPath(),
+                ImmutableList.of("reporting:", "  localDirectory: build/reports"),
+                StandardCharsets.UTF_8);
+
+        assertThat(DockerComposeRuleConfig.findAutomaticallyFrom(temporaryFolder.getRoot())
+                        .flatMap(DockerComposeRuleConfig::reporting))
+                .hasValueSatisfying(reporting -> {
+                    assertThat(reporting.url()).isEmpty();
+                    assertThat(reporting.localDirectory()).hasValue("build/reports");
+                });
+    }
+
     @Test
     public void optional_empty_when_config_does_not_exist() {
         assertThat(DockerComposeRuleConfig.findAutomaticallyFrom(temporaryFolder.getRoot()))
@@ -0,0 +1,118 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+public class ClusterSnapshotShould {
+
+    private static final String LOCALHOST_IP = "127.0.0.1";
+
+    private static final String DB = "{\"ID\": \"abc\", \"Name\": \"project-db-1\", \"Service\": \"db\","
+            + " \"State\": \"running\", \"Health\": \"healthy\", \"ExitCode\": 0, \"Publishers\": ["
+            + "{\"URL\": \"0.0.0.0\", \"TargetPort\": 5432, \"PublishedPort\": 15432, \"Protocol\": \"tcp\"},"
+            + "{\"URL\": \"::\", \"TargetPort\": 5432, \"PublishedPort\": 15432, \"Protocol\": \"tcp\"},"
+            + "{\"URL\": \"\", \"TargetPort\": 9000, \"PublishedPort\": 0, \"Protocol\": \"tcp\"}]}";
+    private static final String WEB = "{\"ID\": \"def\", \"Name\": \"project-web-1\", \"Service\": \"web\","
+            + " \"State\": \"exited\", \"Health\": \"\", \"ExitCode\": 137, \"Publishers\": null,"
+            + " \"Labels\": {\"com.docker.compose.project\": \"project\"}}";
+
+    @Test
+    public void result_in_no_containers_when_ps_output_is_empty() {
+        assertThat(ClusterSnapshot.parseFromDockerComposePsJson("", LOCALHOST_IP))
+                .isEqualTo(ClusterSnapshot.empty());
+        assertThat(ClusterSnapshot.parseFromDockerComposePsJson("[]", LOCALHOST_IP))
+                .isEqualTo(ClusterSnapshot.empty());
+    }
+
+    @Test
+    public void parse_a_json_array_of_containers() {
+        ClusterSnapshot snapshot =
+                ClusterSnapshot.parseFromDockerComposePsJson("[" + DB + "," + WEB + "]", LOCALHOST_IP);
+
+        assertThat(snapshot.containers()).containsOnlyKeys("db", "web");
+    }
+
+    @Test
+    public void parse_one_container_per_line() {
+        ClusterSnapshot snapshot = ClusterSnapshot.parseFromDockerComposePsJson(DB + "\n" + WEB + "\n", LOCALHOST_IP);
+
+        assertThat(snapshot.containers()).containsOnlyKeys("db", "web");
+    }
+
+    @Test
+    public void include_the_id_state_and_published_tcp_ports_of_each_container() {
+        ClusterSnapshot snapshot = ClusterSnapshot.parseFromDockerComposePsJson(DB, LOCALHOST_IP);
+
+        assertThat(snapshot.container("db"))
+                .contains(ContainerSnapshot.builder()
+                        .id("abc")
+                        .name("project-db-1")
+                        .service("db")
+                        .state(State.HEALTHY)
+                        .ports(new Ports(new DockerPort(LOCALHOST_IP, 15432, 5432)))
+                        .build());
+    }
+
+    @Test
+    public void mark_containers_docker_is_restarting() {
+        String restarting = WEB.replace("\"exited\"", "\"restarting\"");
+
+        ContainerSnapshot web = ClusterSnapshot.parseFromDockerComposePsJson(restarting, LOCALHOST_IP)
+                .container("web")
+                .get();
+
+        assertThat(web.state()).isEqualTo(State.DOWN);
+        assertThat(web.restarting()).isTrue();
+    }
+
+    @Test
+    public void report_exited_containers_as_down_with_their_exit_code() {
+        ContainerSnapshot web = ClusterSnapshot.parseFromDockerComposePsJson(WEB, LOCALHOST_IP)
+                .container("web")
+                .get();
+
+        assertThat(web.state()).isEqualTo(State.DOWN);
+        assertThat(web.exitCode()).isEqualTo(137);
+        assertThat(web.ports()).isEqualTo(new Ports(ImmutableList.of()));
+    }
+
+    @Test
+    public void report_starting_containers_as_unhealthy_and_paused_containers_as_paused() {
+        String starting = "{\"Service\": \"a\", \"ID\": \"1\", \"Name\": \"a\", \"State\": \"running\","
+                + " \"Health\": \"starting\"}";
+        String paused = "{\"Service\": \"b\", \"ID\": \"2\", \"Name\": \"b\", \"State\": \"paused\"}";
+        ClusterSnapshot snapshot = ClusterSnapshot.parseFromDockerComposePsJson(starting + paused, LOCALHOST_IP);
+
+        assertThat(snapshot.container("a").get().state()).isEqualTo(State.UNHEALTHY);
+        assertThat(snapshot.container("b").get().state()).isEqualTo(State.PAUSED);
+    }
+
+    @Test
+    public void keep_ip_addresses_other_than_the_wildcard_address() {
+        String container = "{\"Service\": \"a\", \"ID\": \"1\", \"Name\": \"a\", \"State\": \"running\","
+                + " \"Publishers\": [{\"URL\": \"10.0.1.2\", \"TargetPort\": 2345, \"PublishedPort\": 1234}]}";
+
+        assertThat(ClusterSnapshot.parseFromDockerComposePsJson(container, LOCALHOST_IP)
+                        .container("a")
+                        .get()
+                        .ports())
+                .isEqualTo(new Ports(new DockerPort("10.0.1.2", 1234, 2345)));
+    }
+}
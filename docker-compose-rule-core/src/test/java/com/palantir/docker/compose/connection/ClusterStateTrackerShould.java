@@ -0,0 +1,181 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.execution.Docker;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClusterStateTrackerShould {
+    private static final String CONTAINER_ID = "abc";
+
+    private final Docker docker = mock(Docker.class);
+    private final Process eventsProcess = mock(Process.class);
+    private final PipedOutputStream events = new PipedOutputStream();
+    private final ClusterStateTracker tracker = new ClusterStateTracker(docker, "Project");
+    private final Semaphore changes = new Semaphore(0);
+
+    @Before
+    public void before() throws IOException, InterruptedException {
+        when(eventsProcess.getInputStream()).thenReturn(new PipedInputStream(events));
+        when(docker.followContainerEvents(anyVararg())).thenReturn(eventsProcess);
+        when(docker.health(ImmutableList.of(CONTAINER_ID)))
+                .thenReturn(ImmutableList.of(ContainerHealth.builder()
+                        .containerId(CONTAINER_ID)
+                        .serviceName("db")
+                        .hasHealthcheck(true)
+                        .state(State.UNHEALTHY)
+                        .build()));
+        tracker.addListener(changes::release);
+        tracker.start();
+    }
+
+    @After
+    public void after() {
+        tracker.close();
+    }
+
+    @Test
+    public void follow_events_for_the_lower_cased_project() throws IOException {
+        verify(docker).followContainerEvents("label=com.docker.compose.project=project");
+    }
+
+    @Test
+    public void inspect_containers_which_were_already_running_once() throws IOException, InterruptedException {
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+
+        assertThat(tracker.container(CONTAINER_ID).map(TrackedContainer::state)).contains(State.UNHEALTHY);
+        verify(docker, times(1)).health(ImmutableList.of(CONTAINER_ID));
+    }
+
+    @Test
+    public void inspect_a_container_the_first_time_it_starts() throws IOException, InterruptedException {
+        sendEvent("start");
+
+        assertThat(tracker.container(CONTAINER_ID).map(TrackedContainer::serviceName))
+                .contains("db");
+    }
+
+    @Test
+    public void update_the_health_of_a_container_from_events_without_inspecting_it_again()
+            throws IOException, InterruptedException {
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+
+        sendEvent("health_status: healthy");
+
+        assertThat(tracker.container(CONTAINER_ID).map(TrackedContainer::state)).contains(State.HEALTHY);
+        verify(docker, times(1)).health(ImmutableList.of(CONTAINER_ID));
+    }
+
+    @Test
+    public void record_exits_when_docker_restarts_a_container_under_its_restart_policy()
+            throws IOException, InterruptedException {
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+
+        sendEvent("die", "137");
+        TrackedContainer died = tracker.container(CONTAINER_ID).get();
+        assertThat(died.state()).isEqualTo(State.DOWN);
+        assertThat(died.exits()).isEqualTo(1);
+        assertThat(died.lastExitCode()).contains(137);
+        assertThat(died.stoppedAtNanos()).isPresent();
+
+        sendEvent("start");
+        sendEvent("die", "1");
+        sendEvent("start");
+        TrackedContainer restarted = tracker.container(CONTAINER_ID).get();
+        assertThat(restarted.exits()).isEqualTo(2);
+        assertThat(restarted.stoppedAtNanos()).isEmpty();
+        assertThat(restarted.healthStatus()).contains("starting");
+        assertThat(restarted.state()).isEqualTo(State.UNHEALTHY);
+    }
+
+    @Test
+    public void not_count_deliberate_stops_and_restarts_as_exits() throws IOException, InterruptedException {
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+
+        sendEvent("kill");
+        sendEvent("die", "143");
+        sendEvent("stop");
+        sendEvent("start");
+        sendEvent("restart");
+
+        assertThat(tracker.container(CONTAINER_ID).get().exits()).isZero();
+    }
+
+    @Test
+    public void forget_destroyed_containers() throws IOException, InterruptedException {
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+
+        sendEvent("destroy");
+
+        assertThat(tracker.container(CONTAINER_ID)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void tell_listeners_as_soon_as_a_container_changes() throws IOException, InterruptedException {
+        tracker.track(ImmutableList.of(CONTAINER_ID));
+        changes.drainPermits();
+
+        writeEvent("health_status: healthy", "0");
+
+        assertThat(changes.tryAcquire(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(tracker.container(CONTAINER_ID).map(TrackedContainer::state)).contains(State.HEALTHY);
+    }
+
+    @Test
+    public void stop_following_when_the_events_stream_ends() throws IOException, InterruptedException {
+        changes.drainPermits();
+        events.close();
+
+        assertThat(changes.tryAcquire(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(tracker.isFollowing()).isFalse();
+    }
+
+    private void sendEvent(String action) throws IOException, InterruptedException {
+        sendEvent(action, "0");
+    }
+
+    private void sendEvent(String action, String exitCode) throws IOException, InterruptedException {
+        changes.drainPermits();
+        writeEvent(action, exitCode);
+        assertThat(changes.tryAcquire(30, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void writeEvent(String action, String exitCode) throws IOException {
+        String event = "{\"Type\": \"container\", \"Action\": \"" + action + "\", \"Actor\": {\"ID\": \""
+                + CONTAINER_ID + "\", \"Attributes\": {\"com.docker.compose.service\": \"db\", \"exitCode\": \""
+                + exitCode + "\"}}}\n";
+        events.write(event.getBytes(StandardCharsets.UTF_8));
+        events.flush();
+    }
+}
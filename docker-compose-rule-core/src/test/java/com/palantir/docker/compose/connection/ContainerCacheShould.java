@@ -15,11 +15,27 @@
  */
 package com.palantir.docker.compose.connection;
 
+import static com.palantir.docker.compose.execution.DockerComposeLogsOption.options;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.execution.Docker;
 import com.palantir.docker.compose.execution.DockerCompose;
+import com.palantir.docker.compose.execution.DockerExecutionException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 
 public class ContainerCacheShould {
@@ -42,4 +58,342 @@ public class ContainerCacheShould {
         Container sameContainer = containers.container(CONTAINER_NAME);
         assertThat(container).isSameAs(sameContainer);
     }
+
+    @Test
+    public void tell_start_listeners_when_a_service_is_started_again() throws IOException, InterruptedException {
+        List<String> started = new ArrayList<>();
+        containers.addStartListener(started::add);
+
+        containers.container("db").start();
+        containers.container("web").up();
+
+        assertThat(started).containsExactly("db", "web");
+    }
+
+    @Test
+    public void only_return_the_health_of_containers_with_a_healthcheck() throws IOException, InterruptedException {
+        ContainerHealth withHealthcheck = health("abc", true);
+        when(dockerCompose.ids()).thenReturn(ImmutableList.of("abc", "def"));
+        when(docker.health(ImmutableList.of("abc", "def")))
+                .thenReturn(ImmutableList.of(withHealthcheck, health("def", false)));
+
+        assertThat(containers.nativeHealth()).containsExactly(withHealthcheck);
+    }
+
+    @Test
+    public void not_inspect_containers_without_a_healthcheck_again() throws IOException, InterruptedException {
+        ContainerHealth withHealthcheck = health("abc", true);
+        when(dockerCompose.ids()).thenReturn(ImmutableList.of("abc", "def"));
+        when(docker.health(ImmutableList.of("abc", "def")))
+                .thenReturn(ImmutableList.of(withHealthcheck, health("def", false)));
+        when(docker.health(ImmutableList.of("abc"))).thenReturn(ImmutableList.of(withHealthcheck));
+
+        containers.nativeHealth();
+
+        assertThat(containers.nativeHealth()).containsExactly(withHealthcheck);
+        verify(docker).health(ImmutableList.of("abc"));
+    }
+
+    @Test
+    public void not_call_docker_when_no_containers_have_a_healthcheck() throws IOException, InterruptedException {
+        when(dockerCompose.ids()).thenReturn(ImmutableList.of("def"));
+        when(docker.health(ImmutableList.of("def"))).thenReturn(ImmutableList.of(health("def", false)));
+
+        containers.nativeHealth();
+        containers.nativeHealth();
+
+        verify(docker).health(any());
+    }
+
+    @Test
+    public void serve_container_ids_and_ports_from_a_single_snapshot() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot()).thenReturn(snapshotOf("db", "abc", 5432), snapshotOf("db", "def", 5433));
+        when(docker.state("abc")).thenReturn(State.HEALTHY);
+        Container container = containers.container("db");
+
+        assertThat(container.state()).isEqualTo(State.HEALTHY);
+        assertThat(container.port(5432).getExternalPort()).isEqualTo(5432);
+
+        verify(dockerCompose).snapshot();
+        verify(dockerCompose, never()).id(any());
+        verify(dockerCompose, never()).ports(any());
+    }
+
+    @Test
+    public void take_a_new_snapshot_after_a_container_is_restarted() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot()).thenReturn(snapshotOf("db", "abc", 5432), snapshotOf("db", "def", 5433));
+        when(docker.state("def")).thenReturn(State.HEALTHY);
+        Container container = containers.container("db");
+        container.port(5432);
+
+        container.start();
+
+        assertThat(container.state()).isEqualTo(State.HEALTHY);
+        assertThat(container.port(5432).getExternalPort()).isEqualTo(5433);
+    }
+
+    @Test
+    public void take_a_new_snapshot_once_the_latest_is_a_second_old() throws Exception {
+        when(dockerCompose.snapshot()).thenReturn(snapshotOf("db", "abc", 5432), snapshotOf("db", "def", 5433));
+        when(docker.state("abc")).thenReturn(State.HEALTHY);
+        when(docker.state("def")).thenReturn(State.UNHEALTHY);
+        Container container = containers.container("db");
+
+        assertThat(container.state()).isEqualTo(State.HEALTHY);
+        Thread.sleep(1_100);
+
+        assertThat(container.state()).isEqualTo(State.UNHEALTHY);
+    }
+
+    @Test
+    public void keep_taking_snapshots_after_a_failure_which_may_pass() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot())
+                .thenThrow(new DockerExecutionException("Cannot connect to the Docker daemon"))
+                .thenReturn(snapshotOf("db", "abc", 5432));
+        when(dockerCompose.id(any())).thenReturn(Optional.of("abc"));
+        when(docker.state("abc")).thenReturn(State.HEALTHY);
+        Container container = containers.container("db");
+
+        container.state();
+        container.state();
+
+        verify(dockerCompose, times(2)).snapshot();
+        verify(dockerCompose, times(1)).id(any());
+    }
+
+    @Test
+    public void fall_back_to_per_container_queries_if_snapshots_are_not_supported()
+            throws IOException, InterruptedException {
+        Ports ports = new Ports(new DockerPort("127.0.0.1", 5432, 5432));
+        when(dockerCompose.snapshot()).thenThrow(new DockerExecutionException("unknown flag: --format"));
+        when(dockerCompose.ports("db")).thenReturn(ports);
+
+        assertThat(containers.container("db").ports()).isEqualTo(ports);
+        assertThat(containers.container("db").ports()).isEqualTo(ports);
+        verify(dockerCompose).snapshot();
+    }
+
+    @Test
+    public void fall_back_to_per_container_queries_for_implementations_which_can_not_take_snapshots()
+            throws IOException, InterruptedException {
+        Ports ports = new Ports(new DockerPort("127.0.0.1", 5432, 5432));
+        when(dockerCompose.snapshot()).thenThrow(new UnsupportedOperationException("can not take snapshots"));
+        when(dockerCompose.ports("db")).thenReturn(ports);
+
+        assertThat(containers.container("db").ports()).isEqualTo(ports);
+        assertThat(containers.container("db").ports()).isEqualTo(ports);
+        verify(dockerCompose).snapshot();
+    }
+
+    @Test
+    public void report_services_which_exited_with_an_error_with_the_end_of_their_logs()
+            throws IOException, InterruptedException {
+        when(dockerCompose.snapshot())
+                .thenReturn(ImmutableClusterSnapshot.builder()
+                        .putContainers("db", exited("db", 3))
+                        .putContainers("finished", exited("finished", 0))
+                        .putContainers("other", exited("other", 1))
+                        .build());
+        when(dockerCompose.writeLogs(eq(options("--tail", "50")), eq("db"), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream output = invocation.getArgument(2);
+                    for (int i = 1; i <= 60; i++) {
+                        output.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                    return true;
+                });
+
+        List<CrashedContainer> crashed = containers.crashedContainers(ImmutableList.of("db", "finished"));
+
+        assertThat(crashed).hasSize(1);
+        assertThat(crashed.get(0).serviceName()).isEqualTo("db");
+        assertThat(crashed.get(0).exitCode()).hasValue(3);
+        assertThat(crashed.get(0).lastLogLines())
+                .hasSize(50)
+                .startsWith("line 11")
+                .endsWith("line 60");
+        assertThat(crashed.get(0).describe()).startsWith("Service 'db' exited with code 3. Last 50 log lines:");
+    }
+
+    @Test
+    public void not_report_services_docker_is_restarting() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot())
+                .thenReturn(ImmutableClusterSnapshot.builder()
+                        .putContainers(
+                                "db",
+                                ContainerSnapshot.builder()
+                                        .from(exited("db", 1))
+                                        .restarting(true)
+                                        .build())
+                        .build());
+
+        assertThat(containers.crashedContainers(ImmutableList.of("db"))).isEmpty();
+    }
+
+    @Test
+    public void report_services_docker_keeps_restarting() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot())
+                .thenReturn(ImmutableClusterSnapshot.builder()
+                        .putContainers(
+                                "db",
+                                ContainerSnapshot.builder()
+                                        .from(exited("db", 1))
+                                        .restarting(true)
+                                        .build())
+                        .build());
+        when(docker.health(ImmutableList.of("db-id")))
+                .thenReturn(ImmutableList.of(ContainerHealth.builder()
+                        .from(health("db-id", false))
+                        .state(State.DOWN)
+                        .hasRestartPolicy(true)
+                        .restartCount(2)
+                        .build()));
+
+        List<CrashedContainer> crashed = containers.crashedContainers(ImmutableList.of("db"));
+
+        assertThat(crashed).extracting(CrashedContainer::serviceName).containsExactly("db");
+        assertThat(crashed.get(0).describe()).startsWith("Service 'db' exited with code 1 after restarting 2 times");
+    }
+
+    @Test
+    public void not_report_services_with_a_restart_policy_which_have_just_exited()
+            throws IOException, InterruptedException {
+        when(dockerCompose.snapshot())
+                .thenReturn(ImmutableClusterSnapshot.builder()
+                        .putContainers("db", exited("db", 1))
+                        .build());
+        when(docker.health(ImmutableList.of("db-id")))
+                .thenReturn(ImmutableList.of(ContainerHealth.builder()
+                        .from(health("db-id", false))
+                        .state(State.DOWN)
+                        .hasRestartPolicy(true)
+                        .build()));
+
+        assertThat(containers.crashedContainers(ImmutableList.of("db"))).isEmpty();
+    }
+
+    @Test
+    public void take_at_most_one_snapshot_per_interval_to_check_for_crashes() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot())
+                .thenReturn(ImmutableClusterSnapshot.builder()
+                        .putContainers("db", exited("db", 3))
+                        .build());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(containers.crashedContainers(ImmutableList.of("db"))).hasSize(1);
+        }
+
+        verify(dockerCompose, times(1)).snapshot();
+    }
+
+    @Test
+    public void not_report_crashes_if_snapshots_are_not_supported() throws IOException, InterruptedException {
+        when(dockerCompose.snapshot()).thenThrow(new DockerExecutionException("unknown flag: --format"));
+
+        assertThat(containers.crashedContainers(ImmutableList.of("db"))).isEmpty();
+        assertThat(containers.crashedContainers(ImmutableList.of("db"))).isEmpty();
+        verify(dockerCompose).snapshot();
+    }
+
+    @Test
+    public void report_crash_looping_services_seen_by_the_state_tracker() throws InterruptedException {
+        ClusterStateTracker tracker = mock(ClusterStateTracker.class);
+        when(tracker.isFollowing()).thenReturn(true);
+        when(tracker.containers())
+                .thenReturn(ImmutableList.of(
+                        TrackedContainer.builder()
+                                .containerId("abc")
+                                .serviceName("db")
+                                .hasHealthcheck(false)
+                                .running(true)
+                                .hasRestartPolicy(true)
+                                .exits(3)
+                                .lastExitCode(137)
+                                .build(),
+                        TrackedContainer.builder()
+                                .containerId("def")
+                                .serviceName("web")
+                                .hasHealthcheck(false)
+                                .running(true)
+                                .hasRestartPolicy(true)
+                                .exits(1)
+                                .lastExitCode(1)
+                                .build()));
+
+        List<CrashedContainer> crashed =
+                new ContainerCache(docker, dockerCompose, tracker).crashedContainers(ImmutableList.of("db", "web"));
+
+        assertThat(crashed).extracting(CrashedContainer::serviceName).containsExactly("db");
+        assertThat(crashed.get(0).describe()).startsWith("Service 'db' exited with code 137 after restarting 3 times");
+    }
+
+    @Test
+    public void report_services_with_a_restart_policy_once_they_have_stayed_down() throws InterruptedException {
+        ClusterStateTracker tracker = mock(ClusterStateTracker.class);
+        when(tracker.isFollowing()).thenReturn(true);
+        TrackedContainer justExited = TrackedContainer.builder()
+                .containerId("abc")
+                .serviceName("db")
+                .hasHealthcheck(false)
+                .running(false)
+                .hasRestartPolicy(true)
+                .exits(1)
+                .lastExitCode(1)
+                .stoppedAtNanos(System.nanoTime())
+                .build();
+        TrackedContainer withoutRestartPolicy = TrackedContainer.builder()
+                .from(justExited)
+                .containerId("def")
+                .serviceName("web")
+                .hasRestartPolicy(false)
+                .build();
+        when(tracker.containers()).thenReturn(ImmutableList.of(justExited, withoutRestartPolicy));
+        ContainerCache trackedContainers = new ContainerCache(docker, dockerCompose, tracker);
+
+        assertThat(trackedContainers.crashedContainers(ImmutableList.of("db", "web")))
+                .extracting(CrashedContainer::serviceName)
+                .containsExactly("web");
+
+        when(tracker.containers())
+                .thenReturn(ImmutableList.of(ImmutableTrackedContainer.copyOf(justExited)
+                        .withStoppedAtNanos(System.nanoTime() - TimeUnit.SECONDS.toNanos(10))));
+
+        assertThat(trackedContainers.crashedContainers(ImmutableList.of("db")))
+                .extracting(CrashedContainer::serviceName)
+                .containsExactly("db");
+    }
+
+    private static ContainerSnapshot exited(String service, int exitCode) {
+        return ContainerSnapshot.builder()
+                .id(service + "-id")
+                .name(service)
+                .service(service)
+                .state(State.DOWN)
+                .exitCode(exitCode)
+                .ports(new Ports(ImmutableList.of()))
+                .build();
+    }
+
+    private static ClusterSnapshot snapshotOf(String service, String id, int externalPort) {
+        return ImmutableClusterSnapshot.builder()
+                .putContainers(
+                        service,
+                        ContainerSnapshot.builder()
+                                .id(id)
+                                .name(service)
+                                .service(service)
+                                .state(State.HEALTHY)
+                                .ports(new Ports(new DockerPort("127.0.0.1", externalPort, 5432)))
+                                .build())
+                .build();
+    }
+
+    private static ContainerHealth health(String containerId, boolean hasHealthcheck) {
+        return ContainerHealth.builder()
+                .containerId(containerId)
+                .serviceName("service-" + containerId)
+                .hasHealthcheck(hasHealthcheck)
+                .state(State.HEALTHY)
+                .build();
+    }
 }
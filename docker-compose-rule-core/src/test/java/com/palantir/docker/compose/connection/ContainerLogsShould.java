@@ -0,0 +1,186 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.palantir.docker.compose.execution.Docker;
+import com.palantir.docker.compose.execution.DockerCompose;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContainerLogsShould {
+    private static final Duration ONE_SECOND = Duration.standardSeconds(1);
+
+    private final DockerCompose dockerCompose = mock(DockerCompose.class);
+    private final Process process = mock(Process.class);
+    private final AtomicBoolean alive = new AtomicBoolean(true);
+    private final PipedOutputStream output = new PipedOutputStream();
+    private final ContainerCache containerCache = new ContainerCache(mock(Docker.class), dockerCompose);
+
+    @Before
+    public void before() throws IOException, InterruptedException {
+        when(process.getInputStream()).thenReturn(new PipedInputStream(output, 64 * 1024));
+        when(process.isAlive()).thenAnswer(_invocation -> alive.get());
+        when(dockerCompose.followLogs("web")).thenReturn(process);
+    }
+
+    @After
+    public void after() {
+        containerCache.stopFollowingLogs();
+    }
+
+    @Test
+    public void return_the_last_lines_logged() throws Exception {
+        ContainerLogs logs = containerCache.logs("web");
+        log("one", "two", "three");
+        logs.awaitLine(Pattern.compile("three"), ONE_SECOND);
+
+        assertThat(logs.tail(2)).containsExactly("two", "three");
+        assertThat(logs.tail(10)).containsExactly("one", "two", "three");
+        assertThat(logs.lines()).containsExactly("one", "two", "three");
+    }
+
+    @Test
+    public void return_the_lines_logged_since_a_point_in_time() throws Exception {
+        ContainerLogs logs = containerCache.logs("web");
+        log("before");
+        logs.awaitLine(Pattern.compile("before"), ONE_SECOND);
+        Thread.sleep(10);
+        Instant now = Instant.now();
+        log("after");
+        logs.awaitLine(Pattern.compile("after"), ONE_SECOND);
+
+        assertThat(logs.since(now)).containsExactly("after");
+    }
+
+    @Test(timeout = 5000L)
+    public void return_a_matching_line_as_soon_as_it_is_logged() throws Exception {
+        ContainerLogs logs = containerCache.logs("web");
+        CompletableFuture<String> line = CompletableFuture.supplyAsync(() -> {
+            try {
+                return logs.awaitLine(Pattern.compile("started on port \\d+"), Duration.standardMinutes(1));
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        log("booting");
+        Thread.sleep(50);
+        assertThat(line).isNotDone();
+        log("started on port 8080");
+
+        assertThat(line.get()).isEqualTo("started on port 8080");
+    }
+
+    @Test
+    public void fail_with_the_last_lines_when_no_matching_line_is_logged_in_time() throws Exception {
+        ContainerLogs logs = containerCache.logs("web");
+        log("booting", "crashed");
+
+        assertThatThrownBy(() -> logs.awaitLine(Pattern.compile("started"), Duration.millis(200)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Container 'web' did not log a line matching 'started' within 200ms")
+                .hasMessageContaining("booting\n\tcrashed");
+    }
+
+    @Test
+    public void keep_the_lines_logged_once_the_container_has_stopped() throws Exception {
+        ContainerLogs logs = containerCache.logs("web");
+        log("one", "crashed");
+        logs.awaitLine(Pattern.compile("crashed"), ONE_SECOND);
+        output.close();
+        alive.set(false);
+
+        assertThat(logs.lines()).containsExactly("one", "crashed");
+        assertThat(logs.tail(1)).containsExactly("crashed");
+        verify(dockerCompose, times(1)).followLogs("web");
+    }
+
+    @Test
+    public void keep_the_lines_logged_until_the_logs_of_a_restarted_container_have_been_replayed() throws Exception {
+        Process restartedProcess = mock(Process.class);
+        PipedOutputStream restartedOutput = new PipedOutputStream();
+        when(restartedProcess.getInputStream()).thenReturn(new PipedInputStream(restartedOutput, 64 * 1024));
+        when(restartedProcess.isAlive()).thenReturn(true);
+        when(dockerCompose.followLogs("web")).thenReturn(process, restartedProcess);
+
+        ContainerLogs logs = containerCache.logs("web");
+        log("one", "two");
+        logs.awaitLine(Pattern.compile("two"), ONE_SECOND);
+        alive.set(false);
+        containerCache.serviceStarted("web");
+
+        write(restartedOutput, "one");
+        assertThat(logs.lines()).containsExactly("one", "two");
+
+        write(restartedOutput, "two", "three");
+        assertThat(logs.awaitLine(Pattern.compile("three"), ONE_SECOND)).isEqualTo("three");
+        assertThat(logs.lines()).containsExactly("one", "two", "three");
+        restartedOutput.close();
+    }
+
+    @Test
+    public void keep_only_the_most_recent_lines() {
+        LogRingBuffer buffer = new LogRingBuffer(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add("line " + i);
+        }
+
+        assertThat(buffer.written()).isEqualTo(5);
+        assertThat(buffer.linesFrom(0).stream().map(LogRingBuffer.Line::text).collect(Collectors.toList()))
+                .containsExactly("line 3", "line 4", "line 5");
+        assertThat(buffer.linesFrom(4).stream().map(LogRingBuffer.Line::text).collect(Collectors.toList()))
+                .containsExactly("line 5");
+    }
+
+    @Test
+    public void only_follow_the_logs_of_containers_from_a_cluster() {
+        Container container = new Container("web", mock(Docker.class), dockerCompose);
+
+        assertThatThrownBy(container::logs)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("'web' is not");
+    }
+
+    private void log(String... lines) throws IOException {
+        write(output, lines);
+    }
+
+    private static void write(PipedOutputStream stream, String... lines) throws IOException {
+        for (String line : lines) {
+            stream.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        stream.flush();
+    }
+}
@@ -29,6 +29,7 @@ import com.palantir.docker.compose.configuration.MockDockerEnvironment;
 import com.palantir.docker.compose.execution.Docker;
 import com.palantir.docker.compose.execution.DockerCompose;
 import java.io.IOException;
+import java.net.ServerSocket;
 import org.assertj.core.api.HamcrestCondition;
 import org.junit.Rule;
 import org.junit.Test;
@@ -108,9 +109,11 @@ public class ContainerShould {
 
     @Test
     public void have_all_ports_open_if_all_exposed_ports_are_open() throws Exception {
-        env.availableHttpService("service", IP, 1234, 1234);
+        try (ServerSocket listening = new ServerSocket(0)) {
+            env.availableHttpService("service", IP, listening.getLocalPort(), 1234);
 
-        assertThat(container.areAllPortsOpen()).is(new HamcrestCondition<>(is(successful())));
+            assertThat(container.areAllPortsOpen()).is(new HamcrestCondition<>(is(successful())));
+        }
     }
 
     @Test
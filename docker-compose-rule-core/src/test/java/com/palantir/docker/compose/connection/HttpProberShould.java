@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.docker.compose.connection.waiting.SuccessOrFailure;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.joda.time.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class HttpProberShould {
+    private static final Duration TIMEOUT = Duration.standardSeconds(5);
+
+    @Rule
+    public final WireMockRule server = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private final HttpProber httpClientProber = new HttpProber(TIMEOUT);
+    private final HttpProber urlConnectionProber = HttpProber.usingUrlConnections(TIMEOUT);
+
+    @Test
+    public void succeed_when_the_server_responds() throws MalformedURLException {
+        server.stubFor(get("/health").willReturn(aResponse().withStatus(200).withBody("OK")));
+
+        assertThat(httpClientProber.probe(url("/health"), true).succeeded()).isTrue();
+        assertThat(urlConnectionProber.probe(url("/health"), true).succeeded()).isTrue();
+    }
+
+    @Test
+    public void only_fail_on_a_404_when_checking_the_status() throws MalformedURLException {
+        server.stubFor(get("/missing").willReturn(aResponse().withStatus(404)));
+
+        for (HttpProber prober : new HttpProber[] {httpClientProber, urlConnectionProber}) {
+            assertThat(prober.probe(url("/missing"), false).succeeded()).isTrue();
+            assertThat(prober.probe(url("/missing"), true).toOptionalFailureMessage())
+                    .hasValueSatisfying(message -> assertThat(message).contains("Received 404"));
+        }
+    }
+
+    @Test
+    public void fail_on_server_errors() throws MalformedURLException {
+        server.stubFor(get("/broken").willReturn(aResponse().withStatus(503)));
+
+        for (HttpProber prober : new HttpProber[] {httpClientProber, urlConnectionProber}) {
+            assertThat(prober.probe(url("/broken"), false).toOptionalFailureMessage())
+                    .hasValueSatisfying(message -> assertThat(message).contains("503"));
+        }
+    }
+
+    @Test
+    public void fail_when_nothing_is_listening() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        URL url = new URL("http://127.0.0.1:" + closedPort + "/health");
+
+        for (HttpProber prober : new HttpProber[] {httpClientProber, urlConnectionProber}) {
+            assertThat(prober.probe(url, false).toOptionalFailureMessage())
+                    .hasValueSatisfying(message -> assertThat(message).contains("assuming port inactive"));
+        }
+    }
+
+    @Test
+    public void probe_asynchronously() throws Exception {
+        server.stubFor(get("/health").willReturn(aResponse().withStatus(204)));
+
+        SuccessOrFailure result =
+                httpClientProber.probeAsync(url("/health"), true).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+    }
+
+    @Test
+    public void reuse_one_connection_for_repeated_probes() throws Exception {
+        for (HttpProber prober : new HttpProber[] {new HttpProber(TIMEOUT), HttpProber.usingUrlConnections(TIMEOUT)}) {
+            try (KeepAliveServer keepAliveServer = new KeepAliveServer()) {
+                for (int i = 0; i < 5; i++) {
+                    assertThat(prober.probe(keepAliveServer.url(), true).succeeded())
+                            .isTrue();
+                }
+                assertThat(keepAliveServer.connections.get()).isEqualTo(1);
+            }
+        }
+    }
+
+    private URL url(String path) throws MalformedURLException {
+        return new URL("http://localhost:" + server.port() + path);
+    }
+
+    /** Answers every request on a connection with an empty 200, counting the connections it accepts. */
+    private static final class KeepAliveServer implements AutoCloseable {
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final ExecutorService threads = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setDaemon(true).build());
+        private final AtomicInteger connections = new AtomicInteger();
+
+        KeepAliveServer() throws IOException {
+            threads.execute(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        connections.incrementAndGet();
+                        threads.execute(() -> serve(socket));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        URL url() throws MalformedURLException {
+            return new URL("http://127.0.0.1:" + serverSocket.getLocalPort() + "/health");
+        }
+
+        private static void serve(Socket socket) {
+            try (Socket toClose = socket) {
+                BufferedReader requests =
+                        new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream responses = socket.getOutputStream();
+                String line;
+                while ((line = requests.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        responses.write(
+                                "HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                        responses.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // the client went away
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            threads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.palantir.docker.compose.connection.waiting.ClusterHealthCheck;
+import com.palantir.docker.compose.connection.waiting.ClusterWait;
+import com.palantir.docker.compose.connection.waiting.HealthChecks;
+import com.palantir.docker.compose.connection.waiting.PollPolicy;
+import com.palantir.docker.compose.execution.Docker;
+import com.palantir.docker.compose.execution.DockerCompose;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogFollowerShould {
+    private static final Pattern STARTED = Pattern.compile("started on port \\d+");
+
+    private final DockerCompose dockerCompose = mock(DockerCompose.class);
+    private final Process process = mock(Process.class);
+    private final AtomicBoolean alive = new AtomicBoolean(true);
+    private final PipedOutputStream logs = new PipedOutputStream();
+    private final ContainerCache containerCache = new ContainerCache(mock(Docker.class), dockerCompose);
+
+    @Before
+    public void before() throws IOException, InterruptedException {
+        when(process.getInputStream()).thenReturn(new PipedInputStream(logs, 64 * 1024));
+        when(process.isAlive()).thenAnswer(_invocation -> alive.get());
+        when(dockerCompose.followLogs("web")).thenReturn(process);
+    }
+
+    @After
+    public void after() {
+        containerCache.stopFollowingLogs();
+    }
+
+    @Test
+    public void match_lines_logged_before_the_first_check() throws Exception {
+        log("booting", "started on port 8080");
+
+        assertThat(containerCache.hasLogged("web", STARTED)).isFalse();
+        Thread.sleep(100);
+
+        assertThat(containerCache.hasLogged("web", STARTED)).isTrue();
+    }
+
+    @Test
+    public void tell_change_listeners_as_soon_as_a_matching_line_is_logged() throws Exception {
+        Runnable listener = mock(Runnable.class);
+        containerCache.addChangeListener(listener);
+        assertThat(containerCache.hasLogged("web", STARTED)).isFalse();
+
+        log("still booting");
+        Thread.sleep(50);
+        log("started on port 8080");
+
+        verify(listener, timeout(1000)).run();
+        assertThat(containerCache.hasLogged("web", STARTED)).isTrue();
+    }
+
+    @Test
+    public void only_follow_the_logs_once_however_often_they_are_checked() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            containerCache.hasLogged("web", STARTED);
+            containerCache.hasLogged("web", Pattern.compile("other"));
+        }
+
+        verify(dockerCompose, times(1)).followLogs("web");
+    }
+
+    @Test
+    public void not_follow_the_logs_again_on_every_check_once_the_container_has_stopped() throws Exception {
+        containerCache.hasLogged("web", STARTED);
+        alive.set(false);
+
+        for (int i = 0; i < 10; i++) {
+            containerCache.hasLogged("web", STARTED);
+        }
+
+        verify(dockerCompose, times(1)).followLogs("web");
+    }
+
+    @Test
+    public void follow_the_logs_again_once_the_container_has_been_restarted() throws Exception {
+        containerCache.hasLogged("web", STARTED);
+        alive.set(false);
+
+        containerCache.serviceStarted("web");
+        containerCache.hasLogged("web", STARTED);
+
+        verify(dockerCompose, times(2)).followLogs("web");
+    }
+
+    @Test
+    public void follow_the_logs_again_at_most_once_a_second_once_the_container_has_stopped() throws Exception {
+        containerCache.hasLogged("web", STARTED);
+        alive.set(false);
+        Thread.sleep(1_100);
+
+        for (int i = 0; i < 10; i++) {
+            containerCache.hasLogged("web", STARTED);
+        }
+
+        verify(dockerCompose, times(2)).followLogs("web");
+    }
+
+    @Test
+    public void stop_following_the_logs_when_asked_to() throws Exception {
+        containerCache.hasLogged("web", STARTED);
+
+        containerCache.stopFollowingLogs();
+
+        verify(process).destroy();
+    }
+
+    @Test(timeout = 5000L)
+    public void finish_a_wait_as_soon_as_the_line_is_logged_rather_than_on_the_next_poll() throws Exception {
+        Cluster cluster = ImmutableCluster.builder()
+                .ip("127.0.0.1")
+                .containerCache(containerCache)
+                .build();
+        ClusterWait wait = new ClusterWait(
+                        ClusterHealthCheck.serviceHealthCheck("web", HealthChecks.toLogLine(STARTED)),
+                        Duration.standardMinutes(1))
+                .withPollPolicy(PollPolicy.fixed(Duration.standardMinutes(1)));
+        when(dockerCompose.snapshot()).thenReturn(ClusterSnapshot.empty());
+
+        CompletableFuture<Void> ready = wait.waitUntilReadyAsync(cluster);
+        verify(dockerCompose, timeout(1000)).followLogs("web");
+        log("started on port 8080");
+
+        ready.get(2, TimeUnit.SECONDS);
+    }
+
+    private void log(String... lines) throws IOException {
+        for (String line : lines) {
+            logs.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        logs.flush();
+    }
+}
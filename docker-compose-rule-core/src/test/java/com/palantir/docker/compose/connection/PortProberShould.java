@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.net.ServerSocket;
+import org.junit.After;
+import org.junit.Test;
+
+public class PortProberShould {
+    private static final String LOCALHOST_IP = "127.0.0.1";
+
+    private final ServerSocket first = new ServerSocket(0);
+    private final ServerSocket second = new ServerSocket(0);
+
+    public PortProberShould() throws IOException {}
+
+    @After
+    public void after() throws IOException {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void report_every_listening_port_as_open() {
+        DockerPort firstPort = new DockerPort(LOCALHOST_IP, first.getLocalPort(), 1);
+        DockerPort secondPort = new DockerPort(LOCALHOST_IP, second.getLocalPort(), 2);
+
+        assertThat(PortProber.defaultProber().probe(ImmutableList.of(firstPort, secondPort)))
+                .containsExactly(entry(firstPort, true), entry(secondPort, true));
+    }
+
+    @Test
+    public void report_closed_ports_without_affecting_open_ones() throws IOException {
+        DockerPort open = new DockerPort(LOCALHOST_IP, first.getLocalPort(), 1);
+        DockerPort closed = new DockerPort(LOCALHOST_IP, second.getLocalPort(), 2);
+        second.close();
+
+        assertThat(PortProber.defaultProber().probe(ImmutableList.of(closed, open)))
+                .containsExactly(entry(closed, false), entry(open, true));
+    }
+
+    @Test
+    public void report_ports_on_unknown_hosts_as_closed() {
+        DockerPort unknownHost = new DockerPort("unknown.host.invalid", 1234, 1234);
+
+        assertThat(PortProber.defaultProber().isListening(unknownHost)).isFalse();
+    }
+
+    @Test
+    public void check_a_single_port_is_listening() {
+        assertThat(new DockerPort(LOCALHOST_IP, first.getLocalPort(), 1).isListeningNow())
+                .isTrue();
+    }
+}
@@ -17,18 +17,32 @@ package com.palantir.docker.compose.connection.waiting;
 
 import static com.palantir.docker.compose.connection.waiting.SuccessOrFailure.failure;
 import static com.palantir.docker.compose.connection.waiting.SuccessOrFailure.success;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.docker.compose.connection.Cluster;
+import com.palantir.docker.compose.connection.ClusterStateTracker;
+import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerCache;
+import com.palantir.docker.compose.connection.CrashedContainer;
 import com.palantir.docker.compose.connection.ImmutableCluster;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.joda.time.Duration;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
 
 public class ClusterWaitShould {
 
@@ -70,4 +84,116 @@ public class ClusterWaitShould {
 
         wait.waitUntilReady(cluster);
     }
+
+    @Test(timeout = 2000L)
+    public void timeout_with_the_same_message_when_woken_by_a_state_tracker() throws InterruptedException {
+        when(clusterHealthCheck.isClusterHealthy(cluster)).thenReturn(failure("failure!"));
+
+        exception.expect(IllegalStateException.class);
+        exception.expectMessage("The cluster failed to pass a startup check: failure!");
+
+        ClusterWait wait = new ClusterWait(clusterHealthCheck, DURATION, mock(ClusterStateTracker.class));
+
+        wait.waitUntilReady(cluster);
+    }
+
+    @Test
+    public void check_until_a_cluster_is_ready_when_woken_by_a_state_tracker() throws InterruptedException {
+        when(clusterHealthCheck.isClusterHealthy(cluster)).thenReturn(failure("failure!"), success());
+        ClusterWait wait = new ClusterWait(clusterHealthCheck, DURATION, mock(ClusterStateTracker.class));
+        wait.waitUntilReady(cluster);
+        verify(clusterHealthCheck, times(2)).isClusterHealthy(cluster);
+    }
+
+    @Test
+    public void propagate_exceptions_thrown_by_the_check() throws InterruptedException {
+        when(clusterHealthCheck.isClusterHealthy(cluster)).thenThrow(new IllegalArgumentException("broken check"));
+
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("broken check");
+
+        new ClusterWait(clusterHealthCheck, DURATION).waitUntilReady(cluster);
+    }
+
+    @Test
+    public void wait_without_blocking_the_calling_thread() throws Exception {
+        CountDownLatch healthy = new CountDownLatch(1);
+        when(clusterHealthCheck.isClusterHealthy(cluster))
+                .thenAnswer(_invocation -> SuccessOrFailure.fromBoolean(healthy.getCount() == 0, "not yet"));
+
+        CompletableFuture<Void> wait = new ClusterWait(clusterHealthCheck, DURATION).waitUntilReadyAsync(cluster);
+        assertThat(wait).isNotDone();
+
+        healthy.countDown();
+        wait.get(DURATION.getMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Test(timeout = 5000L)
+    public void time_out_other_waits_while_a_timed_out_wait_is_running_its_callbacks() throws Exception {
+        when(clusterHealthCheck.isClusterHealthy(cluster)).thenReturn(failure("failure!"));
+        CountDownLatch releaseCallback = new CountDownLatch(1);
+
+        CompletableFuture<Void> blocked = new ClusterWait(clusterHealthCheck, Duration.millis(50))
+                .waitUntilReadyAsync(cluster)
+                .whenComplete((_ignored, _error) -> Uninterruptibles.awaitUninterruptibly(releaseCallback));
+        CompletableFuture<Void> other =
+                new ClusterWait(clusterHealthCheck, Duration.millis(200)).waitUntilReadyAsync(cluster);
+
+        try {
+            assertThatThrownBy(() -> other.get(2, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            releaseCallback.countDown();
+        }
+        assertThatThrownBy(() -> blocked.get(2, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void stop_polling_once_cancelled() throws InterruptedException {
+        when(clusterHealthCheck.isClusterHealthy(cluster)).thenReturn(failure("failure!"));
+
+        CompletableFuture<Void> wait = new ClusterWait(clusterHealthCheck, DURATION).waitUntilReadyAsync(cluster);
+        verify(clusterHealthCheck, timeout(500).atLeastOnce()).isClusterHealthy(cluster);
+        wait.cancel(true);
+        Thread.sleep(100);
+        clearInvocations(clusterHealthCheck);
+
+        Thread.sleep(200);
+        verify(clusterHealthCheck, never()).isClusterHealthy(cluster);
+    }
+
+    @Test
+    public void check_again_as_soon_as_the_state_tracker_sees_a_change() throws Exception {
+        ClusterStateTracker tracker = mock(ClusterStateTracker.class);
+        when(clusterHealthCheck.isClusterHealthy(cluster)).thenReturn(failure("failure!"), success());
+
+        ClusterWait wait = new ClusterWait(clusterHealthCheck, Duration.standardMinutes(1), tracker);
+        CompletableFuture<Void> result = wait.waitUntilReadyAsync(cluster);
+        verify(clusterHealthCheck, timeout(200)).isClusterHealthy(cluster);
+
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(tracker).addListener(listener.capture());
+        Thread.sleep(20);
+        listener.getValue().run();
+
+        verify(clusterHealthCheck, timeout(300).times(2)).isClusterHealthy(cluster);
+        result.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test(timeout = 2000L)
+    public void give_up_as_soon_as_a_service_being_waited_for_crashes() throws InterruptedException {
+        HealthCheck<Container> neverHealthy = container -> failure("not yet");
+        when(containerCache.crashedContainers(ImmutableList.of("db")))
+                .thenReturn(ImmutableList.of(CrashedContainer.builder()
+                        .serviceName("db")
+                        .exitCode(1)
+                        .addLastLogLines("FATAL: could not start")
+                        .build()));
+
+        exception.expect(IllegalStateException.class);
+        exception.expectMessage("Service 'db' exited with code 1");
+        exception.expectMessage("FATAL: could not start");
+
+        new ClusterWait(ClusterHealthCheck.serviceHealthCheck("db", neverHealthy), Duration.standardMinutes(1))
+                .waitUntilReady(cluster);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection.waiting;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+import org.joda.time.Duration;
+
+/**
+ * Compares the default fixed 500ms polling with {@link PollPolicy#adaptive()} over synthetic readiness curves, each
+ * simulating a few hundred waits in virtual time. Latency is how long after the cluster became ready the wait noticed,
+ * and wasted checks are those made before it was ready.
+ */
+public final class PollPolicyBenchmark {
+    static final PollPolicy FIXED = PollPolicy.fixed(Duration.millis(500));
+    static final Map<String, ToLongFunction<Random>> READINESS_CURVES = ImmutableMap.of(
+            "ready within 200ms", curve -> curve.nextInt(200),
+            "ready after 3s +- 300ms", curve -> gaussian(curve, 3_000, 300),
+            "ready after 20s +- 2s", curve -> gaussian(curve, 20_000, 2_000),
+            "ready anywhere in 60s", curve -> curve.nextInt(60_000));
+
+    private static final int RUNS = 500;
+
+    final double meanLatencyMillis;
+    final double meanWastedChecks;
+
+    private PollPolicyBenchmark(double meanLatencyMillis, double meanWastedChecks) {
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.meanWastedChecks = meanWastedChecks;
+    }
+
+    @SuppressWarnings("checkstyle:BanSystemOut")
+    public static void main(String[] _args) {
+        READINESS_CURVES.forEach((name, curve) -> System.out.printf(
+                "%-26s fixed %s, adaptive %s%n", name, run(FIXED, curve), run(PollPolicy.adaptive(), curve)));
+    }
+
+    static PollPolicyBenchmark run(PollPolicy policy, ToLongFunction<Random> readinessCurve) {
+        Random random = new Random(42);
+        ReadinessHistory history = new ReadinessHistory();
+        long totalLatency = 0;
+        long totalWastedChecks = 0;
+
+        for (int run = 0; run < RUNS; run++) {
+            long readyAt = readinessCurve.applyAsLong(random);
+            PollSchedule schedule = new PollSchedule(policy, history.earliestExpectedMillis(), random);
+
+            long checkedAt = schedule.firstDelayMillis();
+            while (checkedAt < readyAt) {
+                totalWastedChecks++;
+                checkedAt += schedule.nextDelayMillis();
+            }
+
+            history.record(checkedAt);
+            totalLatency += checkedAt - readyAt;
+        }
+
+        return new PollPolicyBenchmark((double) totalLatency / RUNS, (double) totalWastedChecks / RUNS);
+    }
+
+    private static long gaussian(Random random, long mean, long standardDeviation) {
+        return Math.max(0, Math.round(mean + random.nextGaussian() * standardDeviation));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean latency %4.0fms / mean wasted checks %5.1f", meanLatencyMillis, meanWastedChecks);
+    }
+}
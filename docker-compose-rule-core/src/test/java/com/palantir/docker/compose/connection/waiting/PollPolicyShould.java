@@ -0,0 +1,155 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.connection.waiting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.joda.time.Duration;
+import org.junit.Test;
+
+public class PollPolicyShould {
+    private static final PollPolicy FIXED = PollPolicyBenchmark.FIXED;
+    private static final PollPolicy ADAPTIVE = PollPolicy.adaptive();
+
+    private final Random random = new Random(0);
+
+    @Test
+    public void check_at_the_same_interval_when_fixed() {
+        PollSchedule schedule = new PollSchedule(FIXED, Optional.empty(), random);
+
+        assertThat(schedule.firstDelayMillis()).isBetween(1L, 50L);
+        for (int i = 0; i < 10; i++) {
+            assertThat(schedule.nextDelayMillis()).isEqualTo(500L);
+        }
+    }
+
+    @Test
+    public void check_quickly_at_first_then_back_off_up_to_the_maximum_interval() {
+        PollPolicy policy = PollPolicy.builder()
+                .fastAttempts(2)
+                .fastInterval(Duration.millis(10))
+                .initialInterval(Duration.millis(100))
+                .multiplier(2)
+                .maxInterval(Duration.millis(500))
+                .build();
+        PollSchedule schedule = new PollSchedule(policy, Optional.empty(), random);
+
+        schedule.firstDelayMillis();
+        assertThat(delays(schedule, 7)).containsExactly(10L, 10L, 100L, 200L, 400L, 500L, 500L);
+    }
+
+    @Test
+    public void only_ever_shorten_intervals_with_jitter() {
+        PollPolicy policy = PollPolicy.builder()
+                .initialInterval(Duration.millis(100))
+                .jitter(0.5)
+                .build();
+        PollSchedule schedule = new PollSchedule(policy, Optional.empty(), random);
+
+        assertThat(delays(schedule, 100)).allSatisfy(delay -> assertThat(delay).isBetween(50L, 100L));
+    }
+
+    @Test
+    public void skip_to_when_the_cluster_is_expected_to_be_ready_once_learned() {
+        PollSchedule schedule = new PollSchedule(ADAPTIVE, Optional.of(3000L), random);
+
+        assertThat(schedule.firstDelayMillis()).isEqualTo(3000L);
+        assertThat(schedule.nextDelayMillis()).isBetween(80L, 100L);
+    }
+
+    @Test
+    public void ignore_the_learned_time_to_ready_unless_asked_to_use_it() {
+        PollSchedule schedule = new PollSchedule(FIXED, Optional.of(3000L), random);
+
+        assertThat(schedule.firstDelayMillis()).isBetween(1L, 50L);
+    }
+
+    @Test
+    public void expect_the_cluster_to_be_ready_a_little_before_it_usually_is() {
+        ReadinessHistory history = new ReadinessHistory();
+        assertThat(history.earliestExpectedMillis()).isEmpty();
+
+        for (int i = 0; i < 20; i++) {
+            history.record(i % 2 == 0 ? 2900 : 3100);
+        }
+
+        assertThat(history.earliestExpectedMillis())
+                .hasValueSatisfying(earliest -> assertThat(earliest).isBetween(2600L, 2900L));
+    }
+
+    @Test
+    public void not_skip_ahead_when_the_time_to_ready_is_unpredictable() {
+        ReadinessHistory history = new ReadinessHistory();
+
+        for (int i = 0; i < 20; i++) {
+            history.record(i % 2 == 0 ? 1000 : 5000);
+        }
+
+        assertThat(history.earliestExpectedMillis()).isEmpty();
+    }
+
+    @Test
+    public void reject_intervals_that_would_shrink() {
+        assertThatThrownBy(() -> PollPolicy.builder()
+                        .initialInterval(Duration.millis(100))
+                        .multiplier(0.5)
+                        .build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PollPolicy.builder()
+                        .initialInterval(Duration.millis(100))
+                        .maxInterval(Duration.millis(50))
+                        .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void never_notice_a_cluster_later_on_average_than_the_default_fixed_interval() {
+        PollPolicyBenchmark.READINESS_CURVES.forEach((name, curve) -> {
+            PollPolicyBenchmark fixed = PollPolicyBenchmark.run(PollPolicyBenchmark.FIXED, curve);
+            PollPolicyBenchmark adaptive = PollPolicyBenchmark.run(ADAPTIVE, curve);
+
+            assertThat(adaptive.meanLatencyMillis)
+                    .as("%s: adaptive %s, fixed %s", name, adaptive, fixed)
+                    .isLessThanOrEqualTo(fixed.meanLatencyMillis);
+        });
+    }
+
+    @Test
+    public void share_what_is_learned_between_waits_using_the_same_key() {
+        for (int i = 0; i < 5; i++) {
+            ReadinessHistory.shared("some cluster").record(3000);
+        }
+
+        assertThat(ReadinessHistory.shared("some cluster").earliestExpectedMillis())
+                .isPresent();
+        assertThat(ReadinessHistory.shared("another cluster").earliestExpectedMillis())
+                .isEmpty();
+    }
+
+    private static List<Long> delays(PollSchedule schedule, int count) {
+        List<Long> delays = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            delays.add(schedule.nextDelayMillis());
+        }
+        return delays;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.docker.compose.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.connection.Container;
+import com.palantir.docker.compose.connection.DockerPort;
+import com.palantir.docker.compose.connection.Ports;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingDockerComposeShould {
+    private static final Duration TIME_TO_LIVE = Duration.standardSeconds(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final DockerCompose dockerCompose = mock(DockerCompose.class);
+    private final Container db = mock(Container.class);
+    private final Container web = mock(Container.class);
+    private final CachingDockerCompose cachingDockerCompose =
+            new CachingDockerCompose(TIME_TO_LIVE, ticker, dockerCompose);
+
+    @Before
+    public void before() throws IOException, InterruptedException {
+        when(db.getContainerName()).thenReturn("db");
+        when(web.getContainerName()).thenReturn("web");
+        when(dockerCompose.services()).thenReturn(ImmutableList.of("db", "web"));
+        when(dockerCompose.ids()).thenReturn(ImmutableList.of("abc", "def"));
+        when(dockerCompose.id(db)).thenReturn(Optional.of("abc"));
+        when(dockerCompose.id(web)).thenReturn(Optional.of("def"));
+        when(dockerCompose.ports("db")).thenReturn(new Ports(new DockerPort("127.0.0.1", 5432, 5432)));
+    }
+
+    @Test
+    public void only_call_config_services_once() throws IOException, InterruptedException {
+        cachingDockerCompose.services();
+        advancePast(TIME_TO_LIVE);
+        cachingDockerCompose.up();
+
+        assertThat(cachingDockerCompose.services()).containsExactly("db", "web");
+        verify(dockerCompose).services();
+    }
+
+    @Test
+    public void reuse_container_queries_until_they_expire() throws IOException, InterruptedException {
+        cachingDockerCompose.ids();
+        cachingDockerCompose.id(db);
+        cachingDockerCompose.ports("db");
+
+        assertThat(cachingDockerCompose.ids()).containsExactly("abc", "def");
+        assertThat(cachingDockerCompose.id(db)).contains("abc");
+        verify(dockerCompose).ids();
+        verify(dockerCompose).id(db);
+        verify(dockerCompose).ports("db");
+
+        advancePast(TIME_TO_LIVE);
+        cachingDockerCompose.ids();
+        cachingDockerCompose.ports("db");
+
+        verify(dockerCompose, times(2)).ids();
+        verify(dockerCompose, times(2)).ports("db");
+    }
+
+    @Test
+    public void invalidate_everything_but_the_config_when_the_cluster_is_brought_up()
+            throws IOException, InterruptedException {
+        cachingDockerCompose.ids();
+        cachingDockerCompose.id(db);
+
+        cachingDockerCompose.up();
+        cachingDockerCompose.ids();
+        cachingDockerCompose.id(db);
+
+        verify(dockerCompose, times(2)).ids();
+        verify(dockerCompose, times(2)).id(db);
+    }
+
+    @Test
+    public void only_invalidate_the_affected_container_when_one_container_is_restarted()
+            throws IOException, InterruptedException {
+        cachingDockerCompose.id(db);
+        cachingDockerCompose.id(web);
+
+        cachingDockerCompose.stop(db);
+        cachingDockerCompose.start(db);
+        cachingDockerCompose.id(db);
+        cachingDockerCompose.id(web);
+
+        verify(dockerCompose, times(2)).id(db);
+        verify(dockerCompose).id(web);
+    }
+
+    @Test
+    public void invalidate_everything_but_the_config_when_bringing_the_cluster_up_fails()
+            throws IOException, InterruptedException {
+        doThrow(new DockerExecutionException("port is already allocated"))
+                .when(dockerCompose)
+                .up();
+        cachingDockerCompose.ids();
+        cachingDockerCompose.id(db);
+
+        assertThatThrownBy(cachingDockerCompose::up).isInstanceOf(DockerExecutionException.class);
+        cachingDockerCompose.ids();
+        cachingDockerCompose.id(db);
+
+        verify(dockerCompose, times(2)).ids();
+        verify(dockerCompose, times(2)).id(db);
+    }
+
+    private void advancePast(Duration duration) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(duration.getMillis() + 1));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.palantir.docker.compose.connection.Container;
+import java.io.IOException;
+import org.junit.Test;
+
+public class ChangeNotifyingDockerComposeShould {
+    private final DockerCompose dockerCompose = mock(DockerCompose.class);
+    private final Runnable onChange = mock(Runnable.class);
+    private final ChangeNotifyingDockerCompose notifyingDockerCompose =
+            new ChangeNotifyingDockerCompose(dockerCompose, onChange);
+
+    @Test
+    public void notify_after_commands_which_change_containers() throws IOException, InterruptedException {
+        notifyingDockerCompose.rm();
+        notifyingDockerCompose.start(mock(Container.class));
+
+        verify(dockerCompose).rm();
+        verify(onChange, times(2)).run();
+    }
+
+    @Test
+    public void notify_even_when_the_command_fails() throws IOException, InterruptedException {
+        doThrow(new DockerExecutionException("port is already allocated"))
+                .when(dockerCompose)
+                .up();
+
+        assertThatThrownBy(notifyingDockerCompose::up).isInstanceOf(DockerExecutionException.class);
+
+        verify(onChange).run();
+    }
+
+    @Test
+    public void not_notify_after_queries() throws IOException, InterruptedException {
+        notifyingDockerCompose.ps();
+        notifyingDockerCompose.config();
+
+        verify(onChange, never()).run();
+    }
+}
@@ -19,15 +19,24 @@ import static com.palantir.docker.compose.execution.DockerComposeExecArgument.ar
 import static com.palantir.docker.compose.execution.DockerComposeExecOption.options;
 import static org.apache.commons.io.IOUtils.toInputStream;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.ContainerName;
+import com.palantir.docker.compose.connection.ContainerSnapshot;
 import com.palantir.docker.compose.connection.DockerMachine;
 import com.palantir.docker.compose.connection.DockerPort;
 import com.palantir.docker.compose.connection.ImmutableContainerName;
@@ -36,6 +45,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -63,6 +73,28 @@ public class DockerComposeShould {
         when(container.getContainerName()).thenReturn("my-container");
     }
 
+    @Test
+    public void fall_back_to_older_methods_for_implementations_which_do_not_override_newer_ones()
+            throws IOException, InterruptedException {
+        DockerCompose olderCompose = mock(DockerCompose.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        doReturn(ImmutableList.of("db", "web", "stopped")).when(olderCompose).services();
+        doAnswer(invocation -> {
+                    String name = invocation.<Container>getArgument(0).getContainerName();
+                    return name.equals("stopped") ? Optional.empty() : Optional.of(name + "-id");
+                })
+                .when(olderCompose)
+                .id(any(Container.class));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        doReturn(true).when(olderCompose).writeLogs("db", output);
+
+        assertThat(olderCompose.ids()).containsExactly("db-id", "web-id");
+        assertThat(olderCompose.writeLogs(DockerComposeLogsOption.options("--tail", "50"), "db", output))
+                .isTrue();
+        verify(olderCompose).writeLogs("db", output);
+        assertThatThrownBy(olderCompose::snapshot).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> olderCompose.followLogs("db")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
     @Test
     public void call_docker_compose_up_with_daemon_flag_on_up() throws IOException, InterruptedException {
         compose.up();
@@ -110,6 +142,34 @@ public class DockerComposeShould {
         assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("logs");
     }
 
+    @Test
+    public void pass_logs_options_before_the_container_name() throws IOException {
+        when(executedProcess.getInputStream())
+                .thenReturn(toInputStream("docker-compose version 1.7.0, build 1ad8866"), toInputStream("logs"));
+
+        compose.writeLogs(DockerComposeLogsOption.options("--timestamps"), "db", new ByteArrayOutputStream());
+        verify(executor).execute("logs", "--no-color", "--timestamps", "db");
+    }
+
+    @Test
+    public void write_logs_larger_than_the_copy_buffer_in_full() throws IOException {
+        String logs = Strings.repeat("a line of logs\n", ProcessOutputTransfer.BUFFER_SIZE / 5);
+        when(executedProcess.getInputStream())
+                .thenReturn(toInputStream("docker-compose version 1.7.0, build 1ad8866"), toInputStream(logs));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        compose.writeLogs("db", output);
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(logs);
+    }
+
+    @Test
+    public void follow_the_logs_of_a_container() throws IOException, InterruptedException {
+        when(executedProcess.getInputStream()).thenReturn(toInputStream("docker-compose version 1.7.0, build 1ad8866"));
+
+        assertThat(compose.followLogs("db")).isSameAs(executedProcess);
+        verify(executor).execute("logs", "--no-color", "--follow", "db");
+    }
+
     @Test
     public void call_docker_compose_with_no_container_on_logs() throws IOException {
         reset(executor);
@@ -171,6 +231,25 @@ public class DockerComposeShould {
         verify(executor).execute("down", "--volumes");
     }
 
+    @Test
+    public void list_the_ids_of_all_containers_with_a_single_ps() throws IOException, InterruptedException {
+        when(executedProcess.getInputStream()).thenReturn(toInputStream("abc\ndef\n"));
+
+        assertThat(compose.ids()).containsExactly("abc", "def");
+        verify(executor).execute("ps", "-q");
+    }
+
+    @Test
+    public void take_a_snapshot_of_the_cluster_with_a_single_json_ps() throws IOException, InterruptedException {
+        when(executedProcess.getInputStream())
+                .thenReturn(toInputStream(
+                        "{\"ID\": \"abc\", \"Name\": \"dir-db-1\", \"Service\": \"db\"," + " \"State\": \"running\"}"));
+
+        assertThat(compose.snapshot().container("db").map(ContainerSnapshot::id))
+                .contains("abc");
+        verify(executor).execute("ps", "--all", "--format", "json");
+    }
+
     @Test
     public void parse_the_ps_output_on_ports() throws IOException, InterruptedException {
         Ports ports = compose.ports("db");
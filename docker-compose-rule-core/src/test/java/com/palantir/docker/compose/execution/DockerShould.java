@@ -17,12 +17,18 @@ package com.palantir.docker.compose.execution;
 
 import static org.apache.commons.io.IOUtils.toInputStream;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Matchers.anyVararg;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import com.github.zafarkhaja.semver.Version;
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.connection.ContainerHealth;
+import com.palantir.docker.compose.connection.State;
 import java.io.IOException;
 import org.junit.Before;
 import org.junit.Test;
@@ -69,6 +75,38 @@ public class DockerShould {
         verify(executor).execute("network", "prune", "--force");
     }
 
+    @Test
+    public void inspect_the_health_of_all_containers_at_once() throws IOException, InterruptedException {
+        when(executedProcess.getInputStream())
+                .thenReturn(toInputStream("abc db true UNHEALTHY false 0\ndef web false HEALTHY true 4\n"));
+
+        assertThat(docker.health(ImmutableList.of("abc", "def")))
+                .containsExactly(
+                        ContainerHealth.builder()
+                                .containerId("abc")
+                                .serviceName("db")
+                                .hasHealthcheck(true)
+                                .state(State.UNHEALTHY)
+                                .build(),
+                        ContainerHealth.builder()
+                                .containerId("def")
+                                .serviceName("web")
+                                .hasHealthcheck(false)
+                                .state(State.HEALTHY)
+                                .hasRestartPolicy(true)
+                                .restartCount(4)
+                                .build());
+
+        verify(executor).execute(eq("inspect"), startsWith("--format="), eq("abc"), eq("def"));
+    }
+
+    @Test
+    public void not_call_docker_inspect_without_any_containers() throws IOException, InterruptedException {
+        assertThat(docker.health(ImmutableList.of())).isEmpty();
+
+        verifyZeroInteractions(executor);
+    }
+
     @Test
     public void understand_old_version_format() throws IOException, InterruptedException {
         when(executedProcess.getInputStream()).thenReturn(toInputStream("Docker version 1.7.2"));
@@ -0,0 +1,248 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.apache.commons.io.IOUtils.toInputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.configuration.EnvironmentVariables;
+import com.palantir.docker.compose.connection.ContainerHealth;
+import com.palantir.docker.compose.connection.State;
+import java.io.IOException;
+import java.net.ServerSocket;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class EngineApiDockerShould {
+    private final DockerExecutable executor = mock(DockerExecutable.class);
+    private final Process executedProcess = mock(Process.class);
+
+    @Rule
+    public final WireMockRule fakeDaemon = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private Docker docker;
+
+    @Before
+    public void before() throws IOException {
+        when(executor.execute(anyVararg())).thenReturn(executedProcess);
+        when(executedProcess.exitValue()).thenReturn(0);
+
+        fakeDaemon.stubFor(get("/_ping").willReturn(aResponse().withBody("OK")));
+        docker = EngineApiDocker.connectOrFallBackToCli("tcp://localhost:" + fakeDaemon.port(), executor);
+    }
+
+    @Test
+    public void use_the_engine_api_when_the_daemon_responds_to_a_ping() {
+        assertThat(docker).isInstanceOf(EngineApiDocker.class);
+    }
+
+    @Test
+    public void fall_back_to_the_cli_when_the_daemon_cannot_be_reached() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        assertThat(EngineApiDocker.connectOrFallBackToCli("tcp://localhost:" + closedPort, executor))
+                .isNotInstanceOf(EngineApiDocker.class);
+    }
+
+    @Test
+    public void fall_back_to_the_cli_for_unsupported_docker_hosts() {
+        assertThat(EngineApiDocker.connectOrFallBackToCli("ssh://user@remote", executor))
+                .isNotInstanceOf(EngineApiDocker.class);
+    }
+
+    @Test
+    public void only_connect_to_the_daemon_when_first_used() throws IOException, InterruptedException {
+        ProcessBuilder dockerProcess = new ProcessBuilder();
+        dockerProcess.environment().put(EnvironmentVariables.DOCKER_HOST, "tcp://localhost:" + fakeDaemon.port());
+        dockerProcess.environment().remove(EnvironmentVariables.DOCKER_TLS_VERIFY);
+        DockerConfiguration configuration = mock(DockerConfiguration.class);
+        when(configuration.configuredDockerComposeProcess()).thenReturn(dockerProcess);
+        when(executor.dockerConfiguration()).thenReturn(configuration);
+        fakeDaemon.resetRequests();
+
+        EngineApiDocker lazyDocker = EngineApiDocker.connectingOnFirstUse(executor);
+        fakeDaemon.verify(0, getRequestedFor(urlEqualTo("/_ping")));
+
+        stubInspect("{\"State\": {\"Running\": true}}");
+        assertThat(lazyDocker.state("abc")).isEqualTo(State.HEALTHY);
+        assertThat(lazyDocker.state("abc")).isEqualTo(State.HEALTHY);
+        fakeDaemon.verify(1, getRequestedFor(urlEqualTo("/_ping")));
+        verify(executor, never()).execute(anyVararg());
+    }
+
+    @Test
+    public void reconnect_when_used_after_being_closed() throws IOException, InterruptedException {
+        stubInspect("{\"State\": {\"Running\": true}}");
+
+        assertThat(docker.state("abc")).isEqualTo(State.HEALTHY);
+        ((EngineApiDocker) docker).close();
+        assertThat(docker.state("abc")).isEqualTo(State.HEALTHY);
+
+        fakeDaemon.verify(2, getRequestedFor(urlEqualTo("/containers/abc/json")));
+        verify(executor, never()).execute(anyVararg());
+    }
+
+    @Test
+    public void report_a_healthy_container() throws IOException, InterruptedException {
+        stubInspect("{\"State\": {\"Running\": true, \"Paused\": false, \"Health\": {\"Status\": \"healthy\"}}}");
+
+        assertThat(docker.state("abc")).isEqualTo(State.HEALTHY);
+        verifyZeroInteractions(executor);
+    }
+
+    @Test
+    public void report_a_running_container_without_a_healthcheck_as_healthy() throws IOException, InterruptedException {
+        stubInspect("{\"State\": {\"Running\": true, \"Paused\": false}}");
+
+        assertThat(docker.state("abc")).isEqualTo(State.HEALTHY);
+    }
+
+    @Test
+    public void report_a_starting_container_as_unhealthy() throws IOException, InterruptedException {
+        stubInspect("{\"State\": {\"Running\": true, \"Paused\": false, \"Health\": {\"Status\": \"starting\"}}}");
+
+        assertThat(docker.state("abc")).isEqualTo(State.UNHEALTHY);
+    }
+
+    @Test
+    public void report_paused_and_stopped_containers() throws IOException, InterruptedException {
+        stubInspect("{\"State\": {\"Running\": true, \"Paused\": true}}");
+        assertThat(docker.state("abc")).isEqualTo(State.PAUSED);
+
+        stubInspect("{\"State\": {\"Running\": false, \"Paused\": false}}");
+        assertThat(docker.state("abc")).isEqualTo(State.DOWN);
+    }
+
+    @Test
+    public void serve_repeated_inspections_without_forking_the_cli() throws IOException, InterruptedException {
+        stubInspect("{\"State\": {\"Running\": true}}");
+
+        for (int i = 0; i < 10; i++) {
+            docker.state("abc");
+        }
+
+        fakeDaemon.verify(10, getRequestedFor(urlEqualTo("/containers/abc/json")));
+        verifyZeroInteractions(executor);
+    }
+
+    @Test
+    public void report_the_health_and_service_of_each_container() throws IOException, InterruptedException {
+        stubInspect("{\"Id\": \"abc\", \"Config\": {\"Labels\": {\"com.docker.compose.service\": \"db\"}},"
+                + " \"State\": {\"Running\": true, \"Health\": {\"Status\": \"starting\"}},"
+                + " \"HostConfig\": {\"RestartPolicy\": {\"Name\": \"on-failure\"}}, \"RestartCount\": 2}");
+
+        assertThat(docker.health(ImmutableList.of("abc")))
+                .containsExactly(ContainerHealth.builder()
+                        .containerId("abc")
+                        .serviceName("db")
+                        .hasHealthcheck(true)
+                        .state(State.UNHEALTHY)
+                        .hasRestartPolicy(true)
+                        .restartCount(2)
+                        .build());
+        verifyZeroInteractions(executor);
+    }
+
+    @Test
+    public void throw_a_docker_execution_exception_when_a_container_does_not_exist() {
+        fakeDaemon.stubFor(get("/containers/missing/json")
+                .willReturn(aResponse().withStatus(404).withBody("{\"message\": \"No such container: missing\"}")));
+
+        assertThatThrownBy(() -> docker.state("missing"))
+                .isInstanceOf(DockerExecutionException.class)
+                .hasMessageContaining("No such container: missing");
+    }
+
+    @Test
+    public void force_remove_every_container() throws IOException, InterruptedException {
+        fakeDaemon.stubFor(
+                delete("/containers/one?force=true").willReturn(aResponse().withStatus(204)));
+        fakeDaemon.stubFor(
+                delete("/containers/two?force=true").willReturn(aResponse().withStatus(204)));
+
+        docker.rm("one", "two");
+
+        fakeDaemon.verify(deleteRequestedFor(urlEqualTo("/containers/one?force=true")));
+        fakeDaemon.verify(deleteRequestedFor(urlEqualTo("/containers/two?force=true")));
+    }
+
+    @Test
+    public void remove_the_remaining_containers_before_reporting_failures() {
+        fakeDaemon.stubFor(delete("/containers/one?force=true")
+                .willReturn(aResponse().withStatus(409).withBody("removal already in progress")));
+        fakeDaemon.stubFor(
+                delete("/containers/two?force=true").willReturn(aResponse().withStatus(204)));
+
+        assertThatThrownBy(() -> docker.rm("one", "two"))
+                .isInstanceOf(DockerExecutionException.class)
+                .hasMessageContaining("one: removal already in progress");
+        fakeDaemon.verify(deleteRequestedFor(urlEqualTo("/containers/two?force=true")));
+    }
+
+    @Test
+    public void list_networks_in_the_same_format_as_the_cli() throws IOException, InterruptedException {
+        fakeDaemon.stubFor(get("/networks")
+                .willReturn(okJson("[{\"Id\": \"0123456789abcdef\", \"Name\": \"bridge\", \"Driver\": \"bridge\","
+                        + " \"Scope\": \"local\"}]")));
+
+        assertThat(docker.listNetworks().split(System.lineSeparator()))
+                .containsExactly("NETWORK ID     NAME     DRIVER   SCOPE", "0123456789ab   bridge   bridge   local");
+    }
+
+    @Test
+    public void prune_networks() throws IOException, InterruptedException {
+        fakeDaemon.stubFor(post("/networks/prune").willReturn(okJson("{\"NetworksDeleted\": [\"abc_default\"]}")));
+
+        assertThat(docker.pruneNetworks().split(System.lineSeparator()))
+                .containsExactly("Deleted Networks:", "abc_default");
+    }
+
+    @Test
+    public void fall_back_to_the_cli_if_the_daemon_goes_away() throws IOException, InterruptedException {
+        when(executedProcess.getInputStream()).thenReturn(toInputStream("HEALTHY"));
+        fakeDaemon.stop();
+
+        assertThat(docker.state("abc")).isEqualTo(State.HEALTHY);
+        verify(executor).execute(anyVararg());
+    }
+
+    private void stubInspect(String json) {
+        fakeDaemon.stubFor(get("/containers/abc/json").willReturn(okJson(json)));
+    }
+}
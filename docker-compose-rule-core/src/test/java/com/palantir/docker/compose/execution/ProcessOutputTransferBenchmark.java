@@ -0,0 +1,118 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.execution;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Measures how quickly logs can be copied out of a real process pipe into a file, the way
+ * {@link DefaultDockerCompose#writeLogs} does. A synthetic log is written once and then piped through
+ * <code>cat</code> until the requested size has been copied. Run with the size in megabytes as the only argument,
+ * for example <code>ProcessOutputTransferBenchmark 4096</code>.
+ */
+public final class ProcessOutputTransferBenchmark {
+    private static final int SYNTHETIC_LOG_MEGABYTES = 64;
+    private static final int ROUNDS = 3;
+
+    private ProcessOutputTransferBenchmark() {}
+
+    private interface Copy {
+        long copy(InputStream input, FileOutputStream output) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        File directory = Files.createTempDirectory("log-transfer-benchmark").toFile();
+        File syntheticLog = writeSyntheticLog(directory);
+        File output = new File(directory, "output.log");
+        int repetitions = Math.max(1, megabytes / SYNTHETIC_LOG_MEGABYTES);
+
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                // what IOUtils.copy does, without overflowing its int count past 2GB
+                measure("IOUtils.copy", IOUtils::copyLarge, syntheticLog, repetitions, output);
+                measure(
+                        "FileChannel.transferFrom",
+                        ProcessOutputTransferBenchmark::transferFrom,
+                        syntheticLog,
+                        repetitions,
+                        output);
+                measure("ProcessOutputTransfer", ProcessOutputTransfer::transfer, syntheticLog, repetitions, output);
+            }
+        } finally {
+            output.delete();
+            syntheticLog.delete();
+            directory.delete();
+        }
+    }
+
+    private static void measure(String name, Copy copy, File syntheticLog, int repetitions, File output)
+            throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                        "sh", "-c", "for i in $(seq " + repetitions + "); do cat '" + syntheticLog + "'; done")
+                .start();
+        long start = System.nanoTime();
+        long bytes;
+        try (FileOutputStream outputStream = new FileOutputStream(output)) {
+            bytes = copy.copy(process.getInputStream(), outputStream);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        process.waitFor(1, TimeUnit.MINUTES);
+
+        double megabytesCopied = bytes / 1e6;
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf(
+                "%-26s %8.0f MB in %6.2fs = %6.0f MB/s%n", name, megabytesCopied, seconds, megabytesCopied / seconds);
+    }
+
+    private static long transferFrom(InputStream input, FileOutputStream output) throws IOException {
+        FileChannel channel = output.getChannel();
+        ReadableByteChannel source = Channels.newChannel(input);
+        long position = 0;
+        long transferred;
+        while ((transferred = channel.transferFrom(source, position, 8 * 1024 * 1024)) > 0) {
+            position += transferred;
+        }
+        return position;
+    }
+
+    private static File writeSyntheticLog(File directory) throws IOException {
+        File syntheticLog = new File(directory, "synthetic.log");
+        long target = SYNTHETIC_LOG_MEGABYTES * 1024L * 1024L;
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(syntheticLog.toPath(), StandardCharsets.UTF_8)) {
+            for (int request = 0; written < target; request++) {
+                String line = "2026-01-01T12:00:00.000Z INFO  [qtp-" + (request % 16) + "] com.example.Service - "
+                        + "handled request " + request + " in " + (request % 97) + "ms with status 200\n";
+                writer.write(line);
+                written += line.length();
+            }
+        }
+        return syntheticLog;
+    }
+}
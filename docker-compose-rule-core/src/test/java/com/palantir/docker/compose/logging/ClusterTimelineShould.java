@@ -0,0 +1,142 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClusterTimelineShould {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File logDirectory;
+
+    @Before
+    public void before() throws IOException {
+        logDirectory = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void merge_the_logs_of_every_service_in_timestamp_order() throws IOException {
+        writePlain("db", "db-1  | 2026-01-01T00:00:01.000000000Z a", "db-1  | 2026-01-01T00:00:04.000000000Z d");
+        writePlain("web", "web-1  | 2026-01-01T00:00:02.000000000Z b", "web-1  | 2026-01-01T00:00:05.000000000Z e");
+        writePlain("queue", "queue-1  | 2026-01-01T00:00:03.000000000Z c");
+
+        ClusterTimeline.write(logDirectory, ImmutableList.of("db", "web", "queue"), LogFileFormat.plain());
+
+        assertThat(messagesOf(plainTimeline())).containsExactly("a", "b", "c", "d", "e");
+    }
+
+    @Test
+    public void keep_lines_without_a_timestamp_with_the_line_before_them() throws IOException {
+        writePlain("db", "db-1  | 2026-01-01T00:00:01Z Exception", "db-1  |     at Foo.bar", "db-1  |     at Foo.baz");
+        writePlain("web", "web-1  | 2026-01-01T00:00:02Z after");
+
+        ClusterTimeline.write(logDirectory, ImmutableList.of("db", "web"), LogFileFormat.plain());
+
+        assertThat(plainTimeline())
+                .containsExactly(
+                        "db-1  | 2026-01-01T00:00:01Z Exception",
+                        "db-1  |     at Foo.bar",
+                        "db-1  |     at Foo.baz",
+                        "web-1  | 2026-01-01T00:00:02Z after");
+    }
+
+    @Test
+    public void keep_the_order_of_the_services_for_lines_logged_at_the_same_time() throws IOException {
+        writePlain("db", "db-1  | 2026-01-01T00:00:01Z db");
+        writePlain("web", "web-1  | 2026-01-01T00:00:01Z web");
+
+        ClusterTimeline.write(logDirectory, ImmutableList.of("web", "db"), LogFileFormat.plain());
+
+        assertThat(messagesOf(plainTimeline())).containsExactly("web", "db");
+    }
+
+    @Test
+    public void read_and_write_gzipped_logs_split_across_segments() throws IOException {
+        LogFileFormat format = LogFileFormat.builder()
+                .compressed(true)
+                .maxTailBytes(1_000_000)
+                .segmentBytes(40)
+                .build();
+        try (OutputStream db = format.open(logDirectory, "db")) {
+            for (int second = 1; second <= 9; second += 2) {
+                IOUtils.write("db | 2026-01-01T00:00:0" + second + "Z " + second + "\n", db, StandardCharsets.UTF_8);
+            }
+        }
+        try (OutputStream web = format.open(logDirectory, "web")) {
+            for (int second = 2; second <= 8; second += 2) {
+                IOUtils.write("web | 2026-01-01T00:00:0" + second + "Z " + second + "\n", web, StandardCharsets.UTF_8);
+            }
+        }
+
+        ClusterTimeline.write(logDirectory, ImmutableList.of("db", "web"), format);
+
+        List<String> timeline;
+        try (GZIPInputStream in = new GZIPInputStream(
+                FileUtils.openInputStream(new File(logDirectory, ClusterTimeline.NAME + ".log.gz")))) {
+            timeline = IOUtils.readLines(in, StandardCharsets.UTF_8);
+        }
+        assertThat(messagesOf(timeline)).containsExactly("1", "2", "3", "4", "5", "6", "7", "8", "9");
+    }
+
+    @Test
+    public void leave_out_services_which_have_no_logs() throws IOException {
+        writePlain("db", "db-1  | 2026-01-01T00:00:01Z a");
+
+        ClusterTimeline.write(logDirectory, ImmutableList.of("db", "missing"), LogFileFormat.plain());
+
+        assertThat(messagesOf(plainTimeline())).containsExactly("a");
+    }
+
+    @Test
+    public void parse_timestamps_with_offsets_and_without_a_container_prefix() {
+        assertThat(ClusterTimeline.timestampOf("2026-01-01T01:00:00.5+01:00 message", Instant.MIN))
+                .isEqualTo(Instant.parse("2026-01-01T00:00:00.500Z"));
+        assertThat(ClusterTimeline.timestampOf("no timestamp here", Instant.EPOCH))
+                .isEqualTo(Instant.EPOCH);
+    }
+
+    private void writePlain(String service, String... lines) throws IOException {
+        FileUtils.writeLines(new File(logDirectory, service + ".log"), ImmutableList.copyOf(lines), "\n");
+    }
+
+    private List<String> plainTimeline() throws IOException {
+        return FileUtils.readLines(new File(logDirectory, ClusterTimeline.NAME + ".log"), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> messagesOf(List<String> timeline) {
+        return timeline.stream()
+                .map(line -> line.substring(line.lastIndexOf(' ') + 1))
+                .collect(Collectors.toList());
+    }
+}
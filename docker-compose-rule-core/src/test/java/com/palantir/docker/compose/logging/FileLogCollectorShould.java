@@ -20,21 +20,35 @@ import static com.palantir.docker.compose.matchers.IoMatchers.fileWithName;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.connection.DockerMachine;
+import com.palantir.docker.compose.execution.DefaultDockerCompose;
 import com.palantir.docker.compose.execution.DockerCompose;
+import com.palantir.docker.compose.execution.DockerComposeExecutable;
+import com.palantir.docker.compose.execution.DockerComposeLogsOption;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.IOUtils;
+import org.joda.time.Duration;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -137,6 +151,159 @@ public class FileLogCollectorShould {
         assertThat(new File(logDirectory, "db2.log"), is(fileContainingString("other")));
     }
 
+    @Test
+    public void collect_the_logs_of_several_services_at_once_in_parallel_mode() throws Exception {
+        when(compose.services()).thenReturn(ImmutableList.of("db", "db2"));
+        CyclicBarrier bothCollecting = new CyclicBarrier(2);
+        when(compose.writeLogs(any(String.class), any(OutputStream.class))).thenAnswer(args -> {
+            bothCollecting.await(5, TimeUnit.SECONDS);
+            IOUtils.write("log", (OutputStream) args.getArguments()[1]);
+            return true;
+        });
+
+        List<CollectedServiceLogs> collected =
+                parallelCollector(2, Duration.standardSeconds(10)).collectServiceLogs(compose);
+
+        assertThat(collected.get(0).failure(), is(Optional.empty()));
+        assertThat(collected.get(1).failure(), is(Optional.empty()));
+        assertThat(new File(logDirectory, "db2.log"), is(fileContainingString("log")));
+    }
+
+    @Test
+    public void collect_no_more_than_the_given_number_of_services_at_once() throws Exception {
+        when(compose.services()).thenReturn(ImmutableList.of("a", "b", "c", "d", "e", "f"));
+        AtomicInteger collecting = new AtomicInteger();
+        AtomicInteger mostCollectingAtOnce = new AtomicInteger();
+        when(compose.writeLogs(any(String.class), any(OutputStream.class))).thenAnswer(_args -> {
+            mostCollectingAtOnce.accumulateAndGet(collecting.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            collecting.decrementAndGet();
+            return true;
+        });
+
+        List<CollectedServiceLogs> collected =
+                parallelCollector(2, Duration.standardSeconds(10)).collectServiceLogs(compose);
+
+        assertThat(collected.size(), is(6));
+        assertThat(mostCollectingAtOnce.get(), is(lessThanOrEqualTo(2)));
+    }
+
+    @Test
+    public void give_up_on_a_service_whose_logs_take_too_long_without_holding_up_the_others() throws Exception {
+        when(compose.services()).thenReturn(ImmutableList.of("stuck", "db"));
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        when(compose.writeLogs(eq("stuck"), any(OutputStream.class))).thenAnswer(_args -> {
+            neverReleased.await();
+            return true;
+        });
+        when(compose.writeLogs(eq("db"), any(OutputStream.class))).thenAnswer(args -> {
+            IOUtils.write("log", (OutputStream) args.getArguments()[1]);
+            return true;
+        });
+
+        List<CollectedServiceLogs> collected =
+                parallelCollector(2, Duration.millis(200)).collectServiceLogs(compose);
+
+        assertThat(collected.get(0).serviceName(), is("stuck"));
+        assertThat(collected.get(0).failure().isPresent(), is(true));
+        assertThat(collected.get(1).failure(), is(Optional.empty()));
+        assertThat(new File(logDirectory, "db.log"), is(fileContainingString("log")));
+    }
+
+    @Test
+    public void stop_the_logs_process_of_a_service_it_gave_up_on() throws Exception {
+        Process endlessLogs =
+                new ProcessBuilder("sh", "-c", "while true; do echo a line of logs; sleep 0.01; done").start();
+        Process version = mock(Process.class);
+        when(version.getInputStream())
+                .thenReturn(
+                        IOUtils.toInputStream("docker-compose version 1.7.0, build 1ad8866", StandardCharsets.UTF_8));
+        DockerComposeExecutable executable = mock(DockerComposeExecutable.class);
+        when(executable.commandName()).thenReturn("docker-compose");
+        when(executable.execute("version")).thenReturn(version);
+        when(executable.execute("logs", "--no-color", "stuck")).thenReturn(endlessLogs);
+        DockerCompose dockerCompose = new DefaultDockerCompose(executable, mock(DockerMachine.class));
+        when(compose.services()).thenReturn(ImmutableList.of("stuck"));
+        when(compose.writeLogs(eq("stuck"), any(OutputStream.class)))
+                .thenAnswer(args -> dockerCompose.writeLogs("stuck", (OutputStream) args.getArguments()[1]));
+
+        List<CollectedServiceLogs> collected =
+                parallelCollector(1, Duration.millis(200)).collectServiceLogs(compose);
+
+        assertThat(collected.get(0).failure().isPresent(), is(true));
+        assertThat(endlessLogs.waitFor(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void merge_timestamped_logs_into_a_cluster_timeline() throws Exception {
+        when(compose.services()).thenReturn(ImmutableList.of("db", "web"));
+        when(compose.writeLogs(any(DockerComposeLogsOption.class), eq("db"), any(OutputStream.class)))
+                .thenAnswer(args -> {
+                    IOUtils.write(
+                            "db-1  | 2026-01-01T00:00:01Z first\ndb-1  | 2026-01-01T00:00:03Z third\n",
+                            (OutputStream) args.getArguments()[2]);
+                    return true;
+                });
+        when(compose.writeLogs(any(DockerComposeLogsOption.class), eq("web"), any(OutputStream.class)))
+                .thenAnswer(args -> {
+                    IOUtils.write("web-1  | 2026-01-01T00:00:02Z second\n", (OutputStream) args.getArguments()[2]);
+                    return true;
+                });
+
+        new FileLogCollector(logDirectory).withClusterTimeline().collectServiceLogs(compose);
+
+        assertThat(
+                IOUtils.toString(new File(logDirectory, "cluster-timeline.log").toURI(), StandardCharsets.UTF_8),
+                is("db-1  | 2026-01-01T00:00:01Z first\n"
+                        + "web-1  | 2026-01-01T00:00:02Z second\n"
+                        + "db-1  | 2026-01-01T00:00:03Z third\n"));
+    }
+
+    @Test
+    public void save_only_the_logs_written_during_a_test() throws Exception {
+        when(compose.services()).thenReturn(ImmutableList.of("db"));
+        when(compose.writeLogs(any(DockerComposeLogsOption.class), eq("db"), any(OutputStream.class)))
+                .thenAnswer(args -> {
+                    IOUtils.write("during the test", (OutputStream) args.getArguments()[2]);
+                    return true;
+                });
+        TestLogSlice slice = TestLogSlice.builder()
+                .testName("MyTest.does_something")
+                .since(Instant.parse("2026-01-01T00:00:01Z"))
+                .until(Instant.parse("2026-01-01T00:00:02Z"))
+                .build();
+
+        logCollector.collectTestLogs(compose, slice);
+
+        verify(compose)
+                .writeLogs(
+                        eq(DockerComposeLogsOption.options(
+                                "--since", "2026-01-01T00:00:01Z", "--until", "2026-01-01T00:00:02Z")),
+                        eq("db"),
+                        any(OutputStream.class));
+        assertThat(
+                new File(logDirectory, "tests/MyTest.does_something/db.log"),
+                is(fileContainingString("during the test")));
+    }
+
+    @Test
+    public void report_a_failure_for_one_service_and_carry_on_collecting_the_rest() throws Exception {
+        when(compose.services()).thenReturn(ImmutableList.of("broken", "db"));
+        when(compose.writeLogs(eq("broken"), any(OutputStream.class)))
+                .thenThrow(new IllegalStateException("docker went away"));
+        when(compose.writeLogs(eq("db"), any(OutputStream.class))).thenReturn(true);
+
+        List<CollectedServiceLogs> collected =
+                parallelCollector(2, Duration.standardSeconds(10)).collectServiceLogs(compose);
+
+        assertThat(collected.get(0).failure().get(), containsString("docker went away"));
+        assertThat(collected.get(1).failure(), is(Optional.empty()));
+    }
+
+    private FileLogCollector parallelCollector(int parallelism, Duration serviceTimeout) {
+        return new FileLogCollector(logDirectory, parallelism, serviceTimeout);
+    }
+
     private static File cannotBeCreatedDirectory() {
         File cannotBeCreatedDirectory = mock(File.class);
         when(cannotBeCreatedDirectory.isFile()).thenReturn(false);
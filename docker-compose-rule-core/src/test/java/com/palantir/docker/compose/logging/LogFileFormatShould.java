@@ -0,0 +1,153 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Strings;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogFileFormatShould {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File logDirectory;
+
+    @Before
+    public void before() throws IOException {
+        logDirectory = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void write_plain_logs_in_full_by_default() throws IOException {
+        write(LogFileFormat.plain(), "first\n", "second\n");
+
+        assertThat(logDirectory.list()).containsExactly("db.log");
+        assertThat(plainContents("db.log")).isEqualTo("first\nsecond\n");
+    }
+
+    @Test
+    public void write_gzipped_logs() throws IOException {
+        String line = Strings.repeat("the same line over and over\n", 10_000);
+        write(LogFileFormat.gzipped(), line);
+
+        File logFile = new File(logDirectory, "db.log.gz");
+        assertThat(logFile.length()).isLessThan(line.length() / 10);
+        assertThat(gzippedContents("db.log.gz")).isEqualTo(line);
+    }
+
+    @Test
+    public void keep_the_head_and_tail_of_the_logs_and_note_what_was_left_out() throws IOException {
+        LogFileFormat format = LogFileFormat.builder()
+                .maxHeadBytes(10)
+                .maxTailBytes(20)
+                .segmentBytes(10)
+                .build();
+
+        write(format, "head 0001\n", "lost 0002\n", "lost 0003\n", "tail 0004\n", "tail 0005\n");
+
+        assertThat(logDirectory.list()).containsExactlyInAnyOrder("db.log", "db.3.log", "db.4.log");
+        assertThat(plainContents("db.log"))
+                .startsWith("head 0001\n")
+                .contains("20 bytes of logs omitted, the logs continue in db.3.log");
+        assertThat(plainContents("db.3.log")).isEqualTo("tail 0004\n");
+        assertThat(plainContents("db.4.log")).isEqualTo("tail 0005\n");
+    }
+
+    @Test
+    public void only_switch_files_at_the_end_of_a_line() throws IOException {
+        LogFileFormat format = LogFileFormat.builder()
+                .maxHeadBytes(4)
+                .maxTailBytes(100)
+                .segmentBytes(100)
+                .build();
+
+        write(format, "first line\nsecond line\n");
+
+        assertThat(plainContents("db.log")).startsWith("first line\n");
+        assertThat(plainContents("db.1.log")).isEqualTo("second line\n");
+    }
+
+    @Test
+    public void drop_everything_after_the_head_when_no_tail_is_kept() throws IOException {
+        write(LogFileFormat.builder().maxHeadBytes(6).build(), "first\n", "second\n");
+
+        assertThat(logDirectory.list()).containsExactly("db.log");
+        assertThat(plainContents("db.log"))
+                .isEqualTo(String.format("first\n%n[docker-compose-rule] 7 more bytes of logs omitted%n"));
+    }
+
+    @Test
+    public void write_gzipped_head_and_tail_segments() throws IOException {
+        write(LogFileFormat.gzippedHeadAndTail(6, 7), "first\n", "middle\n", "last\n");
+
+        assertThat(gzippedContents("db.log.gz")).startsWith("first\n");
+        assertThat(gzippedContents("db.1.log.gz")).isEqualTo("middle\n");
+        assertThat(gzippedContents("db.2.log.gz")).isEqualTo("last\n");
+    }
+
+    @Test
+    public void not_read_back_segments_left_by_an_earlier_run() throws IOException {
+        LogFileFormat format = LogFileFormat.builder()
+                .maxHeadBytes(6)
+                .maxTailBytes(100)
+                .segmentBytes(6)
+                .build();
+        write(format, "first\n", "older\n", "stale\n");
+        assertThat(logDirectory.list()).contains("db.2.log");
+
+        write(format, "first\n", "newer\n");
+
+        assertThat(logDirectory.list()).containsExactlyInAnyOrder("db.log", "db.1.log");
+        try (InputStream input = format.openForReading(logDirectory, "db")) {
+            assertThat(IOUtils.toString(input, StandardCharsets.UTF_8))
+                    .startsWith("first\n")
+                    .endsWith("newer\n")
+                    .doesNotContain("older", "stale");
+        }
+    }
+
+    private void write(LogFileFormat format, String... chunks) throws IOException {
+        try (OutputStream output = format.open(logDirectory, "db")) {
+            for (String chunk : chunks) {
+                output.write(chunk.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private String plainContents(String fileName) throws IOException {
+        return new String(Files.readAllBytes(new File(logDirectory, fileName).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private String gzippedContents(String fileName) throws IOException {
+        try (InputStream input = new GZIPInputStream(new FileInputStream(new File(logDirectory, fileName)))) {
+            return IOUtils.toString(input, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.execution.DockerCompose;
+import com.palantir.docker.compose.execution.DockerComposeLogsOption;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+public class StreamingLogCollectorShould {
+    @Rule
+    public TemporaryFolder logDirectoryParent = new TemporaryFolder();
+
+    private final DockerCompose compose = mock(DockerCompose.class);
+    private final Process process = mock(Process.class);
+    private final PipedOutputStream logs = new PipedOutputStream();
+    private File logDirectory;
+    private StreamingLogCollector logCollector;
+
+    @Before
+    public void before() throws IOException, InterruptedException {
+        logDirectory = logDirectoryParent.newFolder();
+        logCollector = new StreamingLogCollector(logDirectory, Duration.millis(100), Duration.standardSeconds(5));
+        when(compose.services()).thenReturn(ImmutableList.of("db"));
+        when(process.getInputStream()).thenReturn(new PipedInputStream(logs, 64 * 1024));
+        when(process.isAlive()).thenReturn(true);
+        doAnswer(_invocation -> {
+                    logs.close();
+                    return null;
+                })
+                .when(process)
+                .destroy();
+        when(compose.followLogs("db")).thenReturn(process);
+    }
+
+    @Test
+    public void write_logs_to_disk_while_the_cluster_is_still_running() throws Exception {
+        logCollector.startCollecting(compose);
+        log("starting up\n");
+
+        File logFile = new File(logDirectory, "db.log");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!contentsOf(logFile).equals("starting up\n") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(contentsOf(logFile)).isEqualTo("starting up\n");
+    }
+
+    @Test
+    public void finish_writing_the_logs_at_shutdown_without_fetching_them_again() throws Exception {
+        logCollector.startCollecting(compose);
+        log("starting up\n");
+        log("shutting down\n");
+        logs.close();
+
+        List<CollectedServiceLogs> collected = logCollector.collectServiceLogs(compose);
+
+        assertThat(collected).hasSize(1);
+        assertThat(collected.get(0).failure()).isEmpty();
+        assertThat(contentsOf(new File(logDirectory, "db.log"))).isEqualTo("starting up\nshutting down\n");
+        verify(compose, never()).writeLogs(any(String.class), any(OutputStream.class));
+        verify(compose, never())
+                .writeLogs(any(DockerComposeLogsOption.class), any(String.class), any(OutputStream.class));
+    }
+
+    @Test
+    public void append_the_logs_written_after_a_service_whose_container_stopped_was_started_again() throws Exception {
+        when(compose.writeLogs(any(DockerComposeLogsOption.class), eq("db"), any(OutputStream.class)))
+                .thenAnswer(args -> {
+                    IOUtils.write("started again\n", (OutputStream) args.getArguments()[2], StandardCharsets.UTF_8);
+                    return true;
+                });
+        Instant started = Instant.now();
+        logCollector.startCollecting(compose);
+        log("stopping\n");
+        logs.close();
+        logCollector.serviceStarted("db");
+
+        List<CollectedServiceLogs> collected = logCollector.collectServiceLogs(compose);
+
+        assertThat(collected.get(0).failure()).isEmpty();
+        assertThat(contentsOf(new File(logDirectory, "db.log"))).isEqualTo("stopping\nstarted again\n");
+        ArgumentCaptor<DockerComposeLogsOption> options = ArgumentCaptor.forClass(DockerComposeLogsOption.class);
+        verify(compose).writeLogs(options.capture(), eq("db"), any(OutputStream.class));
+        assertThat(options.getValue().options()).hasSize(2).startsWith("--since");
+        assertThat(Instant.parse(options.getValue().options().get(1))).isAfterOrEqualTo(started);
+    }
+
+    @Test
+    public void stop_following_services_which_have_gone_quiet_at_shutdown() throws Exception {
+        logCollector.startCollecting(compose);
+        log("still running\n");
+
+        long start = System.nanoTime();
+        List<CollectedServiceLogs> collected = logCollector.collectServiceLogs(compose);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+        assertThat(collected.get(0).failure()).isEmpty();
+        assertThat(contentsOf(new File(logDirectory, "db.log"))).isEqualTo("still running\n");
+        verify(process).destroy();
+    }
+
+    @Test
+    public void collect_the_logs_in_full_when_following_them_failed() throws Exception {
+        when(compose.writeLogs(eq("db"), any(OutputStream.class))).thenAnswer(args -> {
+            IOUtils.write("everything\n", (OutputStream) args.getArguments()[1], StandardCharsets.UTF_8);
+            return true;
+        });
+        when(process.waitFor(1, TimeUnit.SECONDS)).thenReturn(true);
+        when(process.exitValue()).thenReturn(1);
+
+        logCollector.startCollecting(compose);
+        log("no such service\n");
+        logs.close();
+
+        List<CollectedServiceLogs> collected = logCollector.collectServiceLogs(compose);
+
+        assertThat(collected.get(0).failure()).isEmpty();
+        assertThat(contentsOf(new File(logDirectory, "db.log"))).isEqualTo("everything\n");
+    }
+
+    @Test
+    public void collect_the_logs_in_full_of_services_which_were_never_followed() throws Exception {
+        when(compose.writeLogs(eq("db"), any(OutputStream.class))).thenAnswer(args -> {
+            IOUtils.write("everything\n", (OutputStream) args.getArguments()[1], StandardCharsets.UTF_8);
+            return true;
+        });
+
+        logCollector.collectLogs(compose);
+
+        assertThat(contentsOf(new File(logDirectory, "db.log"))).isEqualTo("everything\n");
+    }
+
+    private void log(String text) throws IOException {
+        logs.write(text.getBytes(StandardCharsets.UTF_8));
+        logs.flush();
+    }
+
+    private static String contentsOf(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
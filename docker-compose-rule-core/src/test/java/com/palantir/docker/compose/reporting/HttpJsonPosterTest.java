@@ -17,21 +17,21 @@
 package com.palantir.docker.compose.reporting;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.status;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 
 public class HttpJsonPosterTest {
-    private final ReportingConfig reportingConfig = mock(ReportingConfig.class);
-    private final HttpJsonPoster httpJsonPoster = new HttpJsonPoster(reportingConfig);
-
     @Rule
     public final WireMockRule wireMockRule = new WireMockRule();
 
@@ -39,11 +39,104 @@ public class HttpJsonPosterTest {
     public void can_post_webhook() {
         wireMockRule.stubFor(post("/some/path").willReturn(status(200)));
 
-        when(reportingConfig.url()).thenReturn(String.format("http://localhost:%s/some/path", wireMockRule.port()));
-
         String json = "{\"foo\":\"bar\"}";
-        httpJsonPoster.post(json);
+        poster().post(json);
 
         wireMockRule.verify(postRequestedFor(urlPathEqualTo("/some/path")).withRequestBody(containing(json)));
     }
+
+    @Test
+    public void can_stream_a_large_body() {
+        wireMockRule.stubFor(post("/some/path").willReturn(status(200)));
+
+        String run = "{\"runId\":\"run\"}";
+        poster().post(body -> {
+            body.write('[');
+            for (int i = 0; i < 10_000; i++) {
+                body.write((i == 0 ? run : "," + run).getBytes(StandardCharsets.UTF_8));
+            }
+            body.write(']');
+        });
+
+        wireMockRule.verify(postRequestedFor(urlPathEqualTo("/some/path"))
+                .withHeader("Transfer-Encoding", equalTo("chunked"))
+                .withRequestBody(containing(run + "," + run)));
+    }
+
+    @Test
+    public void gzips_the_body() {
+        wireMockRule.stubFor(post("/some/path").willReturn(status(200)));
+
+        poster().post("{\"foo\":\"bar\"}");
+
+        wireMockRule.verify(postRequestedFor(urlPathEqualTo("/some/path"))
+                .withHeader("Content-Encoding", equalTo("gzip"))
+                .withRequestBody(containing("{\"foo\":\"bar\"}")));
+    }
+
+    @Test
+    public void can_post_plain_json_to_servers_which_do_not_accept_gzip() {
+        wireMockRule.stubFor(post("/some/path").willReturn(status(200)));
+
+        String json = "{\"foo\":\"bar\"}";
+        assertThat(new HttpJsonPoster(String.format("http://localhost:%s/some/path", wireMockRule.port()), false)
+                        .post(body -> body.write(json.getBytes(StandardCharsets.UTF_8)), deadlineIn(10)))
+                .isTrue();
+
+        wireMockRule.verify(postRequestedFor(urlPathEqualTo("/some/path"))
+                .withoutHeader("Content-Encoding")
+                .withRequestBody(equalTo(json)));
+    }
+
+    @Test
+    public void gives_up_without_retrying_when_redirected() {
+        wireMockRule.stubFor(
+                post("/some/path").willReturn(status(301).withHeader("Location", "https://localhost/some/path")));
+
+        assertThat(poster().post(body -> body.write('1'), deadlineIn(10))).isFalse();
+        wireMockRule.verify(1, postRequestedFor(urlPathEqualTo("/some/path")));
+    }
+
+    @Test
+    public void retries_server_errors() {
+        wireMockRule.stubFor(post("/some/path")
+                .inScenario("flaky")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(status(503))
+                .willSetStateTo("recovered"));
+        wireMockRule.stubFor(post("/some/path")
+                .inScenario("flaky")
+                .whenScenarioStateIs("recovered")
+                .willReturn(status(200)));
+
+        assertThat(poster().post(body -> body.write('1'), deadlineIn(10))).isTrue();
+        wireMockRule.verify(2, postRequestedFor(urlPathEqualTo("/some/path")));
+    }
+
+    @Test
+    public void does_not_retry_client_errors() {
+        wireMockRule.stubFor(post("/some/path").willReturn(status(400)));
+
+        assertThat(poster().post(body -> body.write('1'), deadlineIn(10))).isFalse();
+        wireMockRule.verify(1, postRequestedFor(urlPathEqualTo("/some/path")));
+    }
+
+    @Test
+    public void gives_up_retrying_at_the_deadline() {
+        wireMockRule.stubFor(post("/some/path").willReturn(status(500).withFixedDelay(400)));
+
+        long start = System.nanoTime();
+        assertThat(poster().post(body -> body.write('1'), deadlineIn(1))).isFalse();
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        wireMockRule.verify(2, postRequestedFor(urlPathEqualTo("/some/path")));
+    }
+
+    private HttpJsonPoster poster() {
+        return new HttpJsonPoster(String.format("http://localhost:%s/some/path", wireMockRule.port()));
+    }
+
+    private static long deadlineIn(int seconds) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    }
 }
@@ -17,18 +17,28 @@
 package com.palantir.docker.compose.reporting;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.palantir.docker.compose.report.DockerComposeRun;
+import com.palantir.docker.compose.report.GitInfo;
 import com.palantir.docker.compose.report.Report;
 import com.palantir.docker.compose.report.TestDescription;
+import java.io.IOException;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -58,6 +68,7 @@ public class ReportCompilerTest {
         reporter.addRun(run);
         reporter.addRun(run);
         reporter.addException(exception);
+        reporter.addDockerComposeConfig("hash", "services: {}");
 
         reporter.report();
 
@@ -66,10 +77,146 @@ public class ReportCompilerTest {
         Report sentReport = captor.getValue();
 
         assertThat(sentReport.getRuns()).containsOnly(run, run);
+        assertThat(sentReport.getDockerComposeConfigs()).containsOnly(entry("hash", "services: {}"));
         assertThat(sentReport.getExceptions()).hasOnlyOneElementSatisfying(exceptionString -> {
             assertThat(exceptionString).contains(exception.getMessage());
         });
         assertThat(sentReport.getSubmittedTime()).isEqualTo(time.atOffset(ZoneOffset.UTC));
         assertThat(sentReport.getWhitelistedEnvironmentVariables()).containsOnlyKeys("PATH");
     }
+
+    @Test
+    public void sends_each_full_batch_of_runs_before_the_final_report() throws InterruptedException {
+        when(clock.instant()).thenReturn(Instant.ofEpochSecond(1));
+        BlockingQueue<Report> reports = new LinkedBlockingQueue<>();
+        ReportCompiler batchingReporter = new ReportCompiler(
+                clock,
+                environmentVariableWhitelist,
+                2,
+                Duration.ofSeconds(10),
+                (reportWithoutRuns, runs, _deadlineNanos) -> reports.add(Report.builder()
+                        .from(reportWithoutRuns)
+                        .runs(runs.readRuns())
+                        .build()));
+
+        DockerComposeRun first = runWithConfig("first", "hash1");
+        DockerComposeRun second = runWithConfig("second", "hash1");
+        DockerComposeRun third = runWithConfig("third", "hash2");
+        batchingReporter.addDockerComposeConfig("hash1", "services: {one: {}}");
+        batchingReporter.addDockerComposeConfig("hash2", "services: {two: {}}");
+
+        batchingReporter.addRun(first);
+        batchingReporter.addRun(second);
+
+        Report batch = reports.poll(10, TimeUnit.SECONDS);
+        assertThat(batch).isNotNull();
+        assertThat(batch.getRuns()).containsExactly(first, second);
+        assertThat(batch.getDockerComposeConfigs()).containsOnlyKeys("hash1");
+
+        batchingReporter.addRun(third);
+        batchingReporter.report();
+
+        Report finalReport = reports.poll();
+        assertThat(finalReport).isNotNull();
+        assertThat(finalReport.getRuns()).containsExactly(third);
+        assertThat(finalReport.getReportId()).isNotEqualTo(batch.getReportId());
+        assertThat(reports).isEmpty();
+    }
+
+    @Test
+    public void starts_collecting_metadata_when_constructed() throws InterruptedException {
+        BlockingQueue<List<String>> commands = new LinkedBlockingQueue<>();
+        reporterRunningCommands(new LinkedBlockingQueue<>(), args -> {
+            commands.add(Arrays.asList(args));
+            return "";
+        });
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(commands.poll(10, TimeUnit.SECONDS)).isNotNull();
+        }
+        assertThat(commands)
+                .as("every command should have started before report() is called")
+                .isEmpty();
+    }
+
+    @Test
+    public void reports_without_metadata_once_the_shutdown_timeout_passes() throws InterruptedException {
+        when(clock.instant()).thenReturn(Instant.ofEpochSecond(1));
+        CountDownLatch hung = new CountDownLatch(1);
+        BlockingQueue<Report> reports = new LinkedBlockingQueue<>();
+        ReportCompiler hungReporter = reporterRunningCommands(reports, _args -> {
+            hung.await();
+            return "never";
+        });
+
+        try {
+            long start = System.nanoTime();
+            hungReporter.report();
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+            Report report = reports.poll();
+            assertThat(report).isNotNull();
+            assertThat(report.getGitInfo()).isEqualTo(GitInfo.builder().build());
+            assertThat(report.getVersions().getDocker()).isEmpty();
+            assertThat(report.getVersions().getDockerCompose()).isEmpty();
+        } finally {
+            hung.countDown();
+        }
+    }
+
+    @Test
+    public void keeps_the_other_metadata_when_one_command_fails() {
+        when(clock.instant()).thenReturn(Instant.ofEpochSecond(1));
+        BlockingQueue<Report> reports = new LinkedBlockingQueue<>();
+        ReportCompiler failingReporter = reporterRunningCommands(reports, args -> {
+            List<String> command = Arrays.asList(args);
+            if (command.contains("status")) {
+                throw new IOException("git status failed");
+            }
+            if (command.contains("--abbrev-ref")) {
+                return "develop";
+            }
+            if (command.contains("ls-remote")) {
+                return "git@github.com:palantir/docker-compose-rule.git";
+            }
+            return "output of " + String.join(" ", command);
+        });
+
+        failingReporter.report();
+
+        Report report = reports.poll();
+        assertThat(report).isNotNull();
+        assertThat(report.getGitInfo().getBranch()).hasValue("develop");
+        assertThat(report.getGitInfo().getCommit()).hasValue("output of git rev-parse HEAD");
+        assertThat(report.getGitInfo().getOriginPath()).hasValue("palantir/docker-compose-rule");
+        assertThat(report.getGitInfo().getDirty()).isEmpty();
+        assertThat(report.getVersions().getDocker()).hasValue("output of docker --version");
+        assertThat(report.getExceptions()).hasOnlyOneElementSatisfying(exceptionString -> {
+            assertThat(exceptionString).contains("git status failed");
+        });
+    }
+
+    private ReportCompiler reporterRunningCommands(
+            BlockingQueue<Report> reports, ReportCompiler.CommandRunner commandRunner) {
+        return new ReportCompiler(
+                clock,
+                environmentVariableWhitelist,
+                Integer.MAX_VALUE,
+                Duration.ofMillis(200),
+                (reportWithoutRuns, runs, _deadlineNanos) -> reports.add(Report.builder()
+                        .from(reportWithoutRuns)
+                        .runs(runs.readRuns())
+                        .build()),
+                commandRunner);
+    }
+
+    private static DockerComposeRun runWithConfig(String runId, String configHash) {
+        return DockerComposeRun.builder()
+                .runId(runId)
+                .startTime(OffsetDateTime.MIN)
+                .finishTime(OffsetDateTime.MAX)
+                .testDescription(TestDescription.builder().build())
+                .dockerComposeConfigHash(configHash)
+                .build();
+    }
 }
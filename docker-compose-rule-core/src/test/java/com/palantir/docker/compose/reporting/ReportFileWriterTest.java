@@ -0,0 +1,66 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.docker.compose.report.DockerComposeRun;
+import com.palantir.docker.compose.report.GitInfo;
+import com.palantir.docker.compose.report.Report;
+import com.palantir.docker.compose.report.TestDescription;
+import com.palantir.docker.compose.report.Versions;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReportFileWriterTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void writes_each_report_with_its_runs_to_a_file_named_after_its_id() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("reports");
+        DockerComposeRun run = DockerComposeRun.builder()
+                .runId("run")
+                .startTime(TIME)
+                .finishTime(TIME)
+                .testDescription(TestDescription.builder().build())
+                .build();
+        RunSpool runs = new RunSpool();
+        runs.append(run);
+        Report reportWithoutRuns = Report.builder()
+                .reportApiVersion("3")
+                .reportId("report-1")
+                .submittedTime(TIME)
+                .gitInfo(GitInfo.builder().build())
+                .versions(Versions.builder().build())
+                .build();
+
+        new ReportFileWriter(directory).writeReport(reportWithoutRuns, runs, System.nanoTime());
+
+        assertThat(directory.toFile().list()).containsExactly("report-1.json");
+        assertThat(StartupTimings.readReports(directory.resolve("report-1.json")))
+                .containsExactly(
+                        Report.builder().from(reportWithoutRuns).runs(run).build());
+    }
+}
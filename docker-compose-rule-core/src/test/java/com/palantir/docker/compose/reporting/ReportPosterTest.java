@@ -0,0 +1,66 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.serialization.ObjectMappers;
+import com.palantir.docker.compose.report.DockerComposeRun;
+import com.palantir.docker.compose.report.GitInfo;
+import com.palantir.docker.compose.report.Report;
+import com.palantir.docker.compose.report.TestDescription;
+import com.palantir.docker.compose.report.Versions;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.Test;
+
+public class ReportPosterTest {
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMappers.newClientObjectMapper();
+    private static final OffsetDateTime TIME = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    public void streams_the_same_json_as_serializing_the_whole_report() throws IOException {
+        RunSpool runs = new RunSpool();
+        Report.Builder report = Report.builder()
+                .reportApiVersion("2")
+                .reportId("report")
+                .submittedTime(TIME)
+                .gitInfo(GitInfo.builder().build())
+                .versions(Versions.builder().build())
+                .exceptions("oh no");
+        for (int i = 0; i < 3; i++) {
+            DockerComposeRun run = DockerComposeRun.builder()
+                    .runId("run-" + i)
+                    .startTime(TIME)
+                    .finishTime(TIME)
+                    .testDescription(TestDescription.builder().build())
+                    .build();
+            runs.append(run);
+            report.runs(run);
+        }
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        ReportPoster.writeJson(
+                Report.builder().from(report.build()).runs(ImmutableList.of()).build(), runs, streamed);
+
+        assertThat(OBJECT_MAPPER.readTree(streamed.toByteArray())).isEqualTo(OBJECT_MAPPER.valueToTree(report.build()));
+    }
+}
@@ -20,19 +20,34 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.palantir.docker.compose.configuration.DockerComposeFiles;
 import com.palantir.docker.compose.events.BuildEvent;
 import com.palantir.docker.compose.events.Event;
 import com.palantir.docker.compose.events.PullEvent;
 import com.palantir.docker.compose.events.Task;
 import com.palantir.docker.compose.report.DockerComposeRun;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 
 public class RunRecorderTest {
@@ -48,8 +63,14 @@ public class RunRecorderTest {
     private static final Event PULL_EVENT =
             Event.pull(PullEvent.builder().task(TASK).build());
 
+    private static final Supplier<Map<String, String>> ENVIRONMENT = () -> ImmutableMap.of("TAG", "1.0");
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private final Reporter reporter = mock(Reporter.class);
-    private final RunRecorder runRecorder = new RunRecorder(Clock.fixed(THE_TIME, ZoneId.of("UTC")), reporter);
+    private final ConcurrentMap<String, String> configHashes = new ConcurrentHashMap<>();
+    private final RunRecorder runRecorder = recorder();
 
     @Test
     public void will_not_duplicate_data_when_run_twice() {
@@ -65,10 +86,98 @@ public class RunRecorderTest {
         verify(reporter, times(2)).addRun(runCaptor.capture());
 
         List<DockerComposeRun> runs = runCaptor.getAllValues();
-        assertThat(runs.get(0).getDockerComposeConfig()).hasValue("dcr1");
+        assertThat(runs.get(0).getDockerComposeConfigHash()).hasValue(sha256("dcr1"));
         assertThat(runs.get(0).getEvents()).containsExactly(BUILD_EVENT);
 
-        assertThat(runs.get(1).getDockerComposeConfig()).hasValue("dcr2");
+        assertThat(runs.get(1).getDockerComposeConfigHash()).hasValue(sha256("dcr2"));
         assertThat(runs.get(1).getEvents()).containsExactly(PULL_EVENT);
+
+        verify(reporter).addDockerComposeConfig(sha256("dcr1"), "dcr1");
+        verify(reporter).addDockerComposeConfig(sha256("dcr2"), "dcr2");
+    }
+
+    @Test
+    public void only_fetches_the_config_again_when_the_docker_compose_files_change() throws Exception {
+        File composeFile = temporaryFolder.newFile("docker-compose.yml");
+        DockerComposeFiles files = new DockerComposeFiles(ImmutableList.of(composeFile));
+        Callable<String> config = mock(Callable.class);
+        when(config.call()).thenReturn("dcr1", "dcr2");
+
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+        Files.write(composeFile.toPath(), "services: {}".getBytes(StandardCharsets.UTF_8));
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+
+        verify(config, times(2)).call();
+        ArgumentCaptor<DockerComposeRun> runCaptor = ArgumentCaptor.forClass(DockerComposeRun.class);
+        verify(reporter, times(3)).addRun(runCaptor.capture());
+        assertThat(runCaptor.getAllValues())
+                .extracting(run -> run.getDockerComposeConfigHash().get())
+                .containsExactly(sha256("dcr1"), sha256("dcr1"), sha256("dcr2"));
+        verify(reporter, times(1)).addDockerComposeConfig(sha256("dcr1"), "dcr1");
+    }
+
+    @Test
+    public void reuses_the_config_fetched_by_another_run_in_the_same_process() throws Exception {
+        DockerComposeFiles files =
+                new DockerComposeFiles(ImmutableList.of(temporaryFolder.newFile("docker-compose.yml")));
+        Callable<String> config = mock(Callable.class);
+        when(config.call()).thenReturn("dcr1");
+
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+        RunRecorder otherRecorder = recorder();
+        otherRecorder.before(files, ENVIRONMENT, config);
+        otherRecorder.after();
+
+        verify(config, times(1)).call();
+        ArgumentCaptor<DockerComposeRun> runCaptor = ArgumentCaptor.forClass(DockerComposeRun.class);
+        verify(reporter, times(2)).addRun(runCaptor.capture());
+        assertThat(runCaptor.getAllValues())
+                .extracting(run -> run.getDockerComposeConfigHash().get())
+                .containsExactly(sha256("dcr1"), sha256("dcr1"));
+    }
+
+    @Test
+    public void fetches_the_config_again_when_the_dot_env_file_changes() throws Exception {
+        DockerComposeFiles files =
+                new DockerComposeFiles(ImmutableList.of(temporaryFolder.newFile("docker-compose.yml")));
+        Callable<String> config = mock(Callable.class);
+        when(config.call()).thenReturn("dcr1", "dcr2");
+
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+        Files.write(temporaryFolder.getRoot().toPath().resolve(".env"), "TAG=2.0".getBytes(StandardCharsets.UTF_8));
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+
+        verify(config, times(2)).call();
+    }
+
+    @Test
+    public void fetches_the_config_again_when_the_environment_changes() throws Exception {
+        DockerComposeFiles files =
+                new DockerComposeFiles(ImmutableList.of(temporaryFolder.newFile("docker-compose.yml")));
+        Callable<String> config = mock(Callable.class);
+        when(config.call()).thenReturn("dcr1", "dcr2");
+
+        runRecorder.before(files, ENVIRONMENT, config);
+        runRecorder.after();
+        runRecorder.before(files, () -> ImmutableMap.of("TAG", "2.0"), config);
+        runRecorder.after();
+
+        verify(config, times(2)).call();
+        verify(reporter).addDockerComposeConfig(sha256("dcr2"), "dcr2");
+    }
+
+    private RunRecorder recorder() {
+        return new RunRecorder(Clock.fixed(THE_TIME, ZoneId.of("UTC")), reporter, configHashes);
+    }
+
+    private static String sha256(String config) {
+        return Hashing.sha256().hashString(config, StandardCharsets.UTF_8).toString();
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.docker.compose.report.DockerComposeRun;
+import com.palantir.docker.compose.report.TestDescription;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class RunSpoolTest {
+    private final RunSpool runSpool = new RunSpool();
+
+    @Test
+    public void reads_back_runs_in_the_order_they_were_added() {
+        DockerComposeRun first = run("first");
+        DockerComposeRun second = run("second");
+
+        runSpool.append(first);
+        runSpool.append(second);
+
+        assertThat(runSpool.readRuns()).containsExactly(first, second);
+    }
+
+    @Test
+    public void passes_one_line_of_json_per_run() throws IOException {
+        runSpool.append(run("first"));
+        runSpool.append(run("second"));
+
+        List<String> lines = new ArrayList<>();
+        runSpool.forEachRunJson(lines::add);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{").contains("\"first\"").doesNotContain("\n");
+    }
+
+    @Test
+    public void has_no_runs_until_one_is_added_and_after_it_is_cleared() {
+        assertThat(runSpool.readRuns()).isEmpty();
+
+        runSpool.append(run("first"));
+        runSpool.clear();
+
+        assertThat(runSpool.readRuns()).isEmpty();
+    }
+
+    private static DockerComposeRun run(String runId) {
+        OffsetDateTime time = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        return DockerComposeRun.builder()
+                .runId(runId)
+                .startTime(time)
+                .finishTime(time)
+                .testDescription(TestDescription.builder().build())
+                .dockerComposeConfig("services: {}")
+                .build();
+    }
+}
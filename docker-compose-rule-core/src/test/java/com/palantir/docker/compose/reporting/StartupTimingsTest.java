@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.compose.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.events.ClusterWaitEvent;
+import com.palantir.docker.compose.events.ClusterWaitType;
+import com.palantir.docker.compose.events.Event;
+import com.palantir.docker.compose.events.ShutdownEvent;
+import com.palantir.docker.compose.events.Task;
+import com.palantir.docker.compose.events.UpEvent;
+import com.palantir.docker.compose.report.DockerComposeRun;
+import com.palantir.docker.compose.report.GitInfo;
+import com.palantir.docker.compose.report.Report;
+import com.palantir.docker.compose.report.TestDescription;
+import com.palantir.docker.compose.report.Versions;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StartupTimingsTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void takes_the_nearest_rank_percentile() {
+        List<Long> durations = ImmutableList.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+
+        assertThat(StartupTimings.percentile(durations, 50)).isEqualTo(5);
+        assertThat(StartupTimings.percentile(durations, 90)).isEqualTo(9);
+        assertThat(StartupTimings.percentile(durations, 99)).isEqualTo(10);
+        assertThat(StartupTimings.percentile(ImmutableList.of(7L), 50)).isEqualTo(7);
+    }
+
+    @Test
+    public void summarises_each_phase_and_service_for_each_commit_in_the_order_they_were_reported() {
+        Report later = report("bbbbbbbbbbbbbbbbbbbb", 60, run(1_000, 2_000), run(3_000, 4_000));
+        Report earlier = report("aaaaaaaaaaaaaaaaaaaa", 0, run(1_000, 2_000));
+
+        List<String> rows = StartupTimings.summarise(ImmutableList.of(later, earlier));
+
+        assertThat(rows.get(0)).startsWith("commit");
+        assertThat(rows.subList(1, rows.size()))
+                .extracting(row -> row.split("\\s+")[0] + " " + row.split("\\s+")[1])
+                .containsExactly(
+                        "aaaaaaaaaaaa before",
+                        "aaaaaaaaaaaa clusterWait",
+                        "aaaaaaaaaaaa clusterWait/db",
+                        "aaaaaaaaaaaa shutdown",
+                        "aaaaaaaaaaaa up",
+                        "bbbbbbbbbbbb before",
+                        "bbbbbbbbbbbb clusterWait",
+                        "bbbbbbbbbbbb clusterWait/db",
+                        "bbbbbbbbbbbb shutdown",
+                        "bbbbbbbbbbbb up");
+        assertThat(rows.get(6).split("\\s+"))
+                .containsExactly("bbbbbbbbbbbb", "before", "2", "3000", "7000", "7000", "7000");
+    }
+
+    @Test
+    public void reads_every_report_in_a_directory_and_skips_other_json() throws IOException {
+        new ReportFileWriter(temporaryFolder.getRoot().toPath())
+                .writeReport(report("commit", 0, run(1_000, 2_000)), new RunSpool(), System.nanoTime());
+        Files.write(
+                temporaryFolder.getRoot().toPath().resolve("other.json"),
+                ImmutableList.of("{\"not\": \"a report\"}"),
+                StandardCharsets.UTF_8);
+
+        assertThat(StartupTimings.readReports(temporaryFolder.getRoot().toPath()))
+                .extracting(Report::getReportId)
+                .containsExactly("report-commit");
+    }
+
+    private static Report report(String commit, int submittedMinutes, DockerComposeRun... runs) {
+        return Report.builder()
+                .reportApiVersion("3")
+                .reportId("report-" + commit)
+                .submittedTime(TIME.plusMinutes(submittedMinutes))
+                .gitInfo(GitInfo.builder().commit(commit).build())
+                .versions(Versions.builder().build())
+                .runs(ImmutableList.copyOf(runs))
+                .build();
+    }
+
+    private static DockerComposeRun run(long upMillis, long clusterWaitMillis) {
+        OffsetDateTime upEnd = TIME.plusNanos(upMillis * 1_000_000);
+        OffsetDateTime clusterWaitEnd = upEnd.plusNanos(clusterWaitMillis * 1_000_000);
+        return DockerComposeRun.builder()
+                .runId("run")
+                .startTime(TIME)
+                .finishTime(clusterWaitEnd.plusSeconds(10))
+                .testDescription(TestDescription.builder().build())
+                .events(Event.up(UpEvent.builder().task(task(TIME, upEnd)).build()))
+                .events(Event.clusterWait(ClusterWaitEvent.builder()
+                        .task(task(upEnd, clusterWaitEnd))
+                        .serviceNames("db")
+                        .type(ClusterWaitType.NATIVE)
+                        .build()))
+                .events(Event.shutdown(ShutdownEvent.builder()
+                        .task(task(clusterWaitEnd.plusSeconds(5), clusterWaitEnd.plusSeconds(6)))
+                        .build()))
+                .build();
+    }
+
+    private static Task task(OffsetDateTime start, OffsetDateTime end) {
+        return Task.builder().startTime(start).endTime(end).build();
+    }
+}
@@ -18,22 +18,26 @@ package com.palantir.docker.compose;
 
 import com.palantir.docker.compose.report.TestDescription;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.immutables.value.Value;
+import org.junit.AssumptionViolatedException;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Value.Immutable
 @CustomImmutablesStyle
 @SuppressWarnings("DesignForExtension")
 public abstract class DockerComposeRule extends DockerComposeManager implements TestRule {
+    private static final Logger log = LoggerFactory.getLogger(DockerComposeRule.class);
+
+    private final AtomicBoolean testsReported = new AtomicBoolean(false);
+
     @Override
     public Statement apply(Statement base, Description description) {
-        this.setDescription(TestDescription.builder()
-                .testClass(Optional.ofNullable(description.getClassName()))
-                .displayName(Optional.ofNullable(description.getDisplayName()))
-                .method(Optional.ofNullable(description.getMethodName()))
-                .build());
+        this.setDescription(describe(description));
 
         return new Statement() {
             @Override
@@ -41,13 +45,67 @@ public abstract class DockerComposeRule extends DockerComposeManager implements
                 try {
                     before();
                     base.evaluate();
+                } catch (AssumptionViolatedException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    recordTestFailure();
+                    throw t;
                 } finally {
+                    collectLogsIfTestFailuresWereUnseen(description);
                     after();
                 }
             }
         };
     }
 
+    /**
+     * As a <code>@ClassRule</code>, this rule never sees the tests fail, as JUnit reports their failures without
+     * throwing them. Without {@link #perTestLogs()} to report them instead, logs are collected as if a test failed.
+     */
+    private void collectLogsIfTestFailuresWereUnseen(Description description) {
+        if (description.isSuite() && collectLogsOnlyOnFailure() && !testsReported.getAndSet(false)) {
+            log.warn("collectLogsOnlyOnFailure is set on a @ClassRule without a @Rule from perTestLogs(), which is"
+                    + " needed to see the tests fail, so collecting logs anyway");
+            recordTestFailure();
+        }
+    }
+
+    /**
+     * A rule for use as a <code>@Rule</code> alongside this rule used as a <code>@ClassRule</code>, which saves the
+     * logs written while each failing test ran, as well as reporting the failure. It is needed for
+     * {@link #collectLogsOnlyOnFailure()} to tell whether any test failed.
+     */
+    public TestRule perTestLogs() {
+        return (base, description) -> new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                TestDescription test = describe(description);
+                boolean failed = false;
+                testsReported.set(true);
+                recordTestStarted(test);
+                try {
+                    base.evaluate();
+                } catch (AssumptionViolatedException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    failed = true;
+                    recordTestFailure();
+                    throw t;
+                } finally {
+                    recordTestFinished(test, failed);
+                }
+            }
+        };
+    }
+
+    private static TestDescription describe(Description description) {
+        return TestDescription.builder()
+                .testClass(Optional.ofNullable(description.getClassName()))
+                .displayName(Optional.ofNullable(description.getDisplayName()))
+                .method(Optional.ofNullable(description.getMethodName()))
+                .build();
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -15,8 +15,12 @@
  */
 package com.palantir.docker.compose;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,14 +30,22 @@ import com.palantir.docker.compose.connection.DockerMachine;
 import com.palantir.docker.compose.execution.DockerCompose;
 import com.palantir.docker.compose.execution.DockerExecutionException;
 import com.palantir.docker.compose.logging.LogCollector;
+import com.palantir.docker.compose.logging.TestLogSlice;
+import java.io.IOException;
+import org.junit.Assume;
 import org.junit.Before;
+import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
 import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
 import org.junit.runner.RunWith;
 import org.junit.runners.model.Statement;
+import org.mockito.ArgumentCaptor;
 import org.mockito.runners.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -50,7 +62,7 @@ public class DockerComposeRuleShould {
     private final DockerCompose dockerCompose = mock(DockerCompose.class);
     private DockerComposeFiles mockFiles = mock(DockerComposeFiles.class);
     private DockerMachine machine = mock(DockerMachine.class);
-    private LogCollector logCollector = mock(LogCollector.class);
+    private LogCollector logCollector = mock(LogCollector.class, CALLS_REAL_METHODS);
     private DockerComposeRule rule;
 
     @Before
@@ -83,4 +95,127 @@ public class DockerComposeRuleShould {
             verify(logCollector, times(1)).collectLogs(dockerCompose);
         }
     }
+
+    @Test
+    @SuppressWarnings("IllegalThrows")
+    public void collects_logs_when_only_collecting_on_failure_and_the_test_fails() throws Throwable {
+        Statement statement = mock(Statement.class);
+        doThrow(new AssertionError("test failed")).when(statement).evaluate();
+        rule = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        try {
+            exception.expect(AssertionError.class);
+            rule.apply(statement, mock(Description.class)).evaluate();
+        } finally {
+            verify(logCollector, times(1)).collectLogs(dockerCompose);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("IllegalThrows")
+    public void skips_logs_when_only_collecting_on_failure_and_the_test_passes() throws Throwable {
+        rule = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        rule.apply(mock(Statement.class), mock(Description.class)).evaluate();
+
+        verify(logCollector, never()).collectLogs(dockerCompose);
+    }
+
+    @Test
+    @SuppressWarnings("IllegalThrows")
+    public void saves_the_logs_of_a_failing_test_against_a_shared_cluster() throws Throwable {
+        Statement statement = mock(Statement.class);
+        doThrow(new AssertionError("test failed")).when(statement).evaluate();
+        Description description = Description.createTestDescription("com.example.MyTest", "does_something");
+
+        try {
+            exception.expect(AssertionError.class);
+            rule.perTestLogs().apply(statement, description).evaluate();
+        } finally {
+            ArgumentCaptor<TestLogSlice> slice = ArgumentCaptor.forClass(TestLogSlice.class);
+            verify(logCollector).collectTestLogs(eq(dockerCompose), slice.capture());
+            assertThat(slice.getValue().testName()).isEqualTo("MyTest.does_something");
+        }
+    }
+
+    @Test
+    public void collects_logs_when_only_collecting_on_failure_and_a_test_under_a_class_rule_fails()
+            throws IOException, InterruptedException {
+        ClassRuleTest.docker = defaultBuilder().collectLogsOnlyOnFailure(true).build();
+
+        Result result = runClassRuleTest(ClassRuleTest.class);
+
+        assertThat(result.getFailureCount()).isEqualTo(1);
+        verify(logCollector, times(1)).collectLogs(dockerCompose);
+    }
+
+    @Test
+    public void skips_logs_under_a_class_rule_when_per_test_logs_sees_no_failures()
+            throws IOException, InterruptedException {
+        ClassRuleWithPerTestLogsTest.docker =
+                defaultBuilder().collectLogsOnlyOnFailure(true).build();
+        ClassRuleWithPerTestLogsTest.fail = false;
+
+        assertThat(runClassRuleTest(ClassRuleWithPerTestLogsTest.class).wasSuccessful())
+                .isTrue();
+        verify(logCollector, never()).collectLogs(dockerCompose);
+    }
+
+    @Test
+    public void collects_logs_under_a_class_rule_when_per_test_logs_sees_a_failure()
+            throws IOException, InterruptedException {
+        ClassRuleWithPerTestLogsTest.docker =
+                defaultBuilder().collectLogsOnlyOnFailure(true).build();
+        ClassRuleWithPerTestLogsTest.fail = true;
+
+        assertThat(runClassRuleTest(ClassRuleWithPerTestLogsTest.class).getFailureCount())
+                .isEqualTo(1);
+        verify(logCollector, times(1)).collectLogs(dockerCompose);
+    }
+
+    private static Result runClassRuleTest(Class<?> testClass) {
+        try {
+            return new JUnitCore().run(testClass);
+        } finally {
+            ClassRuleTest.docker = null;
+            ClassRuleWithPerTestLogsTest.docker = null;
+        }
+    }
+
+    /** Only runs from within the tests above, which set up its rule. */
+    public static class ClassRuleTest {
+        static DockerComposeRule docker;
+
+        @ClassRule
+        public static final TestRule CLASS_RULE =
+                (base, description) -> docker == null ? base : docker.apply(base, description);
+
+        @Test
+        public void fails() {
+            Assume.assumeNotNull(docker);
+            throw new AssertionError("test failed");
+        }
+    }
+
+    /** Only runs from within the tests above, which set up its rules. */
+    public static class ClassRuleWithPerTestLogsTest {
+        static DockerComposeRule docker;
+        static boolean fail;
+
+        @ClassRule
+        public static final TestRule CLASS_RULE =
+                (base, description) -> docker == null ? base : docker.apply(base, description);
+
+        @Rule
+        public final TestRule testLogs = (base, description) ->
+                docker == null ? base : docker.perTestLogs().apply(base, description);
+
+        @Test
+        public void passes_or_fails() {
+            Assume.assumeNotNull(docker);
+            if (fail) {
+                throw new AssertionError("test failed");
+            }
+        }
+    }
 }